@@ -0,0 +1,52 @@
+package com.varma.airtraffic.control.benchmark;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Where a benchmark sends its DynamoDB calls, selected with the backend JMH parameter.
+ */
+public enum Backend {
+    /** Canned in-process responses, measures this code only. */
+    STUB,
+    /** DynamoDB Local at -Ddynamodb.endpoint, http://localhost:8000 by default. */
+    LOCAL;
+
+    private static final String ENDPOINT = System.getProperty("dynamodb.endpoint", "http://localhost:8000");
+    private static final StaticCredentialsProvider LOCAL_CREDENTIALS = StaticCredentialsProvider.create(
+            AwsBasicCredentials.create("benchmark", "benchmark"));
+
+    public static Backend of(final String name) {
+        return valueOf(name.toUpperCase(Locale.ENGLISH));
+    }
+
+    public DynamoDbClient dynamoDb() {
+        if (this == STUB) {
+            return new StubDynamoDbClient();
+        }
+        return DynamoDbClient.builder()
+                .httpClient(ApacheHttpClient.builder().build())
+                .endpointOverride(URI.create(ENDPOINT))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(LOCAL_CREDENTIALS)
+                .build();
+    }
+
+    public DynamoDbAsyncClient dynamoDbAsync(final DynamoDbClient dynamoDb) {
+        if (this == STUB) {
+            return new StubDynamoDbAsyncClient(dynamoDb);
+        }
+        return DynamoDbAsyncClient.builder()
+                .endpointOverride(URI.create(ENDPOINT))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(LOCAL_CREDENTIALS)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.varma.airtraffic.control.benchmark;
+
+import com.varma.airtraffic.control.config.AirTrafficControlComponent;
+import com.varma.airtraffic.control.config.AircraftModule;
+import com.varma.airtraffic.control.config.DataConverterModule;
+import com.varma.airtraffic.control.config.MetricsModule;
+import com.varma.airtraffic.control.config.PriorityAircraftsModule;
+import dagger.Component;
+
+import javax.inject.Singleton;
+
+/**
+ * The application component with DynamoModule swapped for {@link BenchmarkDynamoModule}, so the handlers
+ * can be built against a benchmark backend.
+ */
+@Singleton
+@Component(modules = { DataConverterModule.class, BenchmarkDynamoModule.class, PriorityAircraftsModule.class,
+        AircraftModule.class, MetricsModule.class})
+public interface BenchmarkComponent extends AirTrafficControlComponent {
+}
@@ -0,0 +1,55 @@
+package com.varma.airtraffic.control.benchmark;
+
+import com.varma.airtraffic.control.config.StartupMode;
+import dagger.Module;
+import dagger.Provides;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * Binds what DynamoModule binds for the application, with both clients pointed at a benchmark backend and
+ * the tables BenchmarkTables creates.
+ */
+@Module
+public class BenchmarkDynamoModule {
+    private final Backend backend;
+
+    public BenchmarkDynamoModule(final Backend backend) {
+        this.backend = backend;
+    }
+
+    @Singleton
+    @Provides
+    @Named("aircraftTableName")
+    String aircraftTableName() {
+        return BenchmarkTables.AIRCRAFT_TABLE_NAME;
+    }
+
+    @Singleton
+    @Provides
+    @Named("priorityAircraftTableName")
+    String priorityAircraftTableName() {
+        return BenchmarkTables.PRIORITY_AIRCRAFT_TABLE_NAME;
+    }
+
+    @Singleton
+    @Provides
+    StartupMode startupMode() {
+        return StartupMode.STANDARD;
+    }
+
+    @Singleton
+    @Provides
+    DynamoDbClient dynamoDb() {
+        return backend.dynamoDb();
+    }
+
+    @Singleton
+    @Provides
+    DynamoDbAsyncClient dynamoDbAsync(DynamoDbClient dynamoDb) {
+        return backend.dynamoDbAsync(dynamoDb);
+    }
+}
@@ -0,0 +1,72 @@
+package com.varma.airtraffic.control.benchmark;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.LocalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+/**
+ * Creates the tables of template.yaml in DynamoDB Local, leaving existing ones alone.
+ */
+public final class BenchmarkTables {
+    public static final String AIRCRAFT_TABLE_NAME = "AircraftTable";
+    public static final String PRIORITY_AIRCRAFT_TABLE_NAME = "PriorityAircraftsTable";
+
+    private static final ProvisionedThroughput THROUGHPUT = ProvisionedThroughput.builder()
+            .readCapacityUnits(1000L)
+            .writeCapacityUnits(1000L)
+            .build();
+
+    private BenchmarkTables() {
+    }
+
+    public static void create(final DynamoDbClient dynamoDb) {
+        createIfMissing(dynamoDb, CreateTableRequest.builder()
+                .tableName(AIRCRAFT_TABLE_NAME)
+                .keySchema(key("aircraftId", KeyType.HASH))
+                .attributeDefinitions(attribute("aircraftId"), attribute("airportCode"), attribute("queueKey"))
+                .globalSecondaryIndexes(GlobalSecondaryIndex.builder()
+                        .indexName("airportQueueIndex")
+                        .keySchema(key("airportCode", KeyType.HASH), key("queueKey", KeyType.RANGE))
+                        .projection(Projection.builder().projectionType(ProjectionType.KEYS_ONLY).build())
+                        .provisionedThroughput(THROUGHPUT)
+                        .build())
+                .provisionedThroughput(THROUGHPUT)
+                .build());
+        createIfMissing(dynamoDb, CreateTableRequest.builder()
+                .tableName(PRIORITY_AIRCRAFT_TABLE_NAME)
+                .keySchema(key("hashKey", KeyType.HASH), key("rangeKey", KeyType.RANGE))
+                .attributeDefinitions(attribute("hashKey"), attribute("rangeKey"), attribute("date"))
+                .localSecondaryIndexes(LocalSecondaryIndex.builder()
+                        .indexName("pDateIndex")
+                        .keySchema(key("hashKey", KeyType.HASH), key("date", KeyType.RANGE))
+                        .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                        .build())
+                .provisionedThroughput(THROUGHPUT)
+                .build());
+    }
+
+    private static void createIfMissing(final DynamoDbClient dynamoDb, final CreateTableRequest request) {
+        try {
+            dynamoDb.createTable(request);
+        } catch (ResourceInUseException e) {
+            // left over from an earlier run
+        }
+    }
+
+    private static KeySchemaElement key(final String name, final KeyType keyType) {
+        return KeySchemaElement.builder().attributeName(name).keyType(keyType).build();
+    }
+
+    private static AttributeDefinition attribute(final String name) {
+        return AttributeDefinition.builder().attributeName(name).attributeType(ScalarAttributeType.S).build();
+    }
+}
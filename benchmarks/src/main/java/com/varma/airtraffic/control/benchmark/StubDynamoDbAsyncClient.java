@@ -0,0 +1,54 @@
+package com.varma.airtraffic.control.benchmark;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async view of a StubDynamoDbClient, every future is already complete.
+ */
+public class StubDynamoDbAsyncClient implements DynamoDbAsyncClient {
+    private final DynamoDbClient dynamoDb;
+
+    public StubDynamoDbAsyncClient(final DynamoDbClient dynamoDb) {
+        this.dynamoDb = dynamoDb;
+    }
+
+    @Override
+    public CompletableFuture<GetItemResponse> getItem(final GetItemRequest request) {
+        return CompletableFuture.completedFuture(dynamoDb.getItem(request));
+    }
+
+    @Override
+    public CompletableFuture<PutItemResponse> putItem(final PutItemRequest request) {
+        return CompletableFuture.completedFuture(dynamoDb.putItem(request));
+    }
+
+    @Override
+    public CompletableFuture<UpdateItemResponse> updateItem(final UpdateItemRequest request) {
+        return CompletableFuture.completedFuture(dynamoDb.updateItem(request));
+    }
+
+    @Override
+    public CompletableFuture<DeleteItemResponse> deleteItem(final DeleteItemRequest request) {
+        return CompletableFuture.completedFuture(dynamoDb.deleteItem(request));
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,103 @@
+package com.varma.airtraffic.control.benchmark;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DynamoDbClient answering every call with the same queued IAD aircraft, without any I/O. Calls the
+ * handlers do not make throw UnsupportedOperationException.
+ */
+public class StubDynamoDbClient implements DynamoDbClient {
+    public static final String AIRCRAFT_ID = "benchmark-aircraft";
+    public static final String AIRPORT_CODE = "IAD";
+    private static final String PRIORITY_ID = "IAD-0007030";
+    private static final String ARRIVAL_TIME = "2019-08-29T02:10Z";
+
+    private final Map<String, AttributeValue> aircraft = new HashMap<>();
+    private final Map<String, AttributeValue> airportEntry = new HashMap<>();
+    private final Map<String, AttributeValue> aircraftEntry = new HashMap<>();
+
+    public StubDynamoDbClient() {
+        aircraft.put("aircraftId", s(AIRCRAFT_ID));
+        aircraft.put("priorityId", s(PRIORITY_ID));
+        aircraft.put("airportCode", s(AIRPORT_CODE));
+        aircraft.put("arrivalTime", s(ARRIVAL_TIME));
+        aircraft.put("aircraftType", s("PASSENGER"));
+        aircraft.put("aircraftSize", s("LARGE"));
+        airportEntry.put("hashKey", s(AIRPORT_CODE));
+        airportEntry.put("rangeKey", s(PRIORITY_ID));
+        airportEntry.put("date", s(ARRIVAL_TIME));
+        aircraftEntry.put("hashKey", s(PRIORITY_ID));
+        aircraftEntry.put("rangeKey", s(AIRCRAFT_ID));
+        aircraftEntry.put("date", s(ARRIVAL_TIME));
+    }
+
+    private static AttributeValue s(final String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    @Override
+    public GetItemResponse getItem(final GetItemRequest request) {
+        return GetItemResponse.builder().item(aircraft).build();
+    }
+
+    @Override
+    public PutItemResponse putItem(final PutItemRequest request) {
+        return PutItemResponse.builder().build();
+    }
+
+    @Override
+    public UpdateItemResponse updateItem(final UpdateItemRequest request) {
+        return UpdateItemResponse.builder().attributes(aircraft).build();
+    }
+
+    @Override
+    public DeleteItemResponse deleteItem(final DeleteItemRequest request) {
+        final boolean airportRow = AIRPORT_CODE.equals(request.key().get("hashKey").s());
+        return DeleteItemResponse.builder().attributes(airportRow ? airportEntry : aircraftEntry).build();
+    }
+
+    @Override
+    public QueryResponse query(final QueryRequest request) {
+        return QueryResponse.builder()
+                .items(Collections.singletonList(request.indexName() == null ? airportEntry : aircraftEntry))
+                .build();
+    }
+
+    @Override
+    public BatchWriteItemResponse batchWriteItem(final BatchWriteItemRequest request) {
+        return BatchWriteItemResponse.builder().build();
+    }
+
+    @Override
+    public TransactWriteItemsResponse transactWriteItems(final TransactWriteItemsRequest request) {
+        return TransactWriteItemsResponse.builder().build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,60 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.benchmark.StubDynamoDbClient;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftSize;
+import com.varma.airtraffic.control.model.AircraftSpecialFlag;
+import com.varma.airtraffic.control.model.AircraftType;
+import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item conversion of AircraftDao, which runs on every read and write of an aircraft. Pure CPU work,
+ * so there is no backend parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AircraftConversionBenchmark {
+    private AircraftDao aircraftDao;
+    private CreateAircraftRequest request;
+    private Map<String, AttributeValue> item;
+
+    @Setup
+    public void setup() {
+        aircraftDao = new AircraftDao(new StubDynamoDbClient(), "AircraftTable");
+        request = CreateAircraftRequest.builder()
+                .airportCode("iad")
+                .aircraftType(AircraftType.PASSENGER)
+                .aircraftSize(AircraftSize.LARGE)
+                .aircraftSpecialFlag(AircraftSpecialFlag.EMERGENCY)
+                .build();
+        item = aircraftDao.createAircraftItem(request);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> createAircraftItem() {
+        return aircraftDao.createAircraftItem(request);
+    }
+
+    @Benchmark
+    public Aircraft convert() {
+        return aircraftDao.convert(item);
+    }
+}
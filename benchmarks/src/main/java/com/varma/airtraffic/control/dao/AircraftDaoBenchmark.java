@@ -0,0 +1,66 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.benchmark.Backend;
+import com.varma.airtraffic.control.benchmark.BenchmarkTables;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftSize;
+import com.varma.airtraffic.control.model.AircraftType;
+import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AircraftDao reads and writes including the SDK marshalling, against the stub or DynamoDB Local.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AircraftDaoBenchmark {
+    @Param({"stub", "local"})
+    public String backend;
+
+    private AircraftDao aircraftDao;
+    private CreateAircraftRequest request;
+    private String aircraftId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final DynamoDbClient dynamoDb = Backend.of(backend).dynamoDb();
+        if (Backend.of(backend) == Backend.LOCAL) {
+            BenchmarkTables.create(dynamoDb);
+        }
+        aircraftDao = new AircraftDao(dynamoDb, "AircraftTable");
+        request = CreateAircraftRequest.builder()
+                .airportCode("IAD")
+                .aircraftType(AircraftType.PASSENGER)
+                .aircraftSize(AircraftSize.LARGE)
+                .build();
+        aircraftId = aircraftDao.createAircraft(request).getAircraftId();
+    }
+
+    @Benchmark
+    public Aircraft createAircraft() {
+        return aircraftDao.createAircraft(request);
+    }
+
+    @Benchmark
+    public Aircraft getAircraft() {
+        return aircraftDao.getAircraft(aircraftId);
+    }
+}
@@ -0,0 +1,122 @@
+package com.varma.airtraffic.control.handler;
+
+import com.varma.airtraffic.control.benchmark.Backend;
+import com.varma.airtraffic.control.benchmark.BenchmarkDynamoModule;
+import com.varma.airtraffic.control.benchmark.BenchmarkTables;
+import com.varma.airtraffic.control.benchmark.DaggerBenchmarkComponent;
+import com.varma.airtraffic.control.benchmark.StubDynamoDbClient;
+import com.varma.airtraffic.control.config.AirTrafficControlComponent;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftSize;
+import com.varma.airtraffic.control.model.AircraftType;
+import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * handleRequest of the create, get and dequeue handlers over canned API Gateway events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class HandlerBenchmark {
+    private static final byte[] CREATE_EVENT = bytes("{\"body\": \"{\\\"airportCode\\\": \\\"IAD\\\", "
+            + "\\\"aircraftType\\\": \\\"PASSENGER\\\", \\\"aircraftSize\\\": \\\"LARGE\\\"}\"}");
+    private static final byte[] DEQUEUE_EVENT = bytes("{\"pathParameters\": {\"airportCode\": \""
+            + StubDynamoDbClient.AIRPORT_CODE + "\"}}");
+
+    @Param({"stub", "local"})
+    public String backend;
+
+    private AirTrafficControlComponent component;
+    private CreateAircraftHandler createAircraftHandler;
+    private GetAircraftHandler getAircraftHandler;
+    private DequeueAircraftHandler dequeueAircraftHandler;
+    private byte[] getEvent;
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        component = DaggerBenchmarkComponent.builder()
+                .benchmarkDynamoModule(new BenchmarkDynamoModule(Backend.of(backend)))
+                .build();
+        if (Backend.of(backend) == Backend.LOCAL) {
+            BenchmarkTables.create(component.provideDynamoDbClient());
+        }
+        createAircraftHandler = new CreateAircraftHandler(component);
+        getAircraftHandler = new GetAircraftHandler(component);
+        dequeueAircraftHandler = new DequeueAircraftHandler(component);
+
+        final String aircraftId = Backend.of(backend) == Backend.STUB
+                ? StubDynamoDbClient.AIRCRAFT_ID : createAircraft().getAircraftId();
+        getEvent = bytes("{\"pathParameters\": {\"aircraftId\": \"" + aircraftId + "\"}}");
+    }
+
+    Aircraft createAircraft() {
+        final Aircraft aircraft = component.provideAircraftDao().createAircraft(CreateAircraftRequest.builder()
+                .airportCode(StubDynamoDbClient.AIRPORT_CODE)
+                .aircraftType(AircraftType.PASSENGER)
+                .aircraftSize(AircraftSize.LARGE)
+                .build());
+        component.providePriorityQueueStore().enqueue(aircraft);
+        return aircraft;
+    }
+
+    private static ByteArrayOutputStream handle(final AircraftRequestStreamHandler handler, final byte[] event)
+            throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(512);
+        handler.handleRequest(new ByteArrayInputStream(event), output, null);
+        return output;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream createAircraft_handleRequest() throws IOException {
+        return handle(createAircraftHandler, CREATE_EVENT);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream getAircraft_handleRequest() throws IOException {
+        return handle(getAircraftHandler, getEvent);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream dequeueAircraft_handleRequest(final QueuedAircraft queued) throws IOException {
+        return handle(dequeueAircraftHandler, DEQUEUE_EVENT);
+    }
+
+    /**
+     * Keeps one aircraft queued per dequeue against DynamoDB Local, so every call takes the success path.
+     * The stub always has an aircraft queued.
+     */
+    @State(Scope.Thread)
+    public static class QueuedAircraft {
+        @Setup(Level.Invocation)
+        public void enqueue(final HandlerBenchmark benchmark) {
+            if (Backend.of(benchmark.backend) == Backend.LOCAL) {
+                benchmark.createAircraft();
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.varma.airtraffic.control.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.airtraffic.control.config.AirTrafficControlComponent;
+import com.varma.airtraffic.control.config.DaggerAirTrafficControlComponent;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftSize;
+import com.varma.airtraffic.control.model.AircraftType;
+import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
+import com.varma.airtraffic.control.model.response.GatewayResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON work every handler does around its DynamoDB calls, with the mapper the handlers are injected with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final String CREATE_BODY = "{\"airportCode\": \"IAD\", \"aircraftType\": \"PASSENGER\", "
+            + "\"aircraftSize\": \"LARGE\"}";
+    private static final byte[] CREATE_EVENT = ("{\"resource\": \"/aircraft\", \"httpMethod\": \"POST\", "
+            + "\"headers\": {\"Accept\": \"application/json\", \"Content-Type\": \"application/json\"}, "
+            + "\"requestContext\": {\"stage\": \"Prod\", \"identity\": {\"sourceIp\": \"127.0.0.1\"}}, "
+            + "\"pathParameters\": null, \"queryStringParameters\": null, "
+            + "\"body\": \"{\\\"airportCode\\\": \\\"IAD\\\", \\\"aircraftType\\\": \\\"PASSENGER\\\", "
+            + "\\\"aircraftSize\\\": \\\"LARGE\\\"}\"}").getBytes(StandardCharsets.UTF_8);
+
+    private ObjectMapper objectMapper;
+    private ApiGatewayEventReader eventReader;
+    private ResponseWriter responseWriter;
+    private Aircraft aircraft;
+
+    @Setup
+    public void setup() {
+        final AirTrafficControlComponent component = DaggerAirTrafficControlComponent.builder().build();
+        objectMapper = component.provideObjectMapper();
+        eventReader = component.provideApiGatewayEventReader();
+        responseWriter = component.provideResponseWriter();
+        aircraft = Aircraft.builder()
+                .aircraftId("6c0e3fb4-5a4e-4b61-9f0e-2b1d7f3c9a10")
+                .airportCode("IAD")
+                .priorityId("IAD-7030")
+                .arrivalTime("2019-08-29T02:10Z")
+                .aircraftType(AircraftType.PASSENGER)
+                .aircraftSize(AircraftSize.LARGE)
+                .build();
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream gatewayResponse_writeValue() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(512);
+        objectMapper.writeValue(output,
+                new GatewayResponse<>(objectMapper.writeValueAsString(aircraft),
+                        AircraftRequestStreamHandler.APPLICATION_JSON, AircraftRequestStreamHandler.SC_OK));
+        return output;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream responseWriter_write() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(512);
+        responseWriter.write(output, aircraft, AircraftRequestStreamHandler.SC_OK);
+        return output;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream gatewayResponse_writeError() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(128);
+        objectMapper.writeValue(output,
+                new GatewayResponse<>(objectMapper.writeValueAsString(AircraftRequestStreamHandler.REQUIRE_AC_SIZE),
+                        AircraftRequestStreamHandler.APPLICATION_JSON, AircraftRequestStreamHandler.SC_BAD_REQUEST));
+        return output;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream responseWriter_writeError() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(128);
+        responseWriter.writeError(output, AircraftRequestStreamHandler.REQUIRE_AC_SIZE,
+                AircraftRequestStreamHandler.SC_BAD_REQUEST);
+        return output;
+    }
+
+    @Benchmark
+    public CreateAircraftRequest createAircraftRequest_read() throws IOException {
+        return objectMapper.treeToValue(objectMapper.readTree(CREATE_BODY), CreateAircraftRequest.class);
+    }
+
+    /**
+     * The event handling the handlers did before the streaming reader: a full tree of the event and one of the body.
+     */
+    @Benchmark
+    public CreateAircraftRequest createEvent_readTree() throws IOException {
+        final JsonNode event = objectMapper.readTree(new ByteArrayInputStream(CREATE_EVENT));
+        return objectMapper.treeToValue(objectMapper.readTree(event.findValue("body").asText()),
+                CreateAircraftRequest.class);
+    }
+
+    @Benchmark
+    public CreateAircraftRequest createEvent_stream() throws IOException {
+        final ApiGatewayEvent event = eventReader.read(new ByteArrayInputStream(CREATE_EVENT));
+        return eventReader.readBody(event.getBody(), CreateAircraftRequest.class);
+    }
+}
@@ -0,0 +1,104 @@
+package com.varma.airtraffic.control.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Size bounded, least recently used cache whose entries expire after a time to live.
+ * Meant to live for the life of a warm container; all operations are synchronized.
+ *
+ * @param <K> key type
+ * @param <V> value type, should be immutable as it is shared between callers
+ */
+public class ExpiringLruCache<K, V> {
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ExpiringLruCache(final int maxSize, final long ttlMillis) {
+        this(maxSize, ttlMillis, System::currentTimeMillis);
+    }
+
+    ExpiringLruCache(final int maxSize, final long ttlMillis, final LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value or null if it is absent or expired.
+     */
+    public synchronized V get(final K key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(key);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    public synchronized void put(final K key, final V value) {
+        put(key, value, ttlMillis);
+    }
+
+    public synchronized void put(final K key, final V value, final long entryTtlMillis) {
+        entries.put(key, new Entry<>(value, clock.getAsLong() + entryTtlMillis));
+    }
+
+    /**
+     * Replaces a live value with the result of the update, keeping its expiry.
+     */
+    public synchronized void update(final K key, final UnaryOperator<V> update) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        if (entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(key);
+            return;
+        }
+        entries.put(key, new Entry<>(update.apply(entry.value), entry.expiresAt));
+    }
+
+    public synchronized void invalidate(final K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(final V value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
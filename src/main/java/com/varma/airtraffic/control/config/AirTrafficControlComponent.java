@@ -1,26 +1,68 @@
 package com.varma.airtraffic.control.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.varma.airtraffic.control.dao.AircraftDao;
 import com.varma.airtraffic.control.dao.PriorityAircraftsDao;
+import com.varma.airtraffic.control.dao.PriorityQueueStore;
+import com.varma.airtraffic.control.handler.AirportStatsHandler;
+import com.varma.airtraffic.control.handler.ApiGatewayEventReader;
+import com.varma.airtraffic.control.handler.BatchCreateAircraftHandler;
 import com.varma.airtraffic.control.handler.CreateAircraftHandler;
 import com.varma.airtraffic.control.handler.DequeueAircraftHandler;
 import com.varma.airtraffic.control.handler.GetAircraftHandler;
+import com.varma.airtraffic.control.handler.ListAircraftHandler;
+import com.varma.airtraffic.control.handler.ResetAirportHandler;
+import com.varma.airtraffic.control.handler.ResponseWriter;
+import com.varma.airtraffic.control.handler.UpdateAircraftHandler;
+import com.varma.airtraffic.control.metrics.MetricsRegistry;
 import dagger.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 @Singleton
 @Component(modules = { DataConverterModule.class, DynamoModule.class, PriorityAircraftsModule.class,
-        AircraftModule.class})
+        AircraftModule.class, MetricsModule.class})
 public interface AirTrafficControlComponent {
 
     AircraftDao provideAircraftDao();
 
     PriorityAircraftsDao providePriorityAircraftsDao();
 
+    PriorityQueueStore providePriorityQueueStore();
+
+    ObjectMapper provideObjectMapper();
+
+    ApiGatewayEventReader provideApiGatewayEventReader();
+
+    ResponseWriter provideResponseWriter();
+
+    DynamoDbClient provideDynamoDbClient();
+
+    StartupMode provideStartupMode();
+
+    MetricsRegistry provideMetricsRegistry();
+
+    @Named("aircraftTableName")
+    String provideAircraftTableName();
+
+    @Named("priorityAircraftTableName")
+    String providePriorityAircraftTableName();
+
     void inject(GetAircraftHandler requestHandler);
 
     void inject(CreateAircraftHandler requestHandler);
 
     void inject(DequeueAircraftHandler dequeueAircraftHandler);
+
+    void inject(BatchCreateAircraftHandler batchCreateAircraftHandler);
+
+    void inject(UpdateAircraftHandler updateAircraftHandler);
+
+    void inject(ResetAirportHandler resetAirportHandler);
+
+    void inject(ListAircraftHandler listAircraftHandler);
+
+    void inject(AirportStatsHandler airportStatsHandler);
 }
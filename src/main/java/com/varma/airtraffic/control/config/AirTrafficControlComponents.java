@@ -0,0 +1,94 @@
+package com.varma.airtraffic.control.config;
+
+import com.varma.airtraffic.control.handler.AircraftRequestStreamHandler;
+import com.varma.airtraffic.control.handler.ApiGatewayEvent;
+import com.varma.airtraffic.control.handler.ApiGatewayEventReader;
+import com.varma.airtraffic.control.handler.ResponseWriter;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftSize;
+import com.varma.airtraffic.control.model.AircraftType;
+import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
+import com.varma.airtraffic.control.model.response.ErrorMessage;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the one component of a container. Every handler class loaded into the container shares it,
+ * so the object graph and the DynamoDB clients are built once, during the Lambda init phase.
+ */
+public final class AirTrafficControlComponents {
+    private static final Log logger = LogFactory.getLog(AirTrafficControlComponents.class);
+
+    private static final byte[] PREWARM_EVENT = ("{\"pathParameters\": {\"airportCode\": \"IAD\"}, "
+            + "\"queryStringParameters\": null, \"body\": \"{\\\"airportCode\\\": \\\"IAD\\\", "
+            + "\\\"aircraftType\\\": \\\"CARGO\\\", \\\"aircraftSize\\\": \\\"SMALL\\\"}\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final AirTrafficControlComponent COMPONENT = create();
+
+    private AirTrafficControlComponents() {
+    }
+
+    public static AirTrafficControlComponent get() {
+        return COMPONENT;
+    }
+
+    private static AirTrafficControlComponent create() {
+        final long start = System.nanoTime();
+        final AirTrafficControlComponent component =
+                DaggerAirTrafficControlComponent.builder().build();
+        if (component.provideStartupMode() == StartupMode.OPTIMIZED) {
+            prewarm(component);
+        }
+        logger.info("Initialized " + component.provideStartupMode() + " component in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return component;
+    }
+
+    /**
+     * Builds the Jackson (de)serializers of the request and response types, encodes the validation
+     * error responses and opens a connection to DynamoDB, so the first request does not pay for
+     * class loading, introspection and TLS handshakes.
+     */
+    static void prewarm(final AirTrafficControlComponent component) {
+        try {
+            final ApiGatewayEventReader eventReader = component.provideApiGatewayEventReader();
+            final ApiGatewayEvent event = eventReader.read(new ByteArrayInputStream(PREWARM_EVENT));
+            eventReader.readBody(event.getBody(), CreateAircraftRequest.class);
+            final ResponseWriter responseWriter = component.provideResponseWriter();
+            responseWriter.write(new ByteArrayOutputStream(), Aircraft.builder()
+                    .aircraftId("prewarm")
+                    .airportCode("IAD")
+                    .priorityId("IAD-0")
+                    .arrivalTime("1970-01-01T00:00Z")
+                    .aircraftType(AircraftType.CARGO)
+                    .aircraftSize(AircraftSize.SMALL)
+                    .build(), AircraftRequestStreamHandler.SC_OK);
+            for (ErrorMessage error : Arrays.asList(AircraftRequestStreamHandler.BODY_WAS_NULL,
+                    AircraftRequestStreamHandler.REQUEST_WAS_NULL_ERROR,
+                    AircraftRequestStreamHandler.REQUIRE_AIRPORT_CODE,
+                    AircraftRequestStreamHandler.REQUIRE_AC_SIZE,
+                    AircraftRequestStreamHandler.REQUIRE_AC_TYPE)) {
+                responseWriter.writeError(new ByteArrayOutputStream(), error,
+                        AircraftRequestStreamHandler.SC_BAD_REQUEST);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to pre-warm the JSON mappers", e);
+        }
+        try {
+            component.provideDynamoDbClient().describeTable(DescribeTableRequest.builder()
+                    .tableName(component.provideAircraftTableName())
+                    .build());
+        } catch (RuntimeException e) {
+            logger.warn("Unable to pre-warm the DynamoDB client", e);
+        }
+    }
+}
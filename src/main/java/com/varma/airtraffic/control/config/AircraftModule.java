@@ -1,10 +1,18 @@
 package com.varma.airtraffic.control.config;
 
+import com.varma.airtraffic.control.cache.ExpiringLruCache;
 import com.varma.airtraffic.control.dao.AircraftDao;
+import com.varma.airtraffic.control.dao.AircraftIdGenerator;
+import com.varma.airtraffic.control.dao.AircraftSearchDao;
+import com.varma.airtraffic.control.metrics.Metrics;
+import dagger.Lazy;
 import dagger.Module;
 import dagger.Provides;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
+import java.util.Optional;
+import java.util.function.Supplier;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -12,7 +20,31 @@ import javax.inject.Singleton;
 public class AircraftModule {
     @Singleton
     @Provides
-    public AircraftDao airCraftDao(DynamoDbClient dynamoDb, @Named("aircraftTableName") String tableName) {
-        return new AircraftDao(dynamoDb, tableName);
+    public AircraftDao airCraftDao(DynamoDbClient dynamoDb, Lazy<DynamoDbAsyncClient> asyncDynamoDb,
+                                   @Named("aircraftTableName") String tableName, Metrics metrics) {
+        final Supplier<DynamoDbAsyncClient> async = DynamoModule.asyncClientEnabled()
+                ? asyncDynamoDb::get : null;
+        final long cacheTtlMillis = Long.parseLong(Optional.ofNullable(
+                System.getenv("AIRCRAFT_CACHE_TTL_MILLIS")).orElse("0"));
+        final AircraftIdGenerator idGenerator = "time_ordered".equalsIgnoreCase(
+                System.getenv("AIRCRAFT_ID_GENERATOR"))
+                ? AircraftIdGenerator.timeOrdered() : AircraftIdGenerator.random();
+        if (cacheTtlMillis <= 0) {
+            return new AircraftDao(dynamoDb, async, tableName, null, 0, idGenerator, metrics);
+        }
+        final int cacheSize = Integer.parseInt(Optional.ofNullable(
+                System.getenv("AIRCRAFT_CACHE_SIZE")).orElse("1000"));
+        final long negativeTtlMillis = Long.parseLong(Optional.ofNullable(
+                System.getenv("AIRCRAFT_CACHE_NEGATIVE_TTL_MILLIS")).orElse("1000"));
+        return new AircraftDao(dynamoDb, async, tableName,
+                new ExpiringLruCache<>(cacheSize, cacheTtlMillis), negativeTtlMillis, idGenerator,
+                        metrics);
+    }
+
+    @Singleton
+    @Provides
+    public AircraftSearchDao aircraftSearchDao(DynamoDbClient dynamoDb, AircraftDao aircraftDao) {
+        return new AircraftSearchDao(dynamoDb, aircraftDao,
+                Optional.ofNullable(System.getenv("AIRPORT_INDEX_NAME")).orElse("airportIndex"));
     }
 }
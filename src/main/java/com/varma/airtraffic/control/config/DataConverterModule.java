@@ -2,6 +2,8 @@ package com.varma.airtraffic.control.config;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.airtraffic.control.handler.ApiGatewayEventReader;
+import com.varma.airtraffic.control.handler.ResponseWriter;
 import dagger.Module;
 import dagger.Provides;
 
@@ -19,4 +21,15 @@ public class DataConverterModule {
 
     }
 
+    @Provides
+    @Singleton
+    static ApiGatewayEventReader providesApiGatewayEventReader(final ObjectMapper objectMapper) {
+        return new ApiGatewayEventReader(objectMapper);
+    }
+
+    @Provides
+    @Singleton
+    static ResponseWriter providesResponseWriter(final ObjectMapper objectMapper) {
+        return new ResponseWriter(objectMapper);
+    }
 }
@@ -0,0 +1,16 @@
+package com.varma.airtraffic.control.config;
+
+/**
+ * How DequeueAircraftHandler removes an aircraft from the queue, set through DEQUEUE_MODE.
+ */
+public enum DequeueMode {
+    /** Reads and deletes through the configured PriorityQueueStore, one call per row. */
+    STANDARD,
+    /** Claims the aircraft and clears its queue rows in one DynamoDB transaction. */
+    TRANSACTIONAL,
+    /**
+     * Finds the head with one query on the airportQueueIndex of the Aircraft table and claims it
+     * with one conditional update. Enqueues write no PriorityAircrafts rows in this mode.
+     */
+    INDEXED
+}
@@ -0,0 +1,71 @@
+package com.varma.airtraffic.control.config;
+
+import lombok.Builder;
+import lombok.Value;
+import software.amazon.awssdk.core.retry.RetryMode;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * HTTP and retry settings of the DynamoDB clients. A null setting keeps the SDK default.
+ */
+@Value
+@Builder
+public class DynamoClientSettings {
+    Integer maxConnections;
+    Long connectionTimeToLiveMillis;
+    Long connectionTimeoutMillis;
+    Long socketTimeoutMillis;
+    Long apiCallTimeoutMillis;
+    Long apiCallAttemptTimeoutMillis;
+    RetryMode retryMode;
+    Integer maxRetries;
+
+    /**
+     * Reads the settings from DYNAMO_* environment variables.
+     *
+     * @param environment lookup of an environment variable, System::getenv outside of tests
+     */
+    public static DynamoClientSettings fromEnvironment(final Function<String, String> environment) {
+        return DynamoClientSettings.builder()
+                .maxConnections(read(environment, "DYNAMO_MAX_CONNECTIONS").map(Integer::valueOf)
+                        .orElse(null))
+                .connectionTimeToLiveMillis(read(environment, "DYNAMO_CONNECTION_TTL_MILLIS")
+                        .map(Long::valueOf).orElse(null))
+                .connectionTimeoutMillis(read(environment, "DYNAMO_CONNECTION_TIMEOUT_MILLIS")
+                        .map(Long::valueOf).orElse(null))
+                .socketTimeoutMillis(read(environment, "DYNAMO_SOCKET_TIMEOUT_MILLIS")
+                        .map(Long::valueOf).orElse(null))
+                .apiCallTimeoutMillis(read(environment, "DYNAMO_API_CALL_TIMEOUT_MILLIS")
+                        .map(Long::valueOf).orElse(null))
+                .apiCallAttemptTimeoutMillis(
+                        read(environment, "DYNAMO_API_CALL_ATTEMPT_TIMEOUT_MILLIS")
+                                .map(Long::valueOf).orElse(null))
+                .retryMode(read(environment, "DYNAMO_RETRY_MODE")
+                        .map(DynamoClientSettings::retryMode).orElse(null))
+                .maxRetries(read(environment, "DYNAMO_MAX_RETRIES")
+                        .map(Integer::valueOf).orElse(null))
+                .build();
+    }
+
+    // the pinned SDK only knows these two, adaptive arrived in a later release
+    private static RetryMode retryMode(final String mode) {
+        switch (mode.toLowerCase(Locale.ENGLISH)) {
+            case "legacy":
+                return RetryMode.LEGACY;
+            case "standard":
+                return RetryMode.STANDARD;
+            default:
+                throw new IllegalArgumentException(
+                        "DYNAMO_RETRY_MODE must be legacy or standard, was " + mode);
+        }
+    }
+
+    private static Optional<String> read(final Function<String, String> environment,
+                                         final String name) {
+        return Optional.ofNullable(environment.apply(name)).map(String::trim)
+                .filter(value -> !value.isEmpty());
+    }
+}
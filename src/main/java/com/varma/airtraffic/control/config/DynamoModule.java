@@ -1,20 +1,37 @@
 package com.varma.airtraffic.control.config;
 
+import com.varma.airtraffic.control.metrics.DynamoDbMetricsInterceptor;
+import com.varma.airtraffic.control.metrics.Metrics;
 import dagger.Module;
 import dagger.Provides;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.SdkHttpClient;
 import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClientBuilder;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
 
-import javax.inject.Named;
-import javax.inject.Singleton;
-import java.net.MalformedURLException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.Optional;
+import javax.inject.Named;
+import javax.inject.Singleton;
 
 @Module
 public class DynamoModule {
+    private static final Log logger = LogFactory.getLog(DynamoModule.class);
+
     @Singleton
     @Provides
     @Named("aircraftTableName")
@@ -32,14 +49,119 @@ public class DynamoModule {
 
     @Singleton
     @Provides
-    DynamoDbClient dynamoDb() {
-        String endpoint = System.getenv("ENDPOINT_OVERRIDE");
+    StartupMode startupMode() {
+        return StartupMode.valueOf(Optional.ofNullable(System.getenv("STARTUP_MODE"))
+                .orElse(StartupMode.STANDARD.name())
+                .toUpperCase(Locale.ENGLISH));
+    }
+
+    @Singleton
+    @Provides
+    DynamoClientSettings dynamoClientSettings(StartupMode startupMode) {
+        final DynamoClientSettings settings = DynamoClientSettings.fromEnvironment(System::getenv);
+        final String httpClient = startupMode == StartupMode.OPTIMIZED ? "UrlConnection" : "Apache";
+        logger.info("DynamoDB clients use " + httpClient + " HTTP client with " + settings
+                + ", unset values keep the SDK default");
+        return settings;
+    }
+
+    @Singleton
+    @Provides
+    DynamoDbClient dynamoDb(StartupMode startupMode, DynamoClientSettings settings,
+                            Metrics metrics) {
+        final String endpoint = System.getenv("ENDPOINT_OVERRIDE");
 
         DynamoDbClientBuilder builder = DynamoDbClient.builder();
-        builder.httpClient(ApacheHttpClient.builder().build());
+        if (startupMode == StartupMode.OPTIMIZED) {
+            builder.httpClient(urlConnectionHttpClient(settings));
+            // Lambda sets both in the environment, naming them skips probing the provider chains
+            builder.credentialsProvider(EnvironmentVariableCredentialsProvider.create());
+            Optional.ofNullable(System.getenv("AWS_REGION")).map(Region::of)
+                    .ifPresent(builder::region);
+        } else {
+            builder.httpClient(apacheHttpClient(settings));
+        }
+        builder.overrideConfiguration(overrideConfiguration(settings, metrics));
+        if (endpoint != null && !endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    @Singleton
+    @Provides
+    DynamoDbAsyncClient dynamoDbAsync(StartupMode startupMode, DynamoClientSettings settings,
+                                      Metrics metrics) {
+        final String endpoint = System.getenv("ENDPOINT_OVERRIDE");
+
+        DynamoDbAsyncClientBuilder builder = DynamoDbAsyncClient.builder();
+        builder.httpClient(nettyHttpClient(settings));
+        if (startupMode == StartupMode.OPTIMIZED) {
+            builder.credentialsProvider(EnvironmentVariableCredentialsProvider.create());
+            Optional.ofNullable(System.getenv("AWS_REGION")).map(Region::of)
+                    .ifPresent(builder::region);
+        }
+        builder.overrideConfiguration(overrideConfiguration(settings, metrics));
         if (endpoint != null && !endpoint.isEmpty()) {
             builder.endpointOverride(URI.create(endpoint));
         }
         return builder.build();
     }
+
+    /**
+     * The async client starts a Netty event loop, so the DAOs only use it when
+     * DYNAMODB_ASYNC_ENABLED is true and otherwise run their async variants on the blocking client.
+     */
+    static boolean asyncClientEnabled() {
+        return "true".equalsIgnoreCase(System.getenv("DYNAMODB_ASYNC_ENABLED"));
+    }
+
+    private static SdkHttpClient apacheHttpClient(DynamoClientSettings settings) {
+        ApacheHttpClient.Builder builder = ApacheHttpClient.builder();
+        Optional.ofNullable(settings.getMaxConnections()).ifPresent(builder::maxConnections);
+        millis(settings.getConnectionTimeToLiveMillis()).ifPresent(builder::connectionTimeToLive);
+        millis(settings.getConnectionTimeoutMillis()).ifPresent(builder::connectionTimeout);
+        millis(settings.getSocketTimeoutMillis()).ifPresent(builder::socketTimeout);
+        return builder.build();
+    }
+
+    private static SdkHttpClient urlConnectionHttpClient(DynamoClientSettings settings) {
+        // HttpURLConnection pools through the JVM keep-alive cache, only the timeouts apply
+        UrlConnectionHttpClient.Builder builder = UrlConnectionHttpClient.builder();
+        millis(settings.getConnectionTimeoutMillis()).ifPresent(builder::connectionTimeout);
+        millis(settings.getSocketTimeoutMillis()).ifPresent(builder::socketTimeout);
+        return builder.build();
+    }
+
+    private static SdkAsyncHttpClient nettyHttpClient(DynamoClientSettings settings) {
+        NettyNioAsyncHttpClient.Builder builder = NettyNioAsyncHttpClient.builder();
+        Optional.ofNullable(settings.getMaxConnections()).ifPresent(builder::maxConcurrency);
+        millis(settings.getConnectionTimeToLiveMillis()).ifPresent(builder::connectionTimeToLive);
+        millis(settings.getConnectionTimeoutMillis()).ifPresent(builder::connectionTimeout);
+        millis(settings.getSocketTimeoutMillis()).ifPresent(builder::readTimeout);
+        millis(settings.getSocketTimeoutMillis()).ifPresent(builder::writeTimeout);
+        return builder.build();
+    }
+
+    private static ClientOverrideConfiguration overrideConfiguration(
+            DynamoClientSettings settings, Metrics metrics) {
+        ClientOverrideConfiguration.Builder builder = ClientOverrideConfiguration.builder();
+        if (metrics != Metrics.NONE) {
+            builder.addExecutionInterceptor(new DynamoDbMetricsInterceptor(metrics));
+        }
+        millis(settings.getApiCallTimeoutMillis()).ifPresent(builder::apiCallTimeout);
+        millis(settings.getApiCallAttemptTimeoutMillis()).ifPresent(builder::apiCallAttemptTimeout);
+        if (settings.getRetryMode() != null || settings.getMaxRetries() != null) {
+            RetryPolicy.Builder retryPolicy = RetryPolicy.builder(
+                    Optional.ofNullable(settings.getRetryMode()).orElse(
+                            RetryMode.defaultRetryMode()));
+            Optional.ofNullable(settings.getMaxRetries()).ifPresent(retryPolicy::numRetries);
+            builder.retryPolicy(retryPolicy.build());
+        }
+        return builder.build();
+    }
+
+    private static Optional<Duration> millis(Long millis) {
+        return Optional.ofNullable(millis).map(Duration::ofMillis);
+    }
 }
@@ -0,0 +1,44 @@
+package com.varma.airtraffic.control.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.airtraffic.control.metrics.EmbeddedMetricsWriter;
+import com.varma.airtraffic.control.metrics.HandlerMetrics;
+import com.varma.airtraffic.control.metrics.Metrics;
+import com.varma.airtraffic.control.metrics.MetricsRegistry;
+import dagger.Module;
+import dagger.Provides;
+
+import java.util.Collections;
+import java.util.Optional;
+import javax.inject.Singleton;
+
+@Module
+public class MetricsModule {
+    @Singleton
+    @Provides
+    MetricsRegistry metricsRegistry() {
+        return new MetricsRegistry();
+    }
+
+    @Singleton
+    @Provides
+    Metrics metrics(MetricsRegistry registry) {
+        return "false".equalsIgnoreCase(System.getenv("METRICS_ENABLED")) ? Metrics.NONE : registry;
+    }
+
+    @Singleton
+    @Provides
+    HandlerMetrics handlerMetrics(Metrics metrics, MetricsRegistry registry,
+                                  ObjectMapper objectMapper) {
+        if (metrics == Metrics.NONE) {
+            return HandlerMetrics.disabled();
+        }
+        final String namespace = Optional.ofNullable(System.getenv("METRICS_NAMESPACE"))
+                .orElse("AirTrafficControl");
+        final String functionName = Optional.ofNullable(System.getenv("AWS_LAMBDA_FUNCTION_NAME"))
+                .orElse("local");
+        // Lambda ships stdout to CloudWatch Logs, which extracts the metrics
+        return new HandlerMetrics(registry, new EmbeddedMetricsWriter(objectMapper, namespace,
+                Collections.singletonMap("FunctionName", functionName), System.out::println));
+    }
+}
@@ -1,10 +1,27 @@
 package com.varma.airtraffic.control.config;
 
+import com.varma.airtraffic.control.cache.ExpiringLruCache;
+import com.varma.airtraffic.control.dao.AircraftDao;
+import com.varma.airtraffic.control.dao.AircraftSearchDao;
+import com.varma.airtraffic.control.dao.AirportQueueIndexDao;
+import com.varma.airtraffic.control.dao.AirportResetDao;
+import com.varma.airtraffic.control.dao.AirportStatsDao;
+import com.varma.airtraffic.control.dao.BatchDequeueDao;
+import com.varma.airtraffic.control.dao.BatchEnqueueDao;
+import com.varma.airtraffic.control.dao.InMemoryPriorityQueueStore;
 import com.varma.airtraffic.control.dao.PriorityAircraftsDao;
+import com.varma.airtraffic.control.dao.PriorityQueueStore;
+import com.varma.airtraffic.control.dao.QueueTransactionsDao;
+import com.varma.airtraffic.control.metrics.Metrics;
+import dagger.Lazy;
 import dagger.Module;
 import dagger.Provides;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -12,8 +29,135 @@ import javax.inject.Singleton;
 public class PriorityAircraftsModule {
     @Singleton
     @Provides
-    public PriorityAircraftsDao priorityAirCraftDao(DynamoDbClient dynamoDb,
-                                                    @Named("priorityAircraftTableName") String tableName) {
-        return new PriorityAircraftsDao(dynamoDb, tableName);
+    public PriorityAircraftsDao priorityAirCraftDao(
+            DynamoDbClient dynamoDb,
+            Lazy<DynamoDbAsyncClient> asyncDynamoDb,
+            @Named("priorityAircraftTableName") String tableName,
+            Metrics metrics) {
+        final Supplier<DynamoDbAsyncClient> async = DynamoModule.asyncClientEnabled()
+                ? asyncDynamoDb::get : null;
+        final long cacheTtlMillis = Long.parseLong(Optional.ofNullable(
+                System.getenv("AIRPORT_PRIORITY_CACHE_TTL_MILLIS")).orElse("0"));
+        if (cacheTtlMillis <= 0) {
+            return new PriorityAircraftsDao(dynamoDb, async, tableName, null, metrics);
+        }
+        final int cacheSize = Integer.parseInt(Optional.ofNullable(
+                System.getenv("AIRPORT_PRIORITY_CACHE_SIZE")).orElse("1000"));
+        return new PriorityAircraftsDao(dynamoDb, async, tableName,
+                new ExpiringLruCache<>(cacheSize, cacheTtlMillis), metrics);
+    }
+
+    /**
+     * Picks the queue store for DEQUEUE_MODE and PRIORITY_QUEUE_STORE, the PriorityAircrafts table
+     * unless the airport queue index or the memory store is configured.
+     */
+    @Singleton
+    @Provides
+    public PriorityQueueStore priorityQueueStore(PriorityAircraftsDao priorityAircraftsDao,
+                                                 AirportQueueIndexDao airportQueueIndexDao,
+                                                 DequeueMode dequeueMode) {
+        if (dequeueMode == DequeueMode.INDEXED) {
+            return airportQueueIndexDao;
+        }
+        if (memoryStore()) {
+            return new InMemoryPriorityQueueStore();
+        }
+        return priorityAircraftsDao;
+    }
+
+    @Singleton
+    @Provides
+    public AirportQueueIndexDao airportQueueIndexDao(DynamoDbClient dynamoDb,
+                                                     AircraftDao aircraftDao,
+                                                     AirportStatsDao airportStatsDao) {
+        return new AirportQueueIndexDao(dynamoDb, aircraftDao, queueIndexName(), airportStatsDao);
+    }
+
+    /**
+     * Provides the queue counters, which read the oldest arrival from the aircraft table when the
+     * queue keeps no PriorityAircrafts entries.
+     */
+    @Singleton
+    @Provides
+    public AirportStatsDao airportStatsDao(DynamoDbClient dynamoDb,
+                                           PriorityAircraftsDao priorityAircraftsDao,
+                                           AircraftSearchDao aircraftSearchDao,
+                                           DequeueMode dequeueMode) {
+        // the queue index and the memory store write no entries to read the oldest arrival from
+        return new AirportStatsDao(dynamoDb, priorityAircraftsDao,
+                dequeueMode == DequeueMode.INDEXED || memoryStore() ? aircraftSearchDao : null);
+    }
+
+    /**
+     * Provides the airport reset, which also purges the queue index in the indexed dequeue mode.
+     */
+    @Singleton
+    @Provides
+    public AirportResetDao airportResetDao(DynamoDbClient dynamoDb, AircraftDao aircraftDao,
+                                           PriorityAircraftsDao priorityAircraftsDao,
+                                           DequeueMode dequeueMode) {
+        final int workers = Integer.parseInt(Optional.ofNullable(
+                System.getenv("AIRPORT_RESET_WORKERS")).orElse("8"));
+        return new AirportResetDao(dynamoDb, aircraftDao, priorityAircraftsDao, workers,
+                dequeueMode == DequeueMode.INDEXED ? queueIndexName() : null);
+    }
+
+    private static String queueIndexName() {
+        return Optional.ofNullable(System.getenv("AIRPORT_QUEUE_INDEX_NAME"))
+                .orElse("airportQueueIndex");
+    }
+
+    @Singleton
+    @Provides
+    public QueueTransactionsDao queueTransactionsDao(DynamoDbClient dynamoDb,
+                                                     AircraftDao aircraftDao,
+                                                     PriorityAircraftsDao priorityAircraftsDao,
+                                                     AirportStatsDao airportStatsDao) {
+        return new QueueTransactionsDao(dynamoDb, aircraftDao, priorityAircraftsDao,
+                airportStatsDao);
+    }
+
+    /**
+     * The memory store is for tests and single process runs only. Each Lambda function runs in its
+     * own containers, so the heap a dequeue reads would never see the aircraft created through
+     * another function.
+     */
+    private static boolean memoryStore() {
+        if (!"memory".equalsIgnoreCase(System.getenv("PRIORITY_QUEUE_STORE"))) {
+            return false;
+        }
+        if (System.getenv("AWS_LAMBDA_FUNCTION_NAME") != null) {
+            throw new IllegalArgumentException(
+                    "PRIORITY_QUEUE_STORE=memory is not supported in Lambda, "
+                    + "the create and dequeue functions do not share memory");
+        }
+        return true;
+    }
+
+    /**
+     * Reads DEQUEUE_MODE, standard when it is not set.
+     */
+    @Singleton
+    @Provides
+    public DequeueMode dequeueMode() {
+        return DequeueMode.valueOf(Optional.ofNullable(System.getenv("DEQUEUE_MODE"))
+                .orElse(DequeueMode.STANDARD.name())
+                .toUpperCase(Locale.ENGLISH));
+    }
+
+    @Singleton
+    @Provides
+    public BatchEnqueueDao batchEnqueueDao(DynamoDbClient dynamoDb, AircraftDao aircraftDao,
+                                           PriorityAircraftsDao priorityAircraftsDao,
+                                           PriorityQueueStore priorityQueueStore) {
+        return new BatchEnqueueDao(dynamoDb, aircraftDao, priorityAircraftsDao, priorityQueueStore);
+    }
+
+    @Singleton
+    @Provides
+    public BatchDequeueDao batchDequeueDao(DynamoDbClient dynamoDb, AircraftDao aircraftDao,
+                                           PriorityAircraftsDao priorityAircraftsDao,
+                                           PriorityQueueStore priorityQueueStore) {
+        return new BatchDequeueDao(dynamoDb, aircraftDao, priorityAircraftsDao, priorityQueueStore);
     }
 }
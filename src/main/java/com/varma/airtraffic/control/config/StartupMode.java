@@ -0,0 +1,17 @@
+package com.varma.airtraffic.control.config;
+
+/**
+ * How the DynamoDB clients are built when a container starts, set through STARTUP_MODE.
+ */
+public enum StartupMode {
+    /**
+     * Apache HTTP client, region and credentials resolved through the SDK default provider chains.
+     */
+    STANDARD,
+    /**
+     * UrlConnection HTTP client, region and credentials read straight from the Lambda environment,
+     * and the client and JSON mappers exercised once during init so the first request does not pay
+     * for it.
+     */
+    OPTIMIZED
+}
@@ -1,82 +1,246 @@
 package com.varma.airtraffic.control.dao;
 
+import com.varma.airtraffic.control.cache.ExpiringLruCache;
 import com.varma.airtraffic.control.exception.AircraftDoesNotExistException;
 import com.varma.airtraffic.control.exception.CouldNotCreateAircraftException;
 import com.varma.airtraffic.control.exception.TableDoesNotExistException;
 import com.varma.airtraffic.control.exception.UnableToDeleteException;
 import com.varma.airtraffic.control.exception.UnableToUpdateException;
+import com.varma.airtraffic.control.logging.StructuredLogger;
+import com.varma.airtraffic.control.metrics.Metrics;
 import com.varma.airtraffic.control.model.Aircraft;
 import com.varma.airtraffic.control.model.AircraftSize;
 import com.varma.airtraffic.control.model.AircraftSpecialFlag;
 import com.varma.airtraffic.control.model.AircraftType;
 import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeAction;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValueUpdate;
 import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
 import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
 import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TimeZone;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class AircraftDao {
-    private static final String AIRCRAFT_ID = "aircraftId";
+    static final String DEQUEUED_PRIORITY_ID = "0";
+    static final String AIRCRAFT_ID = "aircraftId";
+    // dequeue order of a queued aircraft, removed once the aircraft is dequeued
+    static final String QUEUE_KEY = "queueKey";
+
     private static final String AIRPORT_CODE_WAS_NULL = "airport code was null";
     private static final String AIRCRAFT_TYPE_WAS_NULL = "aircraftType or Size was null";
     private static final String AIRCRAFT_SIZE_WAS_NULL = "aircraftType or Size was null";
 
     private final String tableName;
     private final DynamoDbClient dynamoDb;
+    // created on first use so handlers that never go async don't start an event loop. Null if unset
+    private final Supplier<DynamoDbAsyncClient> asyncDynamoDb;
+    // read-through cache of getAircraft, an empty Optional caches a missing aircraft. Null if off
+    private final ExpiringLruCache<String, Optional<Aircraft>> aircraftCache;
+    private final long negativeTtlMillis;
+    private final AircraftIdGenerator idGenerator;
+    private final ArrivalClock arrivalClock = ArrivalClock.system();
+    private final Metrics metrics;
 
-    private Log logger = LogFactory.getLog(AircraftDao.class);
+    private StructuredLogger logger = StructuredLogger.getLogger(AircraftDao.class);
 
     public AircraftDao(final DynamoDbClient dynamoDb, final String tableName) {
+        this(dynamoDb, null, tableName, null, 0);
+    }
+
+    public AircraftDao(final DynamoDbClient dynamoDb, final String tableName,
+                       final ExpiringLruCache<String, Optional<Aircraft>> aircraftCache,
+                       final long negativeTtlMillis) {
+        this(dynamoDb, null, tableName, aircraftCache, negativeTtlMillis);
+    }
+
+    public AircraftDao(
+            final DynamoDbClient dynamoDb, final Supplier<DynamoDbAsyncClient> asyncDynamoDb,
+            final String tableName,
+            final ExpiringLruCache<String, Optional<Aircraft>> aircraftCache,
+            final long negativeTtlMillis) {
+        this(dynamoDb, asyncDynamoDb, tableName, aircraftCache, negativeTtlMillis,
+                AircraftIdGenerator.random());
+    }
+
+    public AircraftDao(
+            final DynamoDbClient dynamoDb, final Supplier<DynamoDbAsyncClient> asyncDynamoDb,
+            final String tableName,
+            final ExpiringLruCache<String, Optional<Aircraft>> aircraftCache,
+            final long negativeTtlMillis, final AircraftIdGenerator idGenerator) {
+        this(dynamoDb, asyncDynamoDb, tableName, aircraftCache, negativeTtlMillis, idGenerator,
+                Metrics.NONE);
+    }
+
+    /**
+     * Creates a DAO that records the latency of its DynamoDB calls.
+     *
+     * @param dynamoDb          blocking client
+     * @param asyncDynamoDb     async client, or null to run the async variants on the blocking one
+     * @param tableName         name of the aircraft table
+     * @param aircraftCache     cache of loaded aircraft, or null when nothing is cached
+     * @param negativeTtlMillis how long an aircraft that does not exist is cached
+     * @param idGenerator       generates the ids of created aircraft
+     * @param metrics           where the latencies are recorded
+     */
+    public AircraftDao(
+            final DynamoDbClient dynamoDb, final Supplier<DynamoDbAsyncClient> asyncDynamoDb,
+            final String tableName,
+            final ExpiringLruCache<String, Optional<Aircraft>> aircraftCache,
+            final long negativeTtlMillis, final AircraftIdGenerator idGenerator,
+            final Metrics metrics) {
+        this.idGenerator = idGenerator;
+        this.metrics = metrics;
         this.dynamoDb = dynamoDb;
+        this.asyncDynamoDb = asyncDynamoDb;
         this.tableName = tableName;
+        this.aircraftCache = aircraftCache;
+        this.negativeTtlMillis = negativeTtlMillis;
     }
 
     /**
      * Returns an aircraft or throws if the aircraft does not exist.
+     * Served from the container cache when it is enabled, as a copy of the cached aircraft.
      *
      * @param aircraftId id of aircraft to get
      * @return the aircraft if it exists
      * @throws AircraftDoesNotExistException if the aircraft does not exist
      */
     public Aircraft getAircraft(final String aircraftId) {
+        Optional<Aircraft> aircraft = cachedAircraft(aircraftId);
+        if (aircraft == null) {
+            aircraft = Optional.ofNullable(loadAircraft(aircraftId));
+            cacheAircraft(aircraftId, aircraft);
+        }
+        return copyOrThrow(aircraftId, aircraft);
+    }
+
+    // cached aircraft are shared between invocations, callers get their own copy to modify
+    private static Aircraft copyOrThrow(final String aircraftId,
+                                        final Optional<Aircraft> aircraft) {
+        return aircraft.map(found -> found.toBuilder().build())
+                .orElseThrow(() -> new AircraftDoesNotExistException(
+                        "Aircraft " + aircraftId + " does not exist"));
+    }
+
+    /**
+     * Looks an aircraft up in the cache and counts the hit or miss, so the hit rate is published.
+     *
+     * @return the cached lookup, null when the cache is disabled or holds nothing for the aircraft
+     */
+    private Optional<Aircraft> cachedAircraft(final String aircraftId) {
+        if (aircraftCache == null) {
+            return null;
+        }
+        final Optional<Aircraft> aircraft = aircraftCache.get(aircraftId);
+        metrics.add(aircraft == null ? "AircraftDao.cache.misses" : "AircraftDao.cache.hits", 1);
+        return aircraft;
+    }
+
+    private void cacheAircraft(final String aircraftId, final Optional<Aircraft> aircraft) {
+        if (aircraftCache != null) {
+            if (aircraft.isPresent()) {
+                aircraftCache.put(aircraftId, aircraft);
+            } else {
+                aircraftCache.put(aircraftId, aircraft, negativeTtlMillis);
+            }
+        }
+    }
+
+    /**
+     * Reads an aircraft from the table, bypassing the cache.
+     *
+     * @param aircraftId id of aircraft to get
+     * @return the aircraft or null if it does not exist
+     */
+    Aircraft loadAircraft(final String aircraftId) {
+        final long start = System.nanoTime();
         try {
-            return Optional.ofNullable(
-                    dynamoDb.getItem(GetItemRequest.builder()
-                            .tableName(tableName)
-                            .key(Collections.singletonMap(AIRCRAFT_ID,
-                                    AttributeValue.builder().s(aircraftId).build()))
-                            .build()))
+            return Optional.ofNullable(dynamoDb.getItem(getAircraftRequest(aircraftId)))
                     .map(GetItemResponse::item)
                     .map(this::convert)
-                    .orElseThrow(() -> new AircraftDoesNotExistException("Aircraft "
-                            + aircraftId + " does not exist"));
+                    .orElse(null);
         } catch (ResourceNotFoundException e) {
-            logger.error("Aircraft table " + tableName + " does not exist", e);
+            logger.error("aircraft.tableMissing", e, "table", tableName);
             throw new TableDoesNotExistException("Aircraft table " + tableName + " does not exist");
+        } finally {
+            metrics.recordSince("AircraftDao.loadAircraft", start);
         }
     }
 
-    private Aircraft convert(final Map<String, AttributeValue> item) {
+    /**
+     * Non-blocking variant of {@link #getAircraft(String)}, falls back to the blocking client when
+     * no async client is configured.
+     *
+     * @param aircraftId id of aircraft to get
+     * @return a future completing with the aircraft, or failing with AircraftDoesNotExistException
+     */
+    public CompletableFuture<Aircraft> getAircraftAsync(final String aircraftId) {
+        if (asyncDynamoDb == null) {
+            return AsyncCalls.supply(() -> getAircraft(aircraftId));
+        }
+        final Optional<Aircraft> cached = cachedAircraft(aircraftId);
+        if (cached != null) {
+            return AsyncCalls.supply(() -> copyOrThrow(aircraftId, cached));
+        }
+        final long start = System.nanoTime();
+        return AsyncCalls.translate(
+                asyncDynamoDb.get().getItem(getAircraftRequest(aircraftId)), this::translate)
+                .whenComplete((response, error) -> metrics.recordSince(
+                        "AircraftDao.loadAircraft", start))
+                .thenApply(response -> {
+                    final Optional<Aircraft> aircraft = Optional.ofNullable(
+                            convert(response.item()));
+                    cacheAircraft(aircraftId, aircraft);
+                    return copyOrThrow(aircraftId, aircraft);
+                });
+    }
+
+    private GetItemRequest getAircraftRequest(final String aircraftId) {
+        return GetItemRequest.builder()
+                .tableName(tableName)
+                .key(aircraftKey(aircraftId))
+                .build();
+    }
+
+    private RuntimeException translate(final RuntimeException error) {
+        if (error instanceof ResourceNotFoundException) {
+            return new TableDoesNotExistException(
+                    "Aircraft table " + tableName + " does not exist");
+        }
+        return error;
+    }
+
+    void invalidateCachedAircraft(final String aircraftId) {
+        if (aircraftCache != null) {
+            aircraftCache.invalidate(aircraftId);
+        }
+    }
+
+    public long getCacheHitCount() {
+        return aircraftCache == null ? 0 : aircraftCache.getHitCount();
+    }
+
+    public long getCacheMissCount() {
+        return aircraftCache == null ? 0 : aircraftCache.getMissCount();
+    }
+
+    Aircraft convert(final Map<String, AttributeValue> item) {
         if (item == null || item.isEmpty()) {
             return null;
         }
@@ -90,51 +254,53 @@ public class AircraftDao {
             Optional.ofNullable(item.get("departureTime")).map(AttributeValue::s)
                     .ifPresent(builder::departureTime);
 
-            Optional.ofNullable(item.get("aircraftSpecialFlag"))
+            Optional.ofNullable(item.get("aircraftSpecialFlags"))
                     .map(AttributeValue::s)
-                    .ifPresent(flag -> builder.aircraftSpecialFlag(AircraftSpecialFlag.valueOf(flag)));
+                    .map(AircraftSpecialFlag::valueOf)
+                    .ifPresent(builder::aircraftSpecialFlag);
             builder.aircraftType(AircraftType.valueOf(item.get("aircraftType").s()));
             builder.aircraftSize(AircraftSize.valueOf(item.get("aircraftSize").s()));
         } catch (NullPointerException e) {
-            logger.error("Item did not have an aircraftId attribute or it was not a String", e);
+            logger.error("aircraft.malformedItem", e, "table", tableName);
             throw new IllegalStateException(
                     "Item did not have an aircraftId attribute or it was not a String");
         }
         return builder.build();
     }
 
-    private String getCurrentMomentAsString() {
-        final TimeZone tz = TimeZone.getTimeZone("UTC");
-        final DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm'Z'");
-        df.setTimeZone(tz);
-        return df.format(new Date());
-    }
-
-    private String calculatePriority(
-            final String airportCode,
+    static int calculatePriority(
             final AircraftType type, final AircraftSize size,
             final Optional<AircraftSpecialFlag> specialFlags) {
         int priority = type.getValue() + size.getValue();
-        if (specialFlags.isPresent()) priority += specialFlags.get().getValue();
-        return String.join("-", airportCode, String.valueOf(priority));
+        if (specialFlags.isPresent()) {
+            priority += specialFlags.get().getValue();
+        }
+        return priority;
     }
 
-    private Map<String, AttributeValue> createAircraftItem(final CreateAircraftRequest aircraftRequest) {
+    Map<String, AttributeValue> createAircraftItem(final CreateAircraftRequest aircraftRequest) {
         Map<String, AttributeValue> result = new HashMap<>();
 
         final String airportCode = aircraftRequest.getAirportCode().toUpperCase(Locale.ENGLISH);
         result.put("airportCode", AttributeValue.builder()
                 .s(airportCode)
                 .build());
+        final String aircraftId = idGenerator.nextId();
         result.put(AIRCRAFT_ID, AttributeValue.builder()
-                .s(UUID.randomUUID().toString())
+                .s(aircraftId)
                 .build());
+        final int priority = calculatePriority(aircraftRequest.getAircraftType(),
+                aircraftRequest.getAircraftSize(),
+                Optional.ofNullable(aircraftRequest.getAircraftSpecialFlag()));
+        final String arrivalTime = arrivalClock.next();
         result.put("priorityId", AttributeValue.builder()
-                .s(calculatePriority(airportCode, aircraftRequest.getAircraftType(), aircraftRequest.getAircraftSize(),
-                        Optional.ofNullable(aircraftRequest.getAircraftSpecialFlag())))
+                .s(PriorityKey.priorityId(airportCode, priority))
                 .build());
         result.put("arrivalTime", AttributeValue.builder()
-                .s(getCurrentMomentAsString())
+                .s(arrivalTime)
+                .build());
+        result.put(QUEUE_KEY, AttributeValue.builder()
+                .s(PriorityKey.queueKey(priority, arrivalTime, aircraftId))
                 .build());
         result.put("aircraftType", AttributeValue.builder()
                 .s(aircraftRequest.getAircraftType().name())
@@ -173,6 +339,7 @@ public class AircraftDao {
 
         int tries = 0;
         while (tries < 2) {
+            final long start = System.nanoTime();
             try {
                 Map<String, AttributeValue> item = createAircraftItem(createAircraftRequest);
                 dynamoDb.putItem(PutItemRequest.builder()
@@ -194,33 +361,112 @@ public class AircraftDao {
             } catch (ResourceNotFoundException e) {
                 throw new TableDoesNotExistException(
                         "Aircraft table " + tableName + " does not exist");
+            } finally {
+                metrics.recordSince("AircraftDao.createAircraft", start);
             }
         }
         throw new CouldNotCreateAircraftException(
                 "Unable to generate aircraft after 2 tries");
     }
 
+    String getTableName() {
+        return tableName;
+    }
+
+    Map<String, AttributeValue> aircraftKey(final String aircraftId) {
+        return Collections.singletonMap(AIRCRAFT_ID,
+                AttributeValue.builder().s(aircraftId).build());
+    }
+
+    /**
+     * Marks an aircraft as dequeued and removes its queue key.
+     *
+     * @param aircraftId id of aircraft to mark as dequeued
+     * @return the aircraft as it was before the update
+     * @throws UnableToUpdateException if the aircraft could not be updated
+     */
     public Aircraft deleteAircraft(String aircraftId) {
-        final HashMap<String, AttributeValue> keyEntry = new HashMap<>();
-        keyEntry.put(AIRCRAFT_ID, AttributeValue.builder()
-                .s(aircraftId)
-                .build());
+        final long start = System.nanoTime();
+        try {
+            final Aircraft aircraft = convert(
+                    dynamoDb.updateItem(deleteAircraftRequest(aircraftId)).attributes());
+            invalidateCachedAircraft(aircraftId);
+            return aircraft;
+        } catch (Exception e) {
+            throw deleteFailed(aircraftId, e);
+        } finally {
+            metrics.recordSince("AircraftDao.deleteAircraft", start);
+        }
+    }
+
+    /**
+     * Removes an aircraft row outright. Used to roll back an aircraft whose queue entries could not
+     * be written, so it does not linger as an aircraft that can never be dequeued.
+     *
+     * @param aircraftId id of aircraft to remove
+     * @return false if the row could not be removed, the failure is logged
+     */
+    public boolean removeAircraft(final String aircraftId) {
+        final long start = System.nanoTime();
+        try {
+            dynamoDb.deleteItem(DeleteItemRequest.builder()
+                    .tableName(tableName)
+                    .key(aircraftKey(aircraftId))
+                    .build());
+            invalidateCachedAircraft(aircraftId);
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("aircraft.removeFailed", e, "aircraftId", aircraftId);
+            return false;
+        } finally {
+            metrics.recordSince("AircraftDao.removeAircraft", start);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #deleteAircraft(String)}, falls back to the blocking client
+     * when no async client is configured.
+     *
+     * @param aircraftId id of aircraft to mark as dequeued
+     * @return a future completing with the aircraft as it was before the update
+     */
+    public CompletableFuture<Aircraft> deleteAircraftAsync(final String aircraftId) {
+        if (asyncDynamoDb == null) {
+            return AsyncCalls.supply(() -> deleteAircraft(aircraftId));
+        }
+        final long start = System.nanoTime();
+        final CompletableFuture<UpdateItemResponse> update =
+                asyncDynamoDb.get().updateItem(deleteAircraftRequest(aircraftId));
+        return AsyncCalls.translate(update, e -> deleteFailed(aircraftId, e))
+                .whenComplete((response, error) -> metrics.recordSince(
+                        "AircraftDao.deleteAircraft", start))
+                .thenApply(response -> {
+                    invalidateCachedAircraft(aircraftId);
+                    return convert(response.attributes());
+                });
+    }
+
+    private UnableToUpdateException deleteFailed(final String aircraftId, final Exception error) {
+        logger.error("aircraft.deleteFailed", error, "aircraftId", aircraftId);
+        return new UnableToUpdateException("Failed to update Aircraft:" + aircraftId);
+    }
+
+    private UpdateItemRequest deleteAircraftRequest(final String aircraftId) {
         final HashMap<String, AttributeValueUpdate> updateEntry = new HashMap<>();
         updateEntry.put("priorityId",
                 AttributeValueUpdate.builder()
                         .action(AttributeAction.PUT)
-                        .value(AttributeValue.builder().s("0").build())
+                        .value(AttributeValue.builder().s(DEQUEUED_PRIORITY_ID).build())
                         .build());
-        try {
-            return convert(dynamoDb.updateItem(UpdateItemRequest.builder()
-                    .tableName(tableName)
-                    .key(keyEntry)
-                    .returnValues(ReturnValue.ALL_OLD)
-                    .attributeUpdates(updateEntry)
-                    .build()).attributes());
-        }catch (Exception e) {
-            logger.error("Failed to deleteAircraft", e);
-            throw new UnableToUpdateException("Failed to update Aircraft:" + aircraftId);
-        }
+        updateEntry.put(QUEUE_KEY,
+                AttributeValueUpdate.builder()
+                        .action(AttributeAction.DELETE)
+                        .build());
+        return UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(aircraftKey(aircraftId))
+                .returnValues(ReturnValue.ALL_OLD)
+                .attributeUpdates(updateEntry)
+                .build();
     }
 }
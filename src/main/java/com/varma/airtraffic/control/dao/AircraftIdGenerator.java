@@ -0,0 +1,25 @@
+package com.varma.airtraffic.control.dao;
+
+import java.util.UUID;
+
+/**
+ * Generates the ids of new aircraft.
+ */
+public interface AircraftIdGenerator {
+
+    String nextId();
+
+    /**
+     * Random version 4 UUIDs.
+     */
+    static AircraftIdGenerator random() {
+        return () -> UUID.randomUUID().toString();
+    }
+
+    /**
+     * Version 7 UUIDs, which sort by creation time as strings.
+     */
+    static AircraftIdGenerator timeOrdered() {
+        return TimeOrderedIdGenerator.system();
+    }
+}
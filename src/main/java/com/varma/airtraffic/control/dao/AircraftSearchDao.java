@@ -0,0 +1,255 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftSpecialFlag;
+import com.varma.airtraffic.control.model.request.ListAircraftRequest;
+import com.varma.airtraffic.control.model.response.ListAircraftResponse;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Lists aircraft a page at a time, either of one airport through the airport index of the Aircraft
+ * table or of all airports with a parallel scan. Only the attributes of an aircraft are read, the
+ * filters are applied by DynamoDB and a page never holds more than the requested number of
+ * aircraft.
+ */
+public class AircraftSearchDao {
+    static final int MAX_SEGMENTS = 16;
+    // bounds the latency of a page when the filters match few aircraft
+    private static final int MAX_QUERIES_PER_PAGE = 10;
+    private static final String SEGMENTS = "segments";
+    private static final String PROJECTION = AircraftDao.AIRCRAFT_ID
+            + ", airportCode, arrivalTime, departureTime, "
+            + "priorityId, aircraftType, aircraftSize, aircraftSpecialFlags";
+
+    private final DynamoDbClient dynamoDb;
+    private final AircraftDao aircraftDao;
+    private final String indexName;
+
+    /**
+     * Creates a DAO that queries the given airport index of the aircraft table.
+     *
+     * @param dynamoDb    client the queries and scans are sent with
+     * @param aircraftDao DAO of the aircraft table
+     * @param indexName   GSI of the aircraft table keyed by airportCode
+     */
+    public AircraftSearchDao(final DynamoDbClient dynamoDb, final AircraftDao aircraftDao,
+                             final String indexName) {
+        this.dynamoDb = dynamoDb;
+        this.aircraftDao = aircraftDao;
+        this.indexName = indexName;
+    }
+
+    /**
+     * Returns the next page of aircraft matching the request, oldest arrival first when listing an
+     * airport.
+     *
+     * @throws IllegalArgumentException if the cursor of the request is not one handed out by this
+     *     method
+     */
+    public ListAircraftResponse listAircrafts(final ListAircraftRequest request) {
+        return request.getAirportCode() == null ? scanAircrafts(request) : queryAirport(request);
+    }
+
+    /**
+     * Returns the arrival time of the longest waiting aircraft still queued at an airport. The
+     * airport index keeps departed aircraft too, they are filtered out by DynamoDB while reading it
+     * oldest first.
+     *
+     * @return the arrival time, empty if no queued aircraft was found within a bounded number of
+     *     queries
+     */
+    public Optional<String> getOldestQueuedArrivalTime(final String airportCode) {
+        final Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":airportCode", AttributeValue.builder().s(airportCode).build());
+        values.put(":dequeued",
+                AttributeValue.builder().s(AircraftDao.DEQUEUED_PRIORITY_ID).build());
+        Map<String, AttributeValue> startKey = null;
+        for (int i = 0; i < MAX_QUERIES_PER_PAGE; i++) {
+            final QueryResponse response;
+            try {
+                response = dynamoDb.query(QueryRequest.builder()
+                        .tableName(aircraftDao.getTableName())
+                        .indexName(indexName)
+                        .keyConditionExpression("airportCode = :airportCode")
+                        .filterExpression("priorityId <> :dequeued")
+                        .projectionExpression("arrivalTime")
+                        .expressionAttributeValues(values)
+                        .exclusiveStartKey(startKey)
+                        .build());
+            } catch (ResourceNotFoundException e) {
+                throw new TableDoesNotExistException("Index " + indexName + " of aircraft table "
+                        + aircraftDao.getTableName() + " does not exist");
+            }
+            if (!response.items().isEmpty()) {
+                return Optional.of(response.items().get(0).get("arrivalTime").s());
+            }
+            startKey = response.lastEvaluatedKey();
+            if (isLastPage(startKey)) {
+                break;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private ListAircraftResponse queryAirport(final ListAircraftRequest request) {
+        final Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":airportCode", AttributeValue.builder().s(request.getAirportCode()).build());
+        final String filter = filterExpression(request, values);
+
+        final List<Aircraft> aircrafts = new ArrayList<>(request.getLimit());
+        Map<String, AttributeValue> startKey = request.getCursor() == null ? null
+                : PageCursor.key(PageCursor.decode(request.getCursor()));
+        for (int i = 0; i < MAX_QUERIES_PER_PAGE && aircrafts.size() < request.getLimit(); i++) {
+            final QueryResponse response;
+            try {
+                // the limit counts the aircraft read before filtering, the page can not overshoot
+                response = dynamoDb.query(QueryRequest.builder()
+                        .tableName(aircraftDao.getTableName())
+                        .indexName(indexName)
+                        .keyConditionExpression("airportCode = :airportCode")
+                        .filterExpression(filter)
+                        .projectionExpression(PROJECTION)
+                        .expressionAttributeValues(values)
+                        .limit(request.getLimit() - aircrafts.size())
+                        .exclusiveStartKey(startKey)
+                        .build());
+            } catch (ResourceNotFoundException e) {
+                throw new TableDoesNotExistException("Index " + indexName + " of aircraft table "
+                        + aircraftDao.getTableName() + " does not exist");
+            }
+            response.items().forEach(item -> aircrafts.add(aircraftDao.convert(item)));
+            startKey = isLastPage(response.lastEvaluatedKey()) ? null : response.lastEvaluatedKey();
+            if (startKey == null) {
+                break;
+            }
+        }
+        return new ListAircraftResponse(aircrafts,
+                startKey == null ? null : PageCursor.encode(PageCursor.strings(startKey)));
+    }
+
+    /**
+     * Reads one page of every segment that is not exhausted yet, in parallel. The cursor carries
+     * the position of each segment, so an export walks the table without ever holding more than a
+     * page.
+     */
+    private ListAircraftResponse scanAircrafts(final ListAircraftRequest request) {
+        final Map<String, String> cursor = request.getCursor() == null ? null
+                : PageCursor.decode(request.getCursor());
+        final int segments = cursor == null ? request.getSegments()
+                : Integer.parseInt(cursor.get(SEGMENTS));
+        if (segments < 1 || segments > Math.min(MAX_SEGMENTS, request.getLimit())) {
+            // every segment reads at least one aircraft per page
+            throw new IllegalArgumentException("segments must be between 1 and " + MAX_SEGMENTS
+                    + " and not above the limit");
+        }
+        final Map<Integer, Map<String, AttributeValue>> openSegments = new LinkedHashMap<>();
+        for (int segment = 0; segment < segments; segment++) {
+            if (cursor == null) {
+                openSegments.put(segment, null);
+            } else if (cursor.containsKey(segment + "." + AircraftDao.AIRCRAFT_ID)) {
+                final String lastAircraftId = cursor.get(segment + "." + AircraftDao.AIRCRAFT_ID);
+                openSegments.put(segment, PageCursor.key(
+                        Collections.singletonMap(AircraftDao.AIRCRAFT_ID, lastAircraftId)));
+            }
+        }
+        final Map<String, AttributeValue> values = new HashMap<>();
+        final String filter = filterExpression(request, values);
+        final int segmentLimit = Math.max(1, request.getLimit() / Math.max(1, openSegments.size()));
+
+        final Map<Integer, CompletableFuture<ScanResponse>> scans = new LinkedHashMap<>();
+        final ExecutorService scanners = Executors.newFixedThreadPool(
+                Math.max(1, openSegments.size()));
+        try {
+            for (Map.Entry<Integer, Map<String, AttributeValue>> open : openSegments.entrySet()) {
+                final ScanRequest scanRequest = ScanRequest.builder()
+                        .tableName(aircraftDao.getTableName())
+                        .segment(open.getKey())
+                        .totalSegments(segments)
+                        .filterExpression(filter)
+                        .projectionExpression(PROJECTION)
+                        .expressionAttributeValues(values.isEmpty() ? null : values)
+                        .limit(segmentLimit)
+                        .exclusiveStartKey(open.getValue())
+                        .build();
+                scans.put(open.getKey(),
+                        CompletableFuture.supplyAsync(() -> scan(scanRequest), scanners));
+            }
+
+            final List<Aircraft> aircrafts = new ArrayList<>(request.getLimit());
+            final Map<String, String> nextCursor = new LinkedHashMap<>();
+            nextCursor.put(SEGMENTS, Integer.toString(segments));
+            for (Map.Entry<Integer, CompletableFuture<ScanResponse>> scan : scans.entrySet()) {
+                final ScanResponse response = AsyncCalls.join(scan.getValue());
+                response.items().forEach(item -> aircrafts.add(aircraftDao.convert(item)));
+                if (!isLastPage(response.lastEvaluatedKey())) {
+                    nextCursor.put(scan.getKey() + "." + AircraftDao.AIRCRAFT_ID,
+                            response.lastEvaluatedKey().get(AircraftDao.AIRCRAFT_ID).s());
+                }
+            }
+            return new ListAircraftResponse(aircrafts,
+                    nextCursor.size() == 1 ? null : PageCursor.encode(nextCursor));
+        } finally {
+            scanners.shutdownNow();
+        }
+    }
+
+    private ScanResponse scan(final ScanRequest request) {
+        try {
+            return dynamoDb.scan(request);
+        } catch (ResourceNotFoundException e) {
+            throw new TableDoesNotExistException("Aircraft table " + aircraftDao.getTableName()
+                    + " does not exist");
+        }
+    }
+
+    /**
+     * Builds the filter on type, size and special flag and adds its values.
+     *
+     * @return the filter expression, null if the request does not filter
+     */
+    private static String filterExpression(final ListAircraftRequest request,
+                                           final Map<String, AttributeValue> values) {
+        final List<String> conditions = new ArrayList<>(3);
+        if (request.getAircraftType() != null) {
+            conditions.add("aircraftType = :aircraftType");
+            values.put(":aircraftType",
+                    AttributeValue.builder().s(request.getAircraftType().name()).build());
+        }
+        if (request.getAircraftSize() != null) {
+            conditions.add("aircraftSize = :aircraftSize");
+            values.put(":aircraftSize",
+                    AttributeValue.builder().s(request.getAircraftSize().name()).build());
+        }
+        if (request.getAircraftSpecialFlag() != null) {
+            // aircraft created without a flag are NORMAL
+            conditions.add(request.getAircraftSpecialFlag() == AircraftSpecialFlag.NORMAL
+                    ? "(attribute_not_exists(aircraftSpecialFlags) OR aircraftSpecialFlags = :flag)"
+                    : "aircraftSpecialFlags = :flag");
+            values.put(":flag",
+                    AttributeValue.builder().s(request.getAircraftSpecialFlag().name()).build());
+        }
+        return conditions.isEmpty() ? null : String.join(" AND ", conditions);
+    }
+
+    private static boolean isLastPage(final Map<String, AttributeValue> lastEvaluatedKey) {
+        return lastEvaluatedKey == null || lastEvaluatedKey.isEmpty();
+    }
+}
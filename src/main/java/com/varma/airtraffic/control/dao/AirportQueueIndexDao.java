@@ -0,0 +1,211 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.AircraftDoesNotExistException;
+import com.varma.airtraffic.control.exception.AirportWithEmptyAircraftsException;
+import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import com.varma.airtraffic.control.exception.UnableToDeleteException;
+import com.varma.airtraffic.control.exception.UnableToUpdateException;
+import com.varma.airtraffic.control.logging.StructuredLogger;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftPriority;
+import com.varma.airtraffic.control.model.AircraftSpecialFlag;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the airport queues in the Aircraft table itself. Queued aircraft carry a queueKey, and a
+ * global secondary index on airportCode and queueKey returns the head of an airport's queue with
+ * one query, so no rows are written to the PriorityAircrafts table.
+ */
+public class AirportQueueIndexDao implements PriorityQueueStore {
+    private static final int MAX_ATTEMPTS = 10;
+
+    private static final StructuredLogger logger =
+            StructuredLogger.getLogger(AirportQueueIndexDao.class);
+
+    private final DynamoDbClient dynamoDb;
+    private final AircraftDao aircraftDao;
+    private final String indexName;
+    // queue counters moved along with reprioritized aircraft, null when not maintained
+    private final AirportStatsDao airportStatsDao;
+
+    public AirportQueueIndexDao(final DynamoDbClient dynamoDb, final AircraftDao aircraftDao,
+                                final String indexName) {
+        this(dynamoDb, aircraftDao, indexName, null);
+    }
+
+    /**
+     * Creates a DAO that also moves the queue counters of reprioritized aircraft.
+     *
+     * @param dynamoDb        client the index is queried and the aircraft claimed with
+     * @param aircraftDao     DAO of the aircraft table
+     * @param indexName       GSI of the aircraft table keyed by airportCode and queue key
+     * @param airportStatsDao queue counters, or null when they are not maintained
+     */
+    public AirportQueueIndexDao(final DynamoDbClient dynamoDb, final AircraftDao aircraftDao,
+                                final String indexName, final AirportStatsDao airportStatsDao) {
+        this.dynamoDb = dynamoDb;
+        this.aircraftDao = aircraftDao;
+        this.indexName = indexName;
+        this.airportStatsDao = airportStatsDao;
+    }
+
+    /**
+     * Nothing to write, the queueKey written with the aircraft already places it in the index.
+     */
+    @Override
+    public void enqueue(final Aircraft aircraft) {
+    }
+
+    @Override
+    public AircraftPriority dequeue(final String airportCode) {
+        final Aircraft aircraft = dequeueAircraft(airportCode);
+        return AircraftPriority.builder()
+                .aircraftId(aircraft.getAircraftId())
+                .priorityId(aircraft.getPriorityId())
+                .arrivalTime(aircraft.getArrivalTime())
+                .build();
+    }
+
+    /**
+     * Claims the head of the airport queue. The index is eventually consistent, so the claim is
+     * conditional on the aircraft still holding the queueKey it was found with; if another dequeue
+     * took it first the query continues after it.
+     *
+     * @param airportCode airport to dequeue from
+     * @return the dequeued aircraft, as it was before it was claimed
+     * @throws AirportWithEmptyAircraftsException if the airport has no aircraft queued
+     * @throws UnableToDeleteException if no aircraft could be claimed after retrying
+     */
+    public Aircraft dequeueAircraft(final String airportCode) {
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            final QueryResponse response = queryHead(airportCode, exclusiveStartKey);
+            if (response.items().isEmpty()) {
+                if (response.lastEvaluatedKey() == null || response.lastEvaluatedKey().isEmpty()) {
+                    throw new AirportWithEmptyAircraftsException(
+                            "No Aircrafts exist for AirportCode:" + airportCode);
+                }
+                exclusiveStartKey = response.lastEvaluatedKey();
+                continue;
+            }
+            final Map<String, AttributeValue> head = response.items().get(0);
+            final String aircraftId = head.get(AircraftDao.AIRCRAFT_ID).s();
+            try {
+                final UpdateItemRequest claim = UpdateItemRequest.builder()
+                        .tableName(aircraftDao.getTableName())
+                        .key(aircraftDao.aircraftKey(aircraftId))
+                        .updateExpression("SET priorityId = :dequeued REMOVE "
+                                + AircraftDao.QUEUE_KEY)
+                        .conditionExpression(AircraftDao.QUEUE_KEY + " = :queueKey")
+                        .expressionAttributeValues(claimValues(head.get(AircraftDao.QUEUE_KEY)))
+                        .returnValues(ReturnValue.ALL_OLD)
+                        .build();
+                final Map<String, AttributeValue> claimed = dynamoDb.updateItem(claim).attributes();
+                final Aircraft aircraft = aircraftDao.convert(claimed);
+                aircraftDao.invalidateCachedAircraft(aircraftId);
+                return aircraft;
+            } catch (ConditionalCheckFailedException e) {
+                logger.debug("dequeue.lostRace", "aircraftId", aircraftId, "attempt", attempt);
+                exclusiveStartKey = response.lastEvaluatedKey();
+            } catch (ResourceNotFoundException e) {
+                throw new TableDoesNotExistException("Aircraft table " + aircraftDao.getTableName()
+                        + " does not exist");
+            }
+        }
+        throw new UnableToDeleteException("Unable to dequeue an aircraft for airport " + airportCode
+                + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * Changes the special flag of a queued aircraft. The queue lives on the aircraft item, so
+     * rewriting its priorityId and queueKey with one conditional update moves it within the index.
+     *
+     * @param aircraftId  id of the aircraft to move
+     * @param specialFlag new special flag of the aircraft
+     * @return the aircraft with its new priority
+     * @throws AircraftDoesNotExistException if the aircraft does not exist
+     * @throws UnableToUpdateException       if the aircraft was dequeued or changed while it was
+     *     moved
+     */
+    public Aircraft reprioritizeAircraft(final String aircraftId,
+                                         final AircraftSpecialFlag specialFlag) {
+        final Aircraft aircraft = aircraftDao.loadAircraft(aircraftId);
+        if (aircraft == null) {
+            throw new AircraftDoesNotExistException("Aircraft " + aircraftId + " does not exist");
+        }
+        if (AircraftDao.DEQUEUED_PRIORITY_ID.equals(aircraft.getPriorityId())) {
+            throw new UnableToUpdateException("Aircraft " + aircraftId + " was already dequeued");
+        }
+        final int prioritySum = AircraftDao.calculatePriority(aircraft.getAircraftType(),
+                aircraft.getAircraftSize(), Optional.of(specialFlag));
+        final String priorityId = PriorityKey.priorityId(aircraft.getAirportCode(), prioritySum);
+        final Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":oldPriorityId", AttributeValue.builder().s(aircraft.getPriorityId()).build());
+        values.put(":priorityId", AttributeValue.builder().s(priorityId).build());
+        values.put(":flag", AttributeValue.builder().s(specialFlag.name()).build());
+        values.put(":queueKey", AttributeValue.builder()
+                .s(PriorityKey.queueKey(prioritySum, aircraft.getArrivalTime(), aircraftId))
+                .build());
+        try {
+            dynamoDb.updateItem(UpdateItemRequest.builder()
+                    .tableName(aircraftDao.getTableName())
+                    .key(aircraftDao.aircraftKey(aircraftId))
+                    .updateExpression("SET priorityId = :priorityId, aircraftSpecialFlags = :flag, "
+                            + AircraftDao.QUEUE_KEY + " = :queueKey")
+                    .conditionExpression("priorityId = :oldPriorityId")
+                    .expressionAttributeValues(values)
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            throw new UnableToUpdateException(
+                    "Aircraft " + aircraftId + " was dequeued or changed while moving it");
+        } catch (ResourceNotFoundException e) {
+            throw new TableDoesNotExistException("Aircraft table " + aircraftDao.getTableName()
+                    + " does not exist");
+        }
+        aircraftDao.invalidateCachedAircraft(aircraftId);
+        if (airportStatsDao != null && !priorityId.equals(aircraft.getPriorityId())) {
+            airportStatsDao.recordMoved(aircraft.getAirportCode(), aircraft.getPriorityId(),
+                    priorityId);
+        }
+        return aircraft.toBuilder().priorityId(priorityId).aircraftSpecialFlag(specialFlag).build();
+    }
+
+    private QueryResponse queryHead(final String airportCode,
+                                    final Map<String, AttributeValue> exclusiveStartKey) {
+        try {
+            return dynamoDb.query(QueryRequest.builder()
+                    .tableName(aircraftDao.getTableName())
+                    .indexName(indexName)
+                    .keyConditionExpression("airportCode = :airportCode")
+                    .expressionAttributeValues(Collections.singletonMap(":airportCode",
+                            AttributeValue.builder().s(airportCode).build()))
+                    .scanIndexForward(true)
+                    .limit(1)
+                    .exclusiveStartKey(exclusiveStartKey)
+                    .build());
+        } catch (ResourceNotFoundException e) {
+            throw new TableDoesNotExistException("Index " + indexName + " of aircraft table "
+                    + aircraftDao.getTableName() + " does not exist");
+        }
+    }
+
+    private static Map<String, AttributeValue> claimValues(final AttributeValue queueKey) {
+        final Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":queueKey", queueKey);
+        values.put(":dequeued",
+                AttributeValue.builder().s(AircraftDao.DEQUEUED_PRIORITY_ID).build());
+        return values;
+    }
+}
@@ -0,0 +1,275 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import com.varma.airtraffic.control.model.AircraftPriority;
+import com.varma.airtraffic.control.model.AirportPriority;
+import com.varma.airtraffic.control.model.response.AirportResetResponse;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Clears every queued aircraft of an airport, i.e. reboots the airport.
+ *
+ * <p>Each priority bucket is purged by its own worker that pages through the bucket and hands the
+ * Aircraft and PriorityAircrafts deletes to a bounded pool of BatchWriteItem writers. A bucket row
+ * is only removed once its aircraft are gone, so a reset that runs out of time leaves the remaining
+ * buckets in place and running it again continues where it stopped.
+ */
+public class AirportResetDao {
+    // aircraft read per query, each one is deleted from both tables
+    private static final int PAGE_SIZE = 4 * BatchWriter.MAX_ITEMS_PER_BATCH;
+
+    private static final Log logger = LogFactory.getLog(AirportResetDao.class);
+
+    private final DynamoDbClient dynamoDb;
+    private final AircraftDao aircraftDao;
+    private final PriorityAircraftsDao priorityAircraftsDao;
+    private final BatchWriter batchWriter;
+    private final int workers;
+    // GSI of the Aircraft table to purge as well, null unless aircraft are queued on the index
+    private final String queueIndexName;
+
+    /**
+     * Creates a DAO that purges the buckets of an airport on the given number of workers.
+     *
+     * @param dynamoDb             client the queries and batch deletes are sent with
+     * @param aircraftDao          DAO of the aircraft table
+     * @param priorityAircraftsDao DAO of the priority aircraft table
+     * @param workers              buckets purged at the same time
+     * @param queueIndexName       queue index of the aircraft table to purge as well, or null
+     */
+    public AirportResetDao(final DynamoDbClient dynamoDb, final AircraftDao aircraftDao,
+                           final PriorityAircraftsDao priorityAircraftsDao, final int workers,
+                           final String queueIndexName) {
+        this.dynamoDb = dynamoDb;
+        this.aircraftDao = aircraftDao;
+        this.priorityAircraftsDao = priorityAircraftsDao;
+        this.batchWriter = new BatchWriter(dynamoDb);
+        this.workers = workers;
+        this.queueIndexName = queueIndexName;
+    }
+
+    /**
+     * Deletes the queued aircraft of an airport until the airport is empty or the deadline passes.
+     * Aircraft that already departed are kept.
+     *
+     * @param airportCode    airport to reset
+     * @param deadlineMillis wall clock time after which no further page is started
+     * @return what was deleted, and whether the airport is empty
+     */
+    public AirportResetResponse resetAirport(final String airportCode, final long deadlineMillis) {
+        final List<AirportPriority> buckets = priorityAircraftsDao.getAirportPriorities(
+                airportCode);
+        final AtomicInteger aircraftsDeleted = new AtomicInteger();
+        final AtomicInteger bucketsDeleted = new AtomicInteger();
+        final AtomicBoolean complete = new AtomicBoolean(true);
+
+        final ExecutorService bucketWorkers = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(workers, buckets.size())));
+        final ExecutorService batchWriters = Executors.newFixedThreadPool(workers);
+        try {
+            final List<CompletableFuture<Void>> purges = new ArrayList<>(buckets.size());
+            for (AirportPriority bucket : buckets) {
+                purges.add(CompletableFuture.runAsync(() -> {
+                    final boolean purged = purgeBucket(
+                            bucket, deadlineMillis, batchWriters, aircraftsDeleted);
+                    if (purged && deleteBucket(bucket)) {
+                        bucketsDeleted.incrementAndGet();
+                        logger.info("Reset of " + airportCode + " cleared bucket "
+                                + bucket.getPriorityId() + ", " + aircraftsDeleted.get()
+                                + " aircraft deleted so far");
+                    } else {
+                        complete.set(false);
+                    }
+                }, bucketWorkers));
+            }
+            AsyncCalls.join(CompletableFuture.allOf(purges.toArray(new CompletableFuture[0])));
+            if (queueIndexName != null
+                    && !purgeQueueIndex(airportCode, deadlineMillis, batchWriters,
+                            aircraftsDeleted)) {
+                complete.set(false);
+            }
+        } finally {
+            bucketWorkers.shutdownNow();
+            batchWriters.shutdownNow();
+            priorityAircraftsDao.invalidateAirportPriorities(airportCode);
+        }
+        logger.info("Reset of " + airportCode + " deleted " + aircraftsDeleted.get()
+                + " aircraft and " + bucketsDeleted.get() + " of " + buckets.size()
+                + " buckets, complete: " + complete.get());
+        return new AirportResetResponse(airportCode, aircraftsDeleted.get(), bucketsDeleted.get(),
+                buckets.size() - bucketsDeleted.get(), complete.get());
+    }
+
+    /**
+     * Deletes the aircraft of a bucket page by page until it is empty or the deadline passes.
+     *
+     * @return true if every aircraft of the bucket was deleted
+     */
+    private boolean purgeBucket(final AirportPriority bucket, final long deadlineMillis,
+                                final ExecutorService batchWriters,
+                                final AtomicInteger aircraftsDeleted) {
+        boolean purged = true;
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            if (System.currentTimeMillis() > deadlineMillis) {
+                return false;
+            }
+            final QueryResponse response = query(QueryRequest.builder()
+                    .tableName(priorityAircraftsDao.getTableName())
+                    .keyConditionExpression("hashKey = :priorityId")
+                    .expressionAttributeValues(Collections.singletonMap(":priorityId",
+                            AttributeValue.builder().s(bucket.getPriorityId()).build()))
+                    .limit(PAGE_SIZE)
+                    .consistentRead(true)
+                    .exclusiveStartKey(exclusiveStartKey)
+                    .build());
+            final List<TableWrite> writes = new ArrayList<>(2 * response.items().size());
+            for (Map<String, AttributeValue> item : response.items()) {
+                final AircraftPriority entry = AircraftPriority.builder()
+                        .priorityId(bucket.getPriorityId())
+                        .aircraftId(item.get("rangeKey").s())
+                        .build();
+                writes.add(delete(aircraftDao.getTableName(), aircraftDao.aircraftKey(
+                        entry.getAircraftId())));
+                writes.add(delete(priorityAircraftsDao.getTableName(),
+                        priorityAircraftsDao.aircraftPriorityKey(entry)));
+            }
+            final int unprocessed = write(writes, batchWriters);
+            response.items().forEach(item -> aircraftDao.invalidateCachedAircraft(
+                    item.get("rangeKey").s()));
+            purged &= unprocessed == 0;
+            aircraftsDeleted.addAndGet(response.items().size() - unprocessed);
+            exclusiveStartKey = response.lastEvaluatedKey();
+        } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty());
+        return purged;
+    }
+
+    /**
+     * Deletes the aircraft that are only queued on the airport queue index of the Aircraft table.
+     *
+     * @return true if the index returned no aircraft that could not be deleted
+     */
+    private boolean purgeQueueIndex(final String airportCode, final long deadlineMillis,
+                                    final ExecutorService batchWriters,
+                                    final AtomicInteger aircraftsDeleted) {
+        boolean purged = true;
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            if (System.currentTimeMillis() > deadlineMillis) {
+                return false;
+            }
+            final QueryResponse response = query(QueryRequest.builder()
+                    .tableName(aircraftDao.getTableName())
+                    .indexName(queueIndexName)
+                    .keyConditionExpression("airportCode = :airportCode")
+                    .expressionAttributeValues(Collections.singletonMap(":airportCode",
+                            AttributeValue.builder().s(airportCode).build()))
+                    .limit(PAGE_SIZE)
+                    .exclusiveStartKey(exclusiveStartKey)
+                    .build());
+            final List<TableWrite> writes = new ArrayList<>(response.items().size());
+            for (Map<String, AttributeValue> item : response.items()) {
+                final String aircraftId = item.get(AircraftDao.AIRCRAFT_ID).s();
+                writes.add(delete(aircraftDao.getTableName(), aircraftDao.aircraftKey(aircraftId)));
+            }
+            final int unprocessed = write(writes, batchWriters);
+            response.items().forEach(item -> aircraftDao.invalidateCachedAircraft(
+                    item.get(AircraftDao.AIRCRAFT_ID).s()));
+            purged &= unprocessed == 0;
+            aircraftsDeleted.addAndGet(response.items().size() - unprocessed);
+            exclusiveStartKey = response.lastEvaluatedKey();
+        } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty());
+        return purged;
+    }
+
+    /**
+     * Writes the deletes in BatchWriteItem sized chunks on the writer pool.
+     *
+     * @return the number of Aircraft rows that were still not deleted after retrying, an aircraft
+     *     whose queue row could not be deleted counts as well so its bucket is kept for the next
+     *     reset
+     */
+    private int write(final List<TableWrite> writes, final ExecutorService batchWriters) {
+        final List<CompletableFuture<List<TableWrite>>> chunks = new ArrayList<>();
+        for (int from = 0; from < writes.size(); from += BatchWriter.MAX_ITEMS_PER_BATCH) {
+            final List<TableWrite> chunk = writes.subList(from,
+                    Math.min(from + BatchWriter.MAX_ITEMS_PER_BATCH, writes.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> batchWriter.write(chunk), batchWriters));
+        }
+        final Set<Map<String, AttributeValue>> unprocessed = new HashSet<>();
+        for (CompletableFuture<List<TableWrite>> chunk : chunks) {
+            for (TableWrite write : AsyncCalls.join(chunk)) {
+                // both rows of an aircraft are keyed by its id, the queue row under rangeKey
+                final Map<String, AttributeValue> key =
+                        write.getWriteRequest().deleteRequest().key();
+                unprocessed.add(Collections.singletonMap(AircraftDao.AIRCRAFT_ID,
+                        key.containsKey(AircraftDao.AIRCRAFT_ID) ? key.get(AircraftDao.AIRCRAFT_ID)
+                                : key.get("rangeKey")));
+            }
+        }
+        return unprocessed.size();
+    }
+
+    /**
+     * Removes a purged bucket unless an aircraft was enqueued into it meanwhile.
+     */
+    private boolean deleteBucket(final AirportPriority bucket) {
+        try {
+            dynamoDb.deleteItem(DeleteItemRequest.builder()
+                    .tableName(priorityAircraftsDao.getTableName())
+                    .key(priorityAircraftsDao.airportPriorityKey(bucket))
+                    .conditionExpression("attribute_not_exists(rangeKey) OR #date = :date")
+                    .expressionAttributeNames(Collections.singletonMap("#date", "date"))
+                    .expressionAttributeValues(Collections.singletonMap(":date",
+                            AttributeValue.builder().s(bucket.getDate()).build()))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            logger.info("Bucket " + bucket.getPriorityId()
+                    + " received aircraft while resetting, keeping it");
+            return false;
+        } catch (ResourceNotFoundException e) {
+            throw new TableDoesNotExistException(
+                    "PrioritiesAircraft table " + priorityAircraftsDao.getTableName()
+                    + " does not exist");
+        }
+    }
+
+    private QueryResponse query(final QueryRequest request) {
+        try {
+            return dynamoDb.query(request);
+        } catch (ResourceNotFoundException e) {
+            throw new TableDoesNotExistException(
+                    "Table " + request.tableName() + " does not exist");
+        }
+    }
+
+    private static TableWrite delete(final String tableName,
+                                     final Map<String, AttributeValue> key) {
+        return new TableWrite(tableName, WriteRequest.builder()
+                .deleteRequest(DeleteRequest.builder().key(key).build())
+                .build());
+    }
+}
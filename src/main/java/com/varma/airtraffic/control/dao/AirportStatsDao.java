@@ -0,0 +1,199 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import com.varma.airtraffic.control.logging.StructuredLogger;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftPriority;
+import com.varma.airtraffic.control.model.response.AirportStatsResponse;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Queue depth counters of an airport, kept in one item of the PriorityAircrafts table next to the
+ * airport's buckets: the total depth plus one counter per priorityId, maintained with UpdateItem
+ * ADD.
+ *
+ * <p>The counters are updated after the queue itself and a failed update is only logged, so they
+ * are a monitoring view that can drift on partial failures; an airport reset starts them over.
+ */
+public class AirportStatsDao {
+    private static final String STATS_SUFFIX = "#stats";
+    private static final String STATS_RANGE_KEY = "counters";
+    private static final String DEPTH = "depth";
+
+    private static final StructuredLogger logger =
+            StructuredLogger.getLogger(AirportStatsDao.class);
+
+    private final DynamoDbClient dynamoDb;
+    private final PriorityAircraftsDao priorityAircraftsDao;
+    // reads the oldest arrival when the queue keeps no PriorityAircrafts entries, null when it does
+    private final AircraftSearchDao aircraftSearchDao;
+
+    public AirportStatsDao(final DynamoDbClient dynamoDb,
+                           final PriorityAircraftsDao priorityAircraftsDao) {
+        this(dynamoDb, priorityAircraftsDao, null);
+    }
+
+    /**
+     * Creates a DAO that reads the oldest queued arrival time from the aircraft search index.
+     */
+    public AirportStatsDao(final DynamoDbClient dynamoDb,
+                           final PriorityAircraftsDao priorityAircraftsDao,
+                           final AircraftSearchDao aircraftSearchDao) {
+        this.dynamoDb = dynamoDb;
+        this.priorityAircraftsDao = priorityAircraftsDao;
+        this.aircraftSearchDao = aircraftSearchDao;
+    }
+
+    public void recordEnqueued(final Collection<Aircraft> aircrafts) {
+        groupByAirport(aircrafts).forEach((airportCode, ids) -> add(airportCode, ids, 1));
+    }
+
+    public void recordDequeued(final Collection<Aircraft> aircrafts) {
+        groupByAirport(aircrafts).forEach((airportCode, ids) -> add(airportCode, ids, -1));
+    }
+
+    /**
+     * Moves one aircraft from the counter of its old priority to the counter of its new one.
+     */
+    public void recordMoved(final String airportCode, final String fromPriorityId,
+                            final String toPriorityId) {
+        final Map<String, Long> deltas = new HashMap<>();
+        deltas.put(fromPriorityId, -1L);
+        deltas.put(toPriorityId, 1L);
+        update(airportCode, deltas, 0);
+    }
+
+    /**
+     * Drops the counters of an airport once its queue is empty.
+     */
+    public void clear(final String airportCode) {
+        try {
+            dynamoDb.deleteItem(DeleteItemRequest.builder()
+                    .tableName(priorityAircraftsDao.getTableName())
+                    .key(statsKey(airportCode))
+                    .build());
+        } catch (RuntimeException e) {
+            logger.warn("airportStats.clearFailed", e, "airportCode", airportCode);
+        }
+    }
+
+    /**
+     * Reads the counters of an airport with one GetItem, plus one single item query per non-empty
+     * priority bucket for the oldest arrival. The number of buckets is bounded by the priority
+     * classes, so the cost does not grow with the queue. When the queue keeps no PriorityAircrafts
+     * entries the oldest arrival is read from the airport index of the Aircraft table instead.
+     *
+     * @param airportCode airport to describe
+     * @return the depth of the airport, zero for an unknown airport
+     */
+    public AirportStatsResponse getStats(final String airportCode) {
+        final Map<String, AttributeValue> item;
+        try {
+            item = dynamoDb.getItem(GetItemRequest.builder()
+                    .tableName(priorityAircraftsDao.getTableName())
+                    .key(statsKey(airportCode))
+                    .build()).item();
+        } catch (ResourceNotFoundException e) {
+            throw new TableDoesNotExistException("PrioritiesAircraft table "
+                    + priorityAircraftsDao.getTableName() + " does not exist");
+        }
+        long depth = 0;
+        // highest priority first
+        final Map<String, Long> priorityDepths = new TreeMap<>(Collections.reverseOrder());
+        if (item != null) {
+            for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+                if (attribute.getValue().n() == null) {
+                    continue;
+                }
+                final long count = Long.parseLong(attribute.getValue().n());
+                if (DEPTH.equals(attribute.getKey())) {
+                    depth = count;
+                } else if (count > 0) {
+                    priorityDepths.put(attribute.getKey(), count);
+                }
+            }
+        }
+        if (aircraftSearchDao != null) {
+            final String oldestArrivalTime = priorityDepths.isEmpty() ? null
+                    : aircraftSearchDao.getOldestQueuedArrivalTime(airportCode).orElse(null);
+            return new AirportStatsResponse(airportCode, depth, priorityDepths, oldestArrivalTime);
+        }
+        String oldestArrivalTime = null;
+        for (String priorityId : priorityDepths.keySet()) {
+            final List<AircraftPriority> oldest =
+                    priorityAircraftsDao.getOldestAircraftsWithPriorityId(priorityId, 1);
+            if (!oldest.isEmpty() && (oldestArrivalTime == null
+                    || oldest.get(0).getArrivalTime().compareTo(oldestArrivalTime) < 0)) {
+                oldestArrivalTime = oldest.get(0).getArrivalTime();
+            }
+        }
+        return new AirportStatsResponse(airportCode, depth, priorityDepths, oldestArrivalTime);
+    }
+
+    private void add(final String airportCode, final List<String> priorityIds, final long sign) {
+        final Map<String, Long> deltas = new HashMap<>();
+        priorityIds.forEach(priorityId -> deltas.merge(priorityId, sign, Long::sum));
+        update(airportCode, deltas, sign * priorityIds.size());
+    }
+
+    private void update(final String airportCode, final Map<String, Long> priorityDeltas,
+                        final long depthDelta) {
+        final StringBuilder expression = new StringBuilder("ADD #depth :depth");
+        final Map<String, String> names = new HashMap<>();
+        final Map<String, AttributeValue> values = new HashMap<>();
+        names.put("#depth", DEPTH);
+        values.put(":depth", AttributeValue.builder().n(Long.toString(depthDelta)).build());
+        int index = 0;
+        for (Map.Entry<String, Long> delta : priorityDeltas.entrySet()) {
+            expression.append(", #p").append(index).append(" :p").append(index);
+            names.put("#p" + index, delta.getKey());
+            values.put(":p" + index,
+                    AttributeValue.builder().n(Long.toString(delta.getValue())).build());
+            index++;
+        }
+        try {
+            dynamoDb.updateItem(UpdateItemRequest.builder()
+                    .tableName(priorityAircraftsDao.getTableName())
+                    .key(statsKey(airportCode))
+                    .updateExpression(expression.toString())
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values)
+                    .build());
+        } catch (RuntimeException e) {
+            logger.warn("airportStats.updateFailed", e, "airportCode", airportCode);
+        }
+    }
+
+    private static Map<String, List<String>> groupByAirport(final Collection<Aircraft> aircrafts) {
+        final Map<String, List<String>> priorityIds = new HashMap<>();
+        for (Aircraft aircraft : aircrafts) {
+            priorityIds.computeIfAbsent(aircraft.getAirportCode(), airportCode -> new ArrayList<>())
+                    .add(aircraft.getPriorityId());
+        }
+        return priorityIds;
+    }
+
+    /**
+     * The counters live under their own hash key, so listing the buckets of the airport never sees
+     * them.
+     */
+    private static Map<String, AttributeValue> statsKey(final String airportCode) {
+        final Map<String, AttributeValue> key = new HashMap<>();
+        key.put("hashKey", AttributeValue.builder().s(airportCode + STATS_SUFFIX).build());
+        key.put("rangeKey", AttributeValue.builder().s(STATS_RANGE_KEY).build());
+        return key;
+    }
+}
@@ -0,0 +1,57 @@
+package com.varma.airtraffic.control.dao;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stamps arrival times in UTC with microsecond resolution, e.g. 2019-08-29T02:10:05.123456Z. The
+ * stamps are fixed width, so they sort as strings, and strictly increase within a container: a
+ * stamp that would repeat or go back in time is moved one microsecond past the previous one.
+ */
+public final class ArrivalClock {
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter
+            .ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSSSS'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final long MICROS_PER_SECOND = TimeUnit.SECONDS.toMicros(1);
+
+    private static final ArrivalClock SYSTEM = new ArrivalClock(Clock.systemUTC());
+
+    private final Clock clock;
+    private final AtomicLong lastMicros = new AtomicLong();
+
+    ArrivalClock(final Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * The clock shared by every DAO of the container.
+     */
+    public static ArrivalClock system() {
+        return SYSTEM;
+    }
+
+    public String next() {
+        return format(nextMicros());
+    }
+
+    long nextMicros() {
+        final Instant now = clock.instant();
+        final long nowMicros = now.getEpochSecond() * MICROS_PER_SECOND + now.getNano() / 1000;
+        while (true) {
+            final long last = lastMicros.get();
+            final long next = Math.max(nowMicros, last + 1);
+            if (lastMicros.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    static String format(final long epochMicros) {
+        return FORMAT.format(Instant.ofEpochSecond(Math.floorDiv(epochMicros, MICROS_PER_SECOND),
+                Math.floorMod(epochMicros, MICROS_PER_SECOND) * 1000));
+    }
+}
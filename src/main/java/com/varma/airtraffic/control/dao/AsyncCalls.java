@@ -0,0 +1,86 @@
+package com.varma.airtraffic.control.dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+final class AsyncCalls {
+    // daemon threads, so an idle pool never keeps the JVM alive
+    private static final ExecutorService BLOCKING_CALLS = Executors.newCachedThreadPool(call -> {
+        final Thread thread = new Thread(call, "blocking-dynamodb-call");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private AsyncCalls() {
+    }
+
+    /**
+     * Runs a blocking call on the calling thread and returns its outcome as a completed future.
+     */
+    static <T> CompletableFuture<T> supply(final Supplier<T> call) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            result.complete(call.get());
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Runs a blocking call on a worker thread, so the caller can make another call while it is in
+     * flight.
+     */
+    static <T> CompletableFuture<T> supplyAsync(final Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, BLOCKING_CALLS);
+    }
+
+    /**
+     * Replaces the SDK exception a future failed with by the one the blocking DAO method would
+     * throw.
+     */
+    static <T> CompletableFuture<T> translate(
+            final CompletableFuture<T> future,
+            final Function<RuntimeException, RuntimeException> translator) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            final Throwable cause = unwrap(error);
+            result.completeExceptionally(cause instanceof RuntimeException
+                    ? translator.apply((RuntimeException) cause) : cause);
+        });
+        return result;
+    }
+
+    /**
+     * Waits for a future and rethrows its failure as the original unchecked exception.
+     */
+    static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    static Throwable unwrap(final Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,23 @@
+package com.varma.airtraffic.control.dao;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+final class Backoff {
+    private Backoff() {
+    }
+
+    /**
+     * Sleeps for a random time up to baseMillis * 2^attempt (full jitter).
+     *
+     * @return false if the thread was interrupted while waiting
+     */
+    static boolean pause(final int attempt, final long baseMillis) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(baseMillis << attempt));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
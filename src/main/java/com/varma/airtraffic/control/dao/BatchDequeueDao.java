@@ -0,0 +1,257 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.AirportWithEmptyAircraftsException;
+import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import com.varma.airtraffic.control.logging.StructuredLogger;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftPriority;
+import com.varma.airtraffic.control.model.AirportPriority;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Dequeues the next K aircraft of an airport with one paginated query per priority bucket and
+ * batched deletes of the queue rows. Each aircraft is claimed first, with an UpdateItem conditional
+ * on the priority it was queued with, so an aircraft reprioritized or claimed by a concurrent
+ * dequeue is skipped instead of being overwritten. Only then are the queue rows deleted, so a
+ * failed claim leaves its aircraft queued. A drained bucket row is deleted on the condition that no
+ * enqueue has moved its date on since.
+ */
+public class BatchDequeueDao {
+    private static final StructuredLogger logger =
+            StructuredLogger.getLogger(BatchDequeueDao.class);
+
+    private final DynamoDbClient dynamoDb;
+    private final AircraftDao aircraftDao;
+    private final PriorityAircraftsDao priorityAircraftsDao;
+    private final PriorityQueueStore priorityQueueStore;
+    private final BatchWriter batchWriter;
+
+    /**
+     * Creates a DAO that dequeues from the given queue store.
+     *
+     * @param dynamoDb             client the claims and batch deletes are sent with
+     * @param aircraftDao          DAO of the aircraft table
+     * @param priorityAircraftsDao DAO of the priority aircraft table
+     * @param priorityQueueStore   store the aircraft are queued in
+     */
+    public BatchDequeueDao(final DynamoDbClient dynamoDb, final AircraftDao aircraftDao,
+                           final PriorityAircraftsDao priorityAircraftsDao,
+                           final PriorityQueueStore priorityQueueStore) {
+        this.dynamoDb = dynamoDb;
+        this.aircraftDao = aircraftDao;
+        this.priorityAircraftsDao = priorityAircraftsDao;
+        this.priorityQueueStore = priorityQueueStore;
+        this.batchWriter = new BatchWriter(dynamoDb);
+    }
+
+    /**
+     * Removes up to count aircraft from the queue of an airport in strict priority and arrival
+     * order.
+     *
+     * @param airportCode airport to dequeue from
+     * @param count maximum number of aircraft to dequeue
+     * @return the dequeued aircraft, in dequeue order, as they were before they were claimed
+     * @throws AirportWithEmptyAircraftsException if the airport has no aircraft queued
+     */
+    public List<Aircraft> dequeueAircrafts(final String airportCode, final int count) {
+        final List<AircraftPriority> entries = new ArrayList<>(count);
+        // the delete of the queue row of each entry, by aircraft
+        final Map<String, TableWrite> queueRows = new HashMap<>();
+        // buckets with every entry taken, with the entries that must be gone before the bucket
+        final Map<AirportPriority, List<AircraftPriority>> drainedBuckets = new LinkedHashMap<>();
+
+        if (priorityQueueStore == priorityAircraftsDao) {
+            for (AirportPriority bucket : priorityAircraftsDao.getAirportPriorities(airportCode)) {
+                final int remaining = count - entries.size();
+                if (remaining == 0) {
+                    break;
+                }
+                // read one more than needed to know whether the bucket is drained
+                final List<AircraftPriority> oldest = priorityAircraftsDao
+                        .getOldestAircraftsWithPriorityId(bucket.getPriorityId(), remaining + 1);
+                if (oldest.isEmpty()) {
+                    // left behind by a dequeue that failed between its deletes
+                    priorityAircraftsDao.deleteStaleAirportPriority(bucket);
+                    continue;
+                }
+                final List<AircraftPriority> taken =
+                        oldest.subList(0, Math.min(remaining, oldest.size()));
+                for (AircraftPriority entry : taken) {
+                    queueRows.put(entry.getAircraftId(), delete(priorityAircraftsDao.getTableName(),
+                            priorityAircraftsDao.aircraftPriorityKey(entry)));
+                }
+                entries.addAll(taken);
+                // the airport entry carries the arrival time of the latest aircraft in the bucket
+                if (oldest.size() <= remaining
+                        && taken.get(taken.size() - 1).getArrivalTime().equals(bucket.getDate())) {
+                    drainedBuckets.put(bucket, taken);
+                }
+            }
+        } else {
+            try {
+                while (entries.size() < count) {
+                    entries.add(priorityQueueStore.dequeue(airportCode));
+                }
+            } catch (AirportWithEmptyAircraftsException e) {
+                // fewer than count aircraft were queued
+            }
+        }
+        if (entries.isEmpty()) {
+            throw new AirportWithEmptyAircraftsException(
+                    "No Aircrafts exist for AirportCode:" + airportCode);
+        }
+
+        // an aircraft is only dequeued once it is claimed, a failed claim leaves it and the ones
+        // after it queued
+        final List<Aircraft> dequeued = new ArrayList<>(entries.size());
+        int settled = 0;
+        RuntimeException failure = null;
+        for (; settled < entries.size(); settled++) {
+            try {
+                claim(entries.get(settled)).ifPresent(dequeued::add);
+            } catch (RuntimeException e) {
+                failure = e;
+                break;
+            }
+        }
+        if (failure != null) {
+            logger.warn("dequeue.claimFailed", failure, "airportCode", airportCode,
+                    "dequeued", dequeued.size(), "left", entries.size() - settled);
+            if (priorityQueueStore != priorityAircraftsDao) {
+                requeue(airportCode, entries.subList(settled, entries.size()));
+            }
+        }
+
+        // the row of a settled entry is stale, its aircraft is claimed now, or moved or claimed
+        // by someone else meanwhile
+        final Set<String> settledIds = new HashSet<>();
+        final List<TableWrite> writes = new ArrayList<>();
+        final Map<TableWrite, String> queueRowOwners = new HashMap<>();
+        for (AircraftPriority entry : entries.subList(0, settled)) {
+            settledIds.add(entry.getAircraftId());
+            final TableWrite write = queueRows.get(entry.getAircraftId());
+            if (write != null) {
+                writes.add(write);
+                queueRowOwners.put(write, entry.getAircraftId());
+            }
+        }
+        List<TableWrite> rowsLeft;
+        try {
+            rowsLeft = batchWriter.write(writes);
+        } catch (RuntimeException e) {
+            rowsLeft = writes;
+            logger.warn("dequeue.queueRowsLeft", e, "airportCode", airportCode, "rows",
+                    writes.size());
+        }
+        // a later dequeue loses the claim of a row left behind and deletes it then
+        rowsLeft.forEach(row -> settledIds.remove(queueRowOwners.get(row)));
+        drainedBuckets.forEach((bucket, taken) -> {
+            if (taken.stream().allMatch(entry -> settledIds.contains(entry.getAircraftId()))) {
+                try {
+                    deleteBucket(bucket);
+                } catch (RuntimeException e) {
+                    // the aircraft are claimed, the next batch dequeue removes the empty bucket
+                    logger.warn("dequeue.bucketLeft", e, "airportCode", airportCode, "priorityId",
+                            bucket.getPriorityId());
+                }
+            }
+        });
+        priorityAircraftsDao.invalidateAirportPriorities(airportCode);
+        if (dequeued.isEmpty() && failure != null) {
+            throw failure;
+        }
+        return dequeued;
+    }
+
+    /**
+     * Puts entries the dequeue took from the store but could not claim back.
+     */
+    private void requeue(final String airportCode, final List<AircraftPriority> entries) {
+        for (AircraftPriority entry : entries) {
+            priorityQueueStore.enqueue(Aircraft.builder()
+                    .aircraftId(entry.getAircraftId())
+                    .airportCode(airportCode)
+                    .priorityId(entry.getPriorityId())
+                    .arrivalTime(entry.getArrivalTime())
+                    .build());
+        }
+    }
+
+    /**
+     * Marks the aircraft of a queue entry as dequeued, unless it no longer holds the priority of
+     * the entry.
+     *
+     * @return the aircraft as it was before it was claimed, empty if it was moved or claimed
+     *     meanwhile
+     */
+    private Optional<Aircraft> claim(final AircraftPriority entry) {
+        final Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":priorityId", AttributeValue.builder().s(entry.getPriorityId()).build());
+        values.put(":dequeued",
+                AttributeValue.builder().s(AircraftDao.DEQUEUED_PRIORITY_ID).build());
+        try {
+            final UpdateItemRequest claim = UpdateItemRequest.builder()
+                    .tableName(aircraftDao.getTableName())
+                    .key(aircraftDao.aircraftKey(entry.getAircraftId()))
+                    .updateExpression("SET priorityId = :dequeued REMOVE " + AircraftDao.QUEUE_KEY)
+                    .conditionExpression("priorityId = :priorityId")
+                    .expressionAttributeValues(values)
+                    .returnValues(ReturnValue.ALL_OLD)
+                    .build();
+            final Aircraft aircraft = aircraftDao.convert(dynamoDb.updateItem(claim).attributes());
+            aircraftDao.invalidateCachedAircraft(entry.getAircraftId());
+            return Optional.ofNullable(aircraft);
+        } catch (ConditionalCheckFailedException e) {
+            logger.debug("dequeue.lostRace", "aircraftId", entry.getAircraftId(), "priorityId",
+                    entry.getPriorityId());
+            return Optional.empty();
+        } catch (ResourceNotFoundException e) {
+            throw new TableDoesNotExistException(
+                    "Aircraft table " + aircraftDao.getTableName() + " does not exist");
+        }
+    }
+
+    private void deleteBucket(final AirportPriority bucket) {
+        try {
+            dynamoDb.deleteItem(DeleteItemRequest.builder()
+                    .tableName(priorityAircraftsDao.getTableName())
+                    .key(priorityAircraftsDao.airportPriorityKey(bucket))
+                    .conditionExpression("#date = :date")
+                    .expressionAttributeNames(Collections.singletonMap("#date", "date"))
+                    .expressionAttributeValues(Collections.singletonMap(":date",
+                            AttributeValue.builder().s(bucket.getDate()).build()))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // an enqueue put a later aircraft in the bucket, it stays
+        } catch (ResourceNotFoundException e) {
+            throw new TableDoesNotExistException(
+                    "PrioritiesAircraft table " + priorityAircraftsDao.getTableName()
+                    + " does not exist");
+        }
+    }
+
+    private static TableWrite delete(final String tableName,
+                                     final Map<String, AttributeValue> key) {
+        return new TableWrite(tableName, WriteRequest.builder()
+                .deleteRequest(DeleteRequest.builder().key(key).build())
+                .build());
+    }
+}
@@ -0,0 +1,208 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.logging.StructuredLogger;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftPriority;
+import com.varma.airtraffic.control.model.request.CreateAircraftPriorityRequest;
+import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
+import com.varma.airtraffic.control.model.request.UpdateAirportPriorityRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Enqueues many aircraft at once by writing the Aircraft rows, the PriorityAircrafts rows and
+ * the airport bucket rows with BatchWriteItem instead of three putItem calls per aircraft.
+ * When the queue is not kept in DynamoDB only the Aircraft rows are batched.
+ */
+public class BatchEnqueueDao {
+    private static final StructuredLogger logger =
+            StructuredLogger.getLogger(BatchEnqueueDao.class);
+
+    private final AircraftDao aircraftDao;
+    private final PriorityAircraftsDao priorityAircraftsDao;
+    private final PriorityQueueStore priorityQueueStore;
+    private final BatchWriter batchWriter;
+
+    /**
+     * Creates a DAO that enqueues into the given queue store.
+     *
+     * @param dynamoDb             client the batch writes are sent with
+     * @param aircraftDao          DAO of the aircraft table
+     * @param priorityAircraftsDao DAO of the priority aircraft table
+     * @param priorityQueueStore   store the aircraft are queued in
+     */
+    public BatchEnqueueDao(final DynamoDbClient dynamoDb, final AircraftDao aircraftDao,
+                           final PriorityAircraftsDao priorityAircraftsDao,
+                           final PriorityQueueStore priorityQueueStore) {
+        this.aircraftDao = aircraftDao;
+        this.priorityAircraftsDao = priorityAircraftsDao;
+        this.priorityQueueStore = priorityQueueStore;
+        this.batchWriter = new BatchWriter(dynamoDb);
+    }
+
+    /**
+     * Creates and enqueues the given, already validated, aircraft. The Aircraft and
+     * PriorityAircraft rows are written first; an aircraft with a row left unprocessed has its
+     * other row deleted again. The airport buckets are then written for the aircraft that made it,
+     * so no bucket points at an arrival that is not queued.
+     *
+     * @param requests aircraft to create
+     * @return one entry per request, in request order, empty when the aircraft could not be written
+     */
+    public List<Optional<Aircraft>> enqueueAircrafts(final List<CreateAircraftRequest> requests) {
+        final List<Aircraft> aircrafts = new ArrayList<>(requests.size());
+        // the rows of every aircraft, with the delete that takes each back
+        final List<Map<TableWrite, TableWrite>> rows = new ArrayList<>(requests.size());
+        final List<TableWrite> writes = new ArrayList<>();
+
+        for (CreateAircraftRequest request : requests) {
+            final Map<String, AttributeValue> item = aircraftDao.createAircraftItem(request);
+            final Aircraft aircraft = aircraftDao.convert(item);
+            aircrafts.add(aircraft);
+            final Map<TableWrite, TableWrite> aircraftRows = new LinkedHashMap<>();
+            aircraftRows.put(put(aircraftDao.getTableName(), item),
+                    delete(aircraftDao.getTableName(),
+                            aircraftDao.aircraftKey(aircraft.getAircraftId())));
+            if (priorityQueueStore == priorityAircraftsDao) {
+                aircraftRows.put(put(priorityAircraftsDao.getTableName(),
+                        priorityAircraftsDao.createAircraftPriorityItem(
+                                CreateAircraftPriorityRequest.builder()
+                                        .aircraftId(aircraft.getAircraftId())
+                                        .priorityId(aircraft.getPriorityId())
+                                        .arrivalTime(aircraft.getArrivalTime())
+                                        .build())),
+                        delete(priorityAircraftsDao.getTableName(),
+                                priorityAircraftsDao.aircraftPriorityKey(entry(aircraft))));
+            }
+            rows.add(aircraftRows);
+            writes.addAll(aircraftRows.keySet());
+        }
+
+        final Set<TableWrite> unprocessed = new HashSet<>(batchWriter.write(writes));
+        final Set<Integer> failed = new HashSet<>();
+        for (int index = 0; index < aircrafts.size(); index++) {
+            if (!Collections.disjoint(rows.get(index).keySet(), unprocessed)) {
+                failed.add(index);
+            }
+        }
+        if (priorityQueueStore == priorityAircraftsDao) {
+            failed.addAll(writeBuckets(aircrafts, failed));
+        }
+        rollBack(rows, failed, unprocessed);
+
+        final List<Optional<Aircraft>> results = new ArrayList<>(aircrafts.size());
+        for (int index = 0; index < aircrafts.size(); index++) {
+            if (failed.contains(index)) {
+                results.add(Optional.empty());
+                continue;
+            }
+            if (priorityQueueStore != priorityAircraftsDao) {
+                priorityQueueStore.enqueue(aircrafts.get(index));
+            }
+            results.add(Optional.of(aircrafts.get(index)));
+        }
+        return results;
+    }
+
+    /**
+     * Points every bucket at the latest of its written aircraft. A bucket row left unprocessed by
+     * the batch is put once more on its own before its aircraft are given up.
+     *
+     * @return the aircraft whose bucket could not be written
+     */
+    private Set<Integer> writeBuckets(final List<Aircraft> aircrafts, final Set<Integer> failed) {
+        final Map<String, Aircraft> latestInBucket = new HashMap<>();
+        final Map<String, List<Integer>> bucketMembers = new HashMap<>();
+        for (int index = 0; index < aircrafts.size(); index++) {
+            if (failed.contains(index)) {
+                continue;
+            }
+            final Aircraft aircraft = aircrafts.get(index);
+            bucketMembers.computeIfAbsent(aircraft.getPriorityId(), id -> new ArrayList<>())
+                    .add(index);
+            // a batch may not write a key twice, so only the latest aircraft of a bucket updates it
+            latestInBucket.merge(aircraft.getPriorityId(), aircraft, (current, candidate) ->
+                    candidate.getArrivalTime().compareTo(current.getArrivalTime()) >= 0
+                            ? candidate : current);
+        }
+        final Map<TableWrite, UpdateAirportPriorityRequest> buckets = new LinkedHashMap<>();
+        latestInBucket.forEach((priorityId, latest) -> {
+            final UpdateAirportPriorityRequest bucket = UpdateAirportPriorityRequest.builder()
+                    .airportCode(latest.getAirportCode())
+                    .priorityId(priorityId)
+                    .date(latest.getArrivalTime())
+                    .build();
+            buckets.put(put(priorityAircraftsDao.getTableName(),
+                    priorityAircraftsDao.updateAirportPriorityItem(bucket)), bucket);
+        });
+
+        final Set<Integer> bucketFailed = new HashSet<>();
+        for (TableWrite unprocessed : batchWriter.write(new ArrayList<>(buckets.keySet()))) {
+            final UpdateAirportPriorityRequest bucket = buckets.get(unprocessed);
+            try {
+                priorityAircraftsDao.updateAirportPriorityQueue(bucket);
+            } catch (RuntimeException e) {
+                logger.error("batchEnqueue.bucketFailed", e, "airportCode", bucket.getAirportCode(),
+                        "priorityId", bucket.getPriorityId());
+                bucketFailed.addAll(bucketMembers.get(bucket.getPriorityId()));
+            }
+        }
+        latestInBucket.values().forEach(latest ->
+                priorityAircraftsDao.invalidateAirportPriorities(latest.getAirportCode()));
+        return bucketFailed;
+    }
+
+    /**
+     * Deletes the rows that were written for the failed aircraft, so a retry by the client does not
+     * leave a second copy of them behind.
+     */
+    private void rollBack(final List<Map<TableWrite, TableWrite>> rows, final Set<Integer> failed,
+                          final Set<TableWrite> unprocessed) {
+        final List<TableWrite> deletes = new ArrayList<>();
+        for (int index : failed) {
+            rows.get(index).forEach((write, delete) -> {
+                if (!unprocessed.contains(write)) {
+                    deletes.add(delete);
+                }
+            });
+        }
+        for (TableWrite leftover : batchWriter.write(deletes)) {
+            logger.error("batchEnqueue.rollbackFailed", null, "table", leftover.getTableName(),
+                    "key", leftover.getWriteRequest().deleteRequest().key());
+        }
+    }
+
+    private static AircraftPriority entry(final Aircraft aircraft) {
+        return AircraftPriority.builder()
+                .aircraftId(aircraft.getAircraftId())
+                .priorityId(aircraft.getPriorityId())
+                .arrivalTime(aircraft.getArrivalTime())
+                .build();
+    }
+
+    private static TableWrite put(final String tableName, final Map<String, AttributeValue> item) {
+        return new TableWrite(tableName, WriteRequest.builder()
+                .putRequest(PutRequest.builder().item(item).build())
+                .build());
+    }
+
+    private static TableWrite delete(final String tableName,
+                                     final Map<String, AttributeValue> key) {
+        return new TableWrite(tableName, WriteRequest.builder()
+                .deleteRequest(DeleteRequest.builder().key(key).build())
+                .build());
+    }
+}
@@ -0,0 +1,83 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes any number of puts and deletes, across tables, in BatchWriteItem chunks of 25 and
+ * retries only the unprocessed items with jittered exponential backoff.
+ */
+class BatchWriter {
+    static final int MAX_ITEMS_PER_BATCH = 25;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 25;
+
+    private final DynamoDbClient dynamoDb;
+
+    BatchWriter(final DynamoDbClient dynamoDb) {
+        this.dynamoDb = dynamoDb;
+    }
+
+    /**
+     * Writes all the given items.
+     *
+     * @param writes puts and deletes to perform, a key may only appear once per call
+     * @return the writes that were still unprocessed after retrying
+     */
+    List<TableWrite> write(final List<TableWrite> writes) {
+        final List<TableWrite> unprocessed = new ArrayList<>();
+        for (int from = 0; from < writes.size(); from += MAX_ITEMS_PER_BATCH) {
+            unprocessed.addAll(writeChunk(writes.subList(from,
+                    Math.min(from + MAX_ITEMS_PER_BATCH, writes.size()))));
+        }
+        return unprocessed;
+    }
+
+    private List<TableWrite> writeChunk(final List<TableWrite> chunk) {
+        Map<String, List<WriteRequest>> pending = groupByTable(chunk);
+        for (int attempt = 1; ; attempt++) {
+            final BatchWriteItemResponse response;
+            try {
+                response = dynamoDb.batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(pending)
+                        .build());
+            } catch (ResourceNotFoundException e) {
+                throw new TableDoesNotExistException(
+                        "Table in " + pending.keySet() + " does not exist");
+            }
+            pending = response.unprocessedItems();
+            if (pending == null || pending.isEmpty()) {
+                return Collections.emptyList();
+            }
+            if (attempt == MAX_ATTEMPTS || !Backoff.pause(attempt, BASE_BACKOFF_MILLIS)) {
+                return ungroup(pending);
+            }
+        }
+    }
+
+    private static Map<String, List<WriteRequest>> groupByTable(final List<TableWrite> writes) {
+        final Map<String, List<WriteRequest>> grouped = new HashMap<>();
+        for (TableWrite write : writes) {
+            grouped.computeIfAbsent(write.getTableName(), tableName -> new ArrayList<>())
+                    .add(write.getWriteRequest());
+        }
+        return grouped;
+    }
+
+    private static List<TableWrite> ungroup(final Map<String, List<WriteRequest>> grouped) {
+        final List<TableWrite> writes = new ArrayList<>();
+        grouped.forEach((tableName, requests) ->
+                requests.forEach(request -> writes.add(new TableWrite(tableName, request))));
+        return writes;
+    }
+}
@@ -0,0 +1,88 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.AirportWithEmptyAircraftsException;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftPriority;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heap backed queue per airport held in the memory of the process.
+ * Enqueue and dequeue are O(log n) and never leave the process, so the queue only lives
+ * as long as the process does and is only seen by it. Meant for tests and single process runs, the
+ * Lambda wiring rejects it. Use {@link PriorityAircraftsDao} when the queue has to be durable.
+ */
+public class InMemoryPriorityQueueStore implements PriorityQueueStore {
+    private static final Comparator<QueueEntry> DEQUEUE_ORDER = Comparator
+            .comparingInt((QueueEntry entry) -> entry.prioritySum).reversed()
+            .thenComparing(entry -> entry.arrivalTime)
+            .thenComparingLong(entry -> entry.sequence);
+
+    private final ConcurrentMap<String, PriorityQueue<QueueEntry>> airportQueues =
+            new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public void enqueue(final Aircraft aircraft) {
+        final QueueEntry entry = new QueueEntry(PriorityKey.prioritySum(aircraft.getPriorityId()),
+                aircraft.getArrivalTime(), sequence.incrementAndGet(),
+                AircraftPriority.builder()
+                        .aircraftId(aircraft.getAircraftId())
+                        .priorityId(aircraft.getPriorityId())
+                        .arrivalTime(aircraft.getArrivalTime())
+                        .build());
+        final PriorityQueue<QueueEntry> queue = airportQueues.computeIfAbsent(
+                aircraft.getAirportCode(), airportCode -> new PriorityQueue<>(DEQUEUE_ORDER));
+        synchronized (queue) {
+            queue.add(entry);
+        }
+    }
+
+    @Override
+    public AircraftPriority dequeue(final String airportCode) {
+        final PriorityQueue<QueueEntry> queue = airportQueues.get(airportCode);
+        QueueEntry head = null;
+        if (queue != null) {
+            synchronized (queue) {
+                head = queue.poll();
+            }
+        }
+        if (head == null) {
+            throw new AirportWithEmptyAircraftsException(
+                    "No Aircrafts exist for AirportCode:" + airportCode);
+        }
+        return head.aircraftPriority;
+    }
+
+    /**
+     * Number of aircraft queued for an airport.
+     */
+    public int size(final String airportCode) {
+        final PriorityQueue<QueueEntry> queue = airportQueues.get(airportCode);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    private static final class QueueEntry {
+        private final int prioritySum;
+        private final String arrivalTime;
+        private final long sequence;
+        private final AircraftPriority aircraftPriority;
+
+        private QueueEntry(final int prioritySum, final String arrivalTime, final long sequence,
+                           final AircraftPriority aircraftPriority) {
+            this.prioritySum = prioritySum;
+            this.arrivalTime = arrivalTime;
+            this.sequence = sequence;
+            this.aircraftPriority = aircraftPriority;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.varma.airtraffic.control.dao;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque, URL safe encoding of the string attributes of LastEvaluatedKeys handed out as page
+ * cursors.
+ */
+final class PageCursor {
+    private static final char ENTRY_SEPARATOR = '\n';
+    private static final char VALUE_SEPARATOR = '=';
+
+    private PageCursor() {
+    }
+
+    static String encode(final Map<String, String> values) {
+        final StringBuilder cursor = new StringBuilder();
+        values.forEach((name, value) -> {
+            if (cursor.length() > 0) {
+                cursor.append(ENTRY_SEPARATOR);
+            }
+            cursor.append(name).append(VALUE_SEPARATOR).append(value);
+        });
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads back the values of a cursor.
+     *
+     * @throws IllegalArgumentException if the cursor was not created by {@link #encode(Map)}
+     */
+    static Map<String, String> decode(final String cursor) {
+        final String decoded = new String(Base64.getUrlDecoder().decode(cursor),
+                StandardCharsets.UTF_8);
+        final Map<String, String> values = new LinkedHashMap<>();
+        for (String entry : decoded.split(String.valueOf(ENTRY_SEPARATOR))) {
+            final int separator = entry.indexOf(VALUE_SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor " + cursor);
+            }
+            values.put(entry.substring(0, separator), entry.substring(separator + 1));
+        }
+        return values;
+    }
+
+    static Map<String, String> strings(final Map<String, AttributeValue> key) {
+        final Map<String, String> values = new LinkedHashMap<>();
+        key.forEach((name, value) -> values.put(name, value.s()));
+        return values;
+    }
+
+    static Map<String, AttributeValue> key(final Map<String, String> values) {
+        final Map<String, AttributeValue> key = new LinkedHashMap<>();
+        values.forEach((name, value) -> key.put(name, AttributeValue.builder().s(value).build()));
+        return key;
+    }
+}
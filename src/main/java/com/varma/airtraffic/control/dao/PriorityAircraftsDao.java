@@ -1,28 +1,49 @@
 package com.varma.airtraffic.control.dao;
 
+import com.varma.airtraffic.control.cache.ExpiringLruCache;
 import com.varma.airtraffic.control.exception.AirportWithEmptyAircraftsException;
+import com.varma.airtraffic.control.exception.CouldNotCreateAircraftException;
 import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import com.varma.airtraffic.control.exception.ThrottledException;
 import com.varma.airtraffic.control.exception.UnableToDeleteException;
+import com.varma.airtraffic.control.logging.StructuredLogger;
+import com.varma.airtraffic.control.metrics.Metrics;
+import com.varma.airtraffic.control.model.Aircraft;
 import com.varma.airtraffic.control.model.AirportPriority;
 import com.varma.airtraffic.control.model.AircraftPriority;
 import com.varma.airtraffic.control.model.request.CreateAircraftPriorityRequest;
 import com.varma.airtraffic.control.model.request.UpdateAirportPriorityRequest;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
 import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
 import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
-public class PriorityAircraftsDao {
+public class PriorityAircraftsDao implements PriorityQueueStore {
     private static final String PRIORITY_ID = "hashKey";
     private static final String AIRCRAFT_ID = "rangeKey";
 
@@ -30,18 +51,59 @@ public class PriorityAircraftsDao {
     private static final String AIRPORT_PRIORITY_QUEUE_ENTRY = "rangeKey";
 
     private static final String PRIORITY_DATE_INDEX = "pDateIndex";
+    private static final int MAX_READ_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 25;
 
-    private static final Log logger = LogFactory.getLog(PriorityAircraftsDao.class);
+    private static final StructuredLogger logger =
+            StructuredLogger.getLogger(PriorityAircraftsDao.class);
 
     private final String tableName;
     private final DynamoDbClient dynamoDb;
+    // created on first use, null when not configured
+    private final Supplier<DynamoDbAsyncClient> asyncDynamoDb;
+    // active priority buckets per airport, highest first. Null when caching is disabled
+    private final ExpiringLruCache<String, NavigableMap<String, AirportPriority>>
+            airportPriorityCache;
+    private final Metrics metrics;
 
     public PriorityAircraftsDao(final DynamoDbClient dynamoDb, final String tableName) {
+        this(dynamoDb, tableName, null);
+    }
+
+    public PriorityAircraftsDao(
+            final DynamoDbClient dynamoDb, final String tableName,
+            final ExpiringLruCache<String, NavigableMap<String, AirportPriority>> cache) {
+        this(dynamoDb, null, tableName, cache);
+    }
+
+    public PriorityAircraftsDao(
+            final DynamoDbClient dynamoDb, final Supplier<DynamoDbAsyncClient> asyncDynamoDb,
+            final String tableName,
+            final ExpiringLruCache<String, NavigableMap<String, AirportPriority>> cache) {
+        this(dynamoDb, asyncDynamoDb, tableName, cache, Metrics.NONE);
+    }
+
+    /**
+     * Creates the DAO of the PriorityAircrafts table.
+     *
+     * @param asyncDynamoDb async client created on first use, null to run the async variants on the
+     *     blocking client
+     * @param cache active buckets per airport, null to read them from the table every time
+     */
+    public PriorityAircraftsDao(
+            final DynamoDbClient dynamoDb, final Supplier<DynamoDbAsyncClient> asyncDynamoDb,
+            final String tableName,
+            final ExpiringLruCache<String, NavigableMap<String, AirportPriority>> cache,
+            final Metrics metrics) {
         this.dynamoDb = dynamoDb;
+        this.metrics = metrics;
+        this.asyncDynamoDb = asyncDynamoDb;
         this.tableName = tableName;
+        this.airportPriorityCache = cache;
     }
 
-    private Map<String, AttributeValue> createAircraftPriorityItem(final CreateAircraftPriorityRequest request) {
+    Map<String, AttributeValue> createAircraftPriorityItem(
+            final CreateAircraftPriorityRequest request) {
         Map<String, AttributeValue> result = new HashMap<>();
         result.put(PRIORITY_ID, AttributeValue.builder()
                 .s(request.getPriorityId())
@@ -55,7 +117,8 @@ public class PriorityAircraftsDao {
         return result;
     }
 
-    private Map<String, AttributeValue> updateAirportPriorityItem(final UpdateAirportPriorityRequest request) {
+    Map<String, AttributeValue> updateAirportPriorityItem(
+            final UpdateAirportPriorityRequest request) {
         Map<String, AttributeValue> result = new HashMap<>();
         result.put(AIRPORT_CODE, AttributeValue.builder()
                 .s(request.getAirportCode())
@@ -71,15 +134,18 @@ public class PriorityAircraftsDao {
 
     public AircraftPriority createAircraftPriority(CreateAircraftPriorityRequest request) {
         final Map<String, AttributeValue> item = createAircraftPriorityItem(request);
+        final long start = System.nanoTime();
         try {
             dynamoDb.putItem(PutItemRequest.builder()
                     .tableName(tableName)
                     .item(item)
                     .build()).itemCollectionMetrics();
         } catch (ResourceNotFoundException e) {
-            logger.error("PrioritiesAircraft table " + tableName + " does not exist", e);
+            logger.error("priorityAircraft.tableMissing", e, "table", tableName);
             throw new TableDoesNotExistException(
                     "PrioritiesAircraft table " + tableName + " does not exist");
+        } finally {
+            metrics.recordSince("PriorityAircraftsDao.createAircraftPriority", start);
         }
         return AircraftPriority.builder()
                 .aircraftId(request.getAircraftId())
@@ -88,8 +154,14 @@ public class PriorityAircraftsDao {
                 .build();
     }
 
+    /**
+     * Writes the airport bucket of a priority with the arrival time of its latest aircraft.
+     *
+     * @return the bucket as written, which is also cached for the airport
+     */
     public AirportPriority updateAirportPriorityQueue(UpdateAirportPriorityRequest request) {
         final Map<String, AttributeValue> item = updateAirportPriorityItem(request);
+        final long start = System.nanoTime();
         try {
             dynamoDb.putItem(PutItemRequest.builder()
                     .tableName(tableName)
@@ -98,37 +170,211 @@ public class PriorityAircraftsDao {
         } catch (ResourceNotFoundException e) {
             throw new TableDoesNotExistException(
                     "PrioritiesAircraft table " + tableName + " does not exist");
+        } finally {
+            metrics.recordSince("PriorityAircraftsDao.updateAirportPriorityQueue", start);
         }
-        return AirportPriority.builder()
+        final AirportPriority airportPriority = AirportPriority.builder()
                 .airportCode(request.getAirportCode())
                 .priorityId(request.getPriorityId())
                 .date(request.getDate())
                 .build();
+        cacheAirportPriority(airportPriority);
+        return airportPriority;
+    }
+
+    /**
+     * Writes the queue entry and the airport bucket of an aircraft concurrently. Without an async
+     * client the entry is written on a worker thread while the calling thread writes the bucket. If
+     * either write fails the other one is rolled back, so the aircraft is either fully queued or
+     * not queued at all.
+     *
+     * @throws CouldNotCreateAircraftException if the aircraft could not be queued
+     */
+    @Override
+    public void enqueue(final Aircraft aircraft) {
+        final CreateAircraftPriorityRequest entry = CreateAircraftPriorityRequest.builder()
+                .aircraftId(aircraft.getAircraftId())
+                .priorityId(aircraft.getPriorityId())
+                .arrivalTime(aircraft.getArrivalTime())
+                .build();
+        final UpdateAirportPriorityRequest bucket = UpdateAirportPriorityRequest.builder()
+                .priorityId(aircraft.getPriorityId())
+                .airportCode(aircraft.getAirportCode())
+                .date(aircraft.getArrivalTime())
+                .build();
+        final long start = System.nanoTime();
+        final CompletableFuture<AircraftPriority> entryWritten = createAircraftPriorityAsync(entry);
+        final CompletableFuture<PutItemResponse> bucketWritten =
+                putItemAsync(PutItemRequest.builder()
+                        .tableName(tableName)
+                        .item(updateAirportPriorityItem(bucket))
+                        .returnValues(ReturnValue.ALL_OLD)
+                        .build());
+        try {
+            AsyncCalls.join(CompletableFuture.allOf(entryWritten, bucketWritten));
+        } catch (RuntimeException e) {
+            logger.error("enqueue.failed", e, "aircraftId", aircraft.getAircraftId(),
+                    "rollingBack", true);
+            if (!entryWritten.isCompletedExceptionally()) {
+                rollbackAircraftPriority(entryWritten.join());
+            }
+            if (!bucketWritten.isCompletedExceptionally()) {
+                rollbackAirportPriority(bucket, bucketWritten.join().attributes());
+            }
+            throw new CouldNotCreateAircraftException(
+                    "Unable to enqueue aircraft " + aircraft.getAircraftId());
+        } finally {
+            metrics.recordSince("PriorityAircraftsDao.enqueue", start);
+        }
+        cacheAirportPriority(AirportPriority.builder()
+                .airportCode(bucket.getAirportCode())
+                .priorityId(bucket.getPriorityId())
+                .date(bucket.getDate())
+                .build());
     }
 
+    private void rollbackAircraftPriority(final AircraftPriority entry) {
+        try {
+            deletePriorityAircraft(entry);
+        } catch (UnableToDeleteException e) {
+            logger.error("enqueue.rollbackFailed", e, "aircraftId", entry.getAircraftId(),
+                    "priorityId", entry.getPriorityId());
+        }
+    }
+
+    /**
+     * Puts the airport bucket back the way it was before the failed enqueue, unless another enqueue
+     * has moved its date on since.
+     */
+    private void rollbackAirportPriority(final UpdateAirportPriorityRequest bucket,
+                                         final Map<String, AttributeValue> previous) {
+        final Map<String, String> names = Collections.singletonMap("#date", "date");
+        final Map<String, AttributeValue> values = Collections.singletonMap(":date",
+                AttributeValue.builder().s(bucket.getDate()).build());
+        try {
+            if (previous == null || previous.isEmpty()) {
+                dynamoDb.deleteItem(DeleteItemRequest.builder()
+                        .tableName(tableName)
+                        .key(airportPriorityKey(AirportPriority.builder()
+                                .airportCode(bucket.getAirportCode())
+                                .priorityId(bucket.getPriorityId())
+                                .build()))
+                        .conditionExpression("#date = :date")
+                        .expressionAttributeNames(names)
+                        .expressionAttributeValues(values)
+                        .build());
+            } else if (!bucket.getDate().equals(previous.get("date").s())) {
+                dynamoDb.putItem(PutItemRequest.builder()
+                        .tableName(tableName)
+                        .item(previous)
+                        .conditionExpression("#date = :date")
+                        .expressionAttributeNames(names)
+                        .expressionAttributeValues(values)
+                        .build());
+            }
+        } catch (ConditionalCheckFailedException e) {
+            // a later enqueue owns the bucket now
+        } catch (RuntimeException e) {
+            logger.error("enqueue.rollbackFailed", e, "airportCode", bucket.getAirportCode(),
+                    "priorityId", bucket.getPriorityId());
+        }
+        invalidateAirportPriorities(bucket.getAirportCode());
+    }
+
+    private CompletableFuture<PutItemResponse> putItemAsync(final PutItemRequest request) {
+        if (asyncDynamoDb == null) {
+            return AsyncCalls.translate(AsyncCalls.supply(() -> dynamoDb.putItem(request)),
+                    this::translate);
+        }
+        return AsyncCalls.translate(asyncDynamoDb.get().putItem(request), this::translate);
+    }
+
+    @Override
+    public AircraftPriority dequeue(final String airportCode) {
+        final long start = System.nanoTime();
+        try {
+            AirportPriority apEntry = getHighestPriorityIdForAirport(airportCode);
+            logger.debug("dequeue.bucketSelected", "airportCode", airportCode,
+                    "priorityId", apEntry.getPriorityId());
+            AircraftPriority acEntry;
+            try {
+                acEntry = getOldestAircraftIdWithPriorityId(apEntry.getPriorityId());
+            } catch (AirportWithEmptyAircraftsException e) {
+                if (airportPriorityCache == null) {
+                    throw e;
+                }
+                // the cached bucket may have been drained by another container, reload once
+                invalidateAirportPriorities(airportCode);
+                apEntry = getHighestPriorityIdForAirport(airportCode);
+                acEntry = getOldestAircraftIdWithPriorityId(apEntry.getPriorityId());
+            }
+            logger.debug("dequeue.aircraftSelected", "airportCode", airportCode,
+                    "aircraftId", acEntry.getAircraftId());
+
+            // the two rows are independent, so both deletes are in flight at the same time.
+            // Without an async client a worker thread deletes the queue row, this one the bucket
+            final CompletableFuture<AircraftPriority> aircraftDeleted =
+                    deletePriorityAircraftAsync(acEntry);
+            // the airport entry carries the arrival time of the latest aircraft in the bucket
+            if (acEntry.getArrivalTime().equals(apEntry.getDate())) {
+                final CompletableFuture<AirportPriority> airportDeleted =
+                        deleteAirportPriorityEntryAsync(apEntry);
+                AsyncCalls.join(CompletableFuture.allOf(aircraftDeleted, airportDeleted));
+            }
+            AsyncCalls.join(aircraftDeleted);
+            return acEntry;
+        } finally {
+            metrics.recordSince("PriorityAircraftsDao.dequeue", start);
+        }
+    }
+
+    /**
+     * Returns the bucket of the highest priority an airport has aircraft queued with.
+     *
+     * @throws AirportWithEmptyAircraftsException if the airport has no aircraft queued
+     */
     public AirportPriority getHighestPriorityIdForAirport(final String airportCode) {
-        return Optional.ofNullable(queryForHighestPriorityForAirport(airportCode))
+        if (airportPriorityCache != null) {
+            NavigableMap<String, AirportPriority> buckets = airportPriorityCache.get(airportCode);
+            if (buckets == null || buckets.isEmpty()) {
+                buckets = sortedBuckets(getAirportPriorities(airportCode));
+                if (!buckets.isEmpty()) {
+                    airportPriorityCache.put(airportCode, buckets);
+                }
+            }
+            if (buckets.isEmpty()) {
+                throw new AirportWithEmptyAircraftsException(
+                        "No Aircrafts exist for AirportCode:" + airportCode);
+            }
+            return buckets.firstEntry().getValue();
+        }
+        return queryForHighestPriorityForAirport(airportCode)
                         .map(this::convertToAirportPriority)
                         .orElseThrow(() -> new AirportWithEmptyAircraftsException("No Aircrafts exist for AirportCode:"
                                 + airportCode));
     }
 
+    /**
+     * Returns the entry of a bucket that arrived first.
+     *
+     * @throws AirportWithEmptyAircraftsException if the bucket has no aircraft queued
+     */
     public AircraftPriority getOldestAircraftIdWithPriorityId(final String priorityId) {
-        return Optional.ofNullable(queryForOldestAircraftWithPriority(priorityId))
+        return queryForOldestAircraftWithPriority(priorityId)
                 .map(this::convertToAircraftPriority)
-                .orElseThrow(() ->
-                        new AirportWithEmptyAircraftsException("No Aircraft exist with PriorityCode:"
-                                + priorityId));
+                .orElseThrow(() -> new AirportWithEmptyAircraftsException(
+                        "No Aircraft exist with PriorityCode:" + priorityId));
     }
 
+    /**
+     * Deletes the queue entry of an aircraft.
+     *
+     * @return the deleted entry, null if there was none
+     * @throws UnableToDeleteException if the delete failed
+     */
     public AircraftPriority deletePriorityAircraft(final AircraftPriority request) {
-        Map<String, AttributeValue> keyExpression = new HashMap<>();
-        keyExpression.put(PRIORITY_ID, AttributeValue.builder()
-                .s(request.getPriorityId())
-                .build());
-        keyExpression.put(AIRCRAFT_ID, AttributeValue.builder()
-                .s(request.getAircraftId())
-                .build());
+        final Map<String, AttributeValue> keyExpression = aircraftPriorityKey(request);
+        final long start = System.nanoTime();
         try {
             DeleteItemResponse response = dynamoDb.deleteItem(DeleteItemRequest.builder()
                     .tableName(tableName)
@@ -137,82 +383,446 @@ public class PriorityAircraftsDao {
                     .build());
             return convertToAircraftPriority(response.attributes());
         } catch (Exception e) {
-            logger.error("Failed to delete PriorityAircraft with PriorityId(hashKey): "
-                    + ", aircraftId(rangeKey): " + request.getPriorityId() + request.getAircraftId(), e);
-            throw new UnableToDeleteException("Failed to delete Aircraft: + " + request.getAircraftId()
-                    + " with priority" + request.getPriorityId());
+            throw aircraftPriorityDeleteFailed(request, e);
+        } finally {
+            metrics.recordSince("PriorityAircraftsDao.deletePriorityAircraft", start);
         }
     }
 
+    /**
+     * Deletes an airport bucket, as long as it still carries the date it was read with. A bucket
+     * whose date an enqueue moved on meanwhile is kept, and the cached buckets of the airport are
+     * dropped.
+     *
+     * @param request the bucket as it was read
+     * @return the deleted bucket, null if the bucket was kept
+     */
     public AirportPriority deleteAirportPriorityEntry(final AirportPriority request) {
-        Map<String, AttributeValue> keyExpression = new HashMap<>();
-        keyExpression.put(AIRPORT_CODE, AttributeValue.builder()
-                .s(request.getAirportCode())
-                .build());
-        keyExpression.put(AIRPORT_PRIORITY_QUEUE_ENTRY, AttributeValue.builder()
-                .s(request.getPriorityId())
-                .build());
+        final long start = System.nanoTime();
         try {
-            DeleteItemResponse response = dynamoDb.deleteItem(DeleteItemRequest.builder()
-                    .key(keyExpression)
-                    .tableName(tableName)
-                    .returnValues(ReturnValue.ALL_OLD)
-                    .build());
+            DeleteItemResponse response =
+                    dynamoDb.deleteItem(deleteAirportPriorityRequest(request));
+            evictAirportPriority(request);
             return convertToAirportPriority(response.attributes());
+        } catch (ConditionalCheckFailedException e) {
+            keepMovedAirportPriority(request);
+            return null;
         } catch (Exception e) {
-            logger.error("Failed to delete AirportPriority with AirportCode(hashKey):"
-                    + request.getAirportCode() +  " , priorityId(rangeKey):" + request.getPriorityId(), e);
-            throw new UnableToDeleteException("Failed to delete AiportPriorityEntry: + " + request.getAirportCode()
-                    + " with priority" + request.getPriorityId());
+            throw airportPriorityDeleteFailed(request, e);
+        } finally {
+            metrics.recordSince("PriorityAircraftsDao.deleteAirportPriorityEntry", start);
         }
     }
 
-    public Map<String, AttributeValue> queryForHighestPriorityForAirport(String airportCode) {
-        final Map<String,String> expressionAttributesNames = new HashMap<>();
-        expressionAttributesNames.put("#hashKey","hashKey");
+    /**
+     * Non-blocking variant of {@link #createAircraftPriority(CreateAircraftPriorityRequest)}, falls
+     * back to the blocking client on a worker thread when no async client is configured.
+     */
+    public CompletableFuture<AircraftPriority> createAircraftPriorityAsync(
+            final CreateAircraftPriorityRequest request) {
+        if (asyncDynamoDb == null) {
+            return AsyncCalls.supplyAsync(() -> createAircraftPriority(request));
+        }
+        final long start = System.nanoTime();
+        return AsyncCalls.translate(asyncDynamoDb.get().putItem(PutItemRequest.builder()
+                .tableName(tableName)
+                .item(createAircraftPriorityItem(request))
+                .build()), this::translate)
+                .whenComplete((response, error) -> metrics.recordSince(
+                        "PriorityAircraftsDao.createAircraftPriority", start))
+                .thenApply(response -> AircraftPriority.builder()
+                        .aircraftId(request.getAircraftId())
+                        .priorityId(request.getPriorityId())
+                        .arrivalTime(request.getArrivalTime())
+                        .build());
+    }
 
-        final Map<String,AttributeValue> expressionAttributeValues = new HashMap<>();
-        expressionAttributeValues.put(":value", AttributeValue.builder().s(airportCode).build());
+    /**
+     * Non-blocking variant of {@link #updateAirportPriorityQueue(UpdateAirportPriorityRequest)},
+     * falls back to the blocking client when no async client is configured.
+     */
+    public CompletableFuture<AirportPriority> updateAirportPriorityQueueAsync(
+            final UpdateAirportPriorityRequest request) {
+        if (asyncDynamoDb == null) {
+            return AsyncCalls.supply(() -> updateAirportPriorityQueue(request));
+        }
+        final long start = System.nanoTime();
+        return AsyncCalls.translate(asyncDynamoDb.get().putItem(PutItemRequest.builder()
+                .tableName(tableName)
+                .item(updateAirportPriorityItem(request))
+                .build()), this::translate)
+                .whenComplete((response, error) -> metrics.recordSince(
+                        "PriorityAircraftsDao.updateAirportPriorityQueue", start))
+                .thenApply(response -> {
+                    final AirportPriority airportPriority = AirportPriority.builder()
+                            .airportCode(request.getAirportCode())
+                            .priorityId(request.getPriorityId())
+                            .date(request.getDate())
+                            .build();
+                    cacheAirportPriority(airportPriority);
+                    return airportPriority;
+                });
+    }
 
-        final QueryRequest queryRequest = QueryRequest.builder()
+    /**
+     * Non-blocking variant of {@link #deletePriorityAircraft(AircraftPriority)}, falls back to the
+     * blocking client on a worker thread when no async client is configured.
+     */
+    public CompletableFuture<AircraftPriority> deletePriorityAircraftAsync(
+            final AircraftPriority request) {
+        if (asyncDynamoDb == null) {
+            return AsyncCalls.supplyAsync(() -> deletePriorityAircraft(request));
+        }
+        final long start = System.nanoTime();
+        return AsyncCalls.translate(asyncDynamoDb.get().deleteItem(DeleteItemRequest.builder()
                 .tableName(tableName)
-                .keyConditionExpression("#hashKey = :value")
-                .expressionAttributeNames(expressionAttributesNames)
-                .expressionAttributeValues(expressionAttributeValues)
-                .scanIndexForward(false)
-                .limit(1)
+                .key(aircraftPriorityKey(request))
+                .returnValues(ReturnValue.ALL_OLD)
+                .build()), e -> aircraftPriorityDeleteFailed(request, e))
+                .whenComplete((response, error) -> metrics.recordSince(
+                        "PriorityAircraftsDao.deletePriorityAircraft", start))
+                .thenApply(response -> convertToAircraftPriority(response.attributes()));
+    }
+
+    /**
+     * Non-blocking variant of {@link #deleteAirportPriorityEntry(AirportPriority)}, falls back to
+     * the blocking client when no async client is configured.
+     */
+    public CompletableFuture<AirportPriority> deleteAirportPriorityEntryAsync(
+            final AirportPriority request) {
+        if (asyncDynamoDb == null) {
+            return AsyncCalls.supply(() -> deleteAirportPriorityEntry(request));
+        }
+        final long start = System.nanoTime();
+        final CompletableFuture<DeleteItemResponse> deleted =
+                asyncDynamoDb.get().deleteItem(deleteAirportPriorityRequest(request));
+        return AsyncCalls.translate(deleted, e -> e instanceof ConditionalCheckFailedException
+                        ? e : airportPriorityDeleteFailed(request, e))
+                .whenComplete((response, error) -> metrics.recordSince(
+                        "PriorityAircraftsDao.deleteAirportPriorityEntry", start))
+                .handle((response, error) -> {
+                    if (error == null) {
+                        evictAirportPriority(request);
+                        return convertToAirportPriority(response.attributes());
+                    }
+                    final Throwable cause = AsyncCalls.unwrap(error);
+                    if (cause instanceof ConditionalCheckFailedException) {
+                        keepMovedAirportPriority(request);
+                        return null;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    private DeleteItemRequest deleteAirportPriorityRequest(final AirportPriority request) {
+        return DeleteItemRequest.builder()
+                .tableName(tableName)
+                .key(airportPriorityKey(request))
+                .conditionExpression("#date = :date")
+                .expressionAttributeNames(Collections.singletonMap("#date", "date"))
+                .expressionAttributeValues(Collections.singletonMap(":date",
+                        AttributeValue.builder().s(request.getDate()).build()))
+                .returnValues(ReturnValue.ALL_OLD)
                 .build();
+    }
+
+    /**
+     * An enqueue moved the date of the bucket on after it was read, so the cached copy is stale.
+     */
+    private void keepMovedAirportPriority(final AirportPriority request) {
+        logger.debug("airportPriority.keptMoved", "airportCode", request.getAirportCode(),
+                "priorityId", request.getPriorityId(), "readDate", request.getDate());
+        invalidateAirportPriorities(request.getAirportCode());
+    }
+
+    private UnableToDeleteException aircraftPriorityDeleteFailed(final AircraftPriority request,
+                                                                 final Exception error) {
+        logger.error("priorityAircraft.deleteFailed", error, "priorityId", request.getPriorityId(),
+                "aircraftId", request.getAircraftId());
+        return new UnableToDeleteException("Failed to delete Aircraft: + "
+                + request.getAircraftId() + " with priority" + request.getPriorityId());
+    }
+
+    private UnableToDeleteException airportPriorityDeleteFailed(final AirportPriority request,
+                                                                final Exception error) {
+        logger.error("airportPriority.deleteFailed", error, "airportCode", request.getAirportCode(),
+                "priorityId", request.getPriorityId());
+        return new UnableToDeleteException("Failed to delete AiportPriorityEntry: + "
+                + request.getAirportCode() + " with priority" + request.getPriorityId());
+    }
+
+    private RuntimeException translate(final RuntimeException error) {
+        if (error instanceof ResourceNotFoundException) {
+            logger.error("priorityAircraft.tableMissing", error, "table", tableName);
+            return new TableDoesNotExistException(
+                    "PrioritiesAircraft table " + tableName + " does not exist");
+        }
+        return error;
+    }
+
+    void cacheAirportPriority(final AirportPriority airportPriority) {
+        if (airportPriorityCache != null) {
+            airportPriorityCache.update(airportPriority.getAirportCode(), buckets -> {
+                final TreeMap<String, AirportPriority> updated = new TreeMap<>(buckets);
+                updated.put(airportPriority.getPriorityId(), airportPriority);
+                return Collections.unmodifiableNavigableMap(updated);
+            });
+        }
+    }
+
+    void evictAirportPriority(final AirportPriority airportPriority) {
+        if (airportPriorityCache != null) {
+            airportPriorityCache.update(airportPriority.getAirportCode(), buckets -> {
+                final TreeMap<String, AirportPriority> updated = new TreeMap<>(buckets);
+                updated.remove(airportPriority.getPriorityId());
+                return Collections.unmodifiableNavigableMap(updated);
+            });
+        }
+    }
+
+    void invalidateAirportPriorities(final String airportCode) {
+        if (airportPriorityCache != null) {
+            airportPriorityCache.invalidate(airportCode);
+        }
+    }
+
+    private static NavigableMap<String, AirportPriority> sortedBuckets(
+            final Collection<AirportPriority> buckets) {
+        final TreeMap<String, AirportPriority> sorted = new TreeMap<>(Comparator.reverseOrder());
+        buckets.forEach(bucket -> sorted.put(bucket.getPriorityId(), bucket));
+        return Collections.unmodifiableNavigableMap(sorted);
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    Map<String, AttributeValue> aircraftPriorityKey(final AircraftPriority aircraftPriority) {
+        Map<String, AttributeValue> keyExpression = new HashMap<>();
+        keyExpression.put(PRIORITY_ID, AttributeValue.builder()
+                .s(aircraftPriority.getPriorityId())
+                .build());
+        keyExpression.put(AIRCRAFT_ID, AttributeValue.builder()
+                .s(aircraftPriority.getAircraftId())
+                .build());
+        return keyExpression;
+    }
+
+    Map<String, AttributeValue> airportPriorityKey(final AirportPriority airportPriority) {
+        Map<String, AttributeValue> keyExpression = new HashMap<>();
+        keyExpression.put(AIRPORT_CODE, AttributeValue.builder()
+                .s(airportPriority.getAirportCode())
+                .build());
+        keyExpression.put(AIRPORT_PRIORITY_QUEUE_ENTRY, AttributeValue.builder()
+                .s(airportPriority.getPriorityId())
+                .build());
+        return keyExpression;
+    }
+
+    /**
+     * Reads the highest priority bucket of an airport.
+     *
+     * @return the bucket, empty if the airport has no aircraft queued
+     * @throws ThrottledException if the read was still throttled after retrying
+     */
+    public Optional<Map<String, AttributeValue>> queryForHighestPriorityForAirport(
+            final String airportCode) {
+        return queryFirst("PriorityAircraftsDao.queryForHighestPriorityForAirport", airportCode,
+                null, false);
+    }
+
+    /**
+     * Reads the entry of a bucket that arrived first.
+     *
+     * @return the entry, empty if the bucket has no aircraft queued
+     * @throws ThrottledException if the read was still throttled after retrying
+     */
+    public Optional<Map<String, AttributeValue>> queryForOldestAircraftWithPriority(
+            final String priorityId) {
+        return queryFirst("PriorityAircraftsDao.queryForOldestAircraftWithPriority", priorityId,
+                PRIORITY_DATE_INDEX, true);
+    }
+
+    /**
+     * Reads the first item of a partition, retrying throttled reads with jittered backoff on top of
+     * the retries of the SDK.
+     */
+    private Optional<Map<String, AttributeValue>> queryFirst(
+            final String metricName, final String hashKey, final String indexName,
+            final boolean ascending) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                final List<Map<String, AttributeValue>> items = queryPartition(metricName, hashKey,
+                        indexName, ascending, 1, null).items();
+                return items.isEmpty() ? Optional.empty() : Optional.of(items.get(0));
+            } catch (ProvisionedThroughputExceededException | RequestLimitExceededException e) {
+                if (attempt == MAX_READ_ATTEMPTS || !Backoff.pause(attempt, BASE_BACKOFF_MILLIS)) {
+                    logger.warn("query.throttled", e, "partition", hashKey, "attempts", attempt);
+                    throw new ThrottledException(
+                            "Reads of " + hashKey + " are throttled, try again later");
+                }
+                logger.debug("query.retryingThrottled", "partition", hashKey, "attempt", attempt);
+            }
+        }
+    }
+
+    /**
+     * Returns every active priority bucket of an airport, highest priority first.
+     *
+     * @param airportCode airport to list the buckets of
+     * @return the buckets, empty if the airport has no aircraft queued
+     */
+    public List<AirportPriority> getAirportPriorities(final String airportCode) {
+        final List<AirportPriority> airportPriorities = new ArrayList<>();
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            final QueryResponse response = queryPartition(
+                    "PriorityAircraftsDao.getAirportPriorities", airportCode, null, false, null,
+                    exclusiveStartKey);
+            response.items().forEach(item -> airportPriorities.add(convertToAirportPriority(item)));
+            exclusiveStartKey = response.lastEvaluatedKey();
+        } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty());
+        return airportPriorities;
+    }
+
+    /**
+     * Returns the oldest aircraft of a priority bucket, oldest first.
+     *
+     * @param priorityId bucket to read
+     * @param limit maximum number of aircraft to return
+     * @return up to limit aircraft, fewer only if the bucket holds fewer
+     */
+    public List<AircraftPriority> getOldestAircraftsWithPriorityId(final String priorityId,
+                                                                   final int limit) {
+        final List<AircraftPriority> aircraftPriorities = new ArrayList<>(limit);
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            final QueryResponse response = queryPartition(
+                    "PriorityAircraftsDao.getOldestAircraftsWithPriorityId", priorityId,
+                    PRIORITY_DATE_INDEX, true, limit - aircraftPriorities.size(),
+                    exclusiveStartKey);
+            response.items().forEach(item ->
+                    aircraftPriorities.add(convertToAircraftPriority(item)));
+            exclusiveStartKey = response.lastEvaluatedKey();
+        } while (aircraftPriorities.size() < limit
+                && exclusiveStartKey != null && !exclusiveStartKey.isEmpty());
+        return aircraftPriorities;
+    }
+
+    /**
+     * Returns the latest aircraft of a priority bucket, latest first.
+     */
+    List<AircraftPriority> getLatestAircraftsWithPriorityId(final String priorityId,
+                                                            final int limit) {
+        final List<AircraftPriority> aircraftPriorities = new ArrayList<>(limit);
+        queryPartition("PriorityAircraftsDao.getLatestAircraftsWithPriorityId", priorityId,
+                PRIORITY_DATE_INDEX, false, limit, null).items()
+                .forEach(item -> aircraftPriorities.add(convertToAircraftPriority(item)));
+        return aircraftPriorities;
+    }
+
+    /**
+     * Removes a bucket row left without queue entries, e.g. by a dequeue that failed between its
+     * deletes. The entries are read again consistently, and the delete only applies while the
+     * bucket still carries the date it was read with, so an aircraft enqueued into the bucket
+     * meanwhile keeps it.
+     *
+     * @param bucket the bucket as it was read
+     */
+    void deleteStaleAirportPriority(final AirportPriority bucket) {
+        invalidateAirportPriorities(bucket.getAirportCode());
+        final long start = System.nanoTime();
         try {
-            return dynamoDb.query(queryRequest).items().get(0);
-        } catch (Exception e) {
-            logger.error("Failed to queryForHighestPriorityForAirport :" + airportCode, e);
+            final boolean queued = !dynamoDb.query(QueryRequest.builder()
+                    .tableName(tableName)
+                    .keyConditionExpression("#hashKey = :value")
+                    .expressionAttributeNames(Collections.singletonMap("#hashKey", PRIORITY_ID))
+                    .expressionAttributeValues(Collections.singletonMap(":value",
+                            AttributeValue.builder().s(bucket.getPriorityId()).build()))
+                    .consistentRead(true)
+                    .limit(1)
+                    .build()).items().isEmpty();
+            if (!queued) {
+                dynamoDb.deleteItem(DeleteItemRequest.builder()
+                        .tableName(tableName)
+                        .key(airportPriorityKey(bucket))
+                        .conditionExpression("#date = :date")
+                        .expressionAttributeNames(Collections.singletonMap("#date", "date"))
+                        .expressionAttributeValues(Collections.singletonMap(":date",
+                                AttributeValue.builder().s(bucket.getDate()).build()))
+                        .build());
+            }
+        } catch (ConditionalCheckFailedException e) {
+            // an aircraft was enqueued into the bucket, it stays
+        } catch (ResourceNotFoundException e) {
+            throw new TableDoesNotExistException(
+                    "PrioritiesAircraft table " + tableName + " does not exist");
+        } finally {
+            metrics.recordSince("PriorityAircraftsDao.deleteStaleAirportPriority", start);
         }
-        return null;
     }
 
-    public Map<String,AttributeValue> queryForOldestAircraftWithPriority(String priorityId) {
+    /**
+     * Reads an airport bucket, bypassing the cache.
+     *
+     * @return the bucket, empty if the airport has no aircraft queued with the priority
+     */
+    Optional<AirportPriority> loadAirportPriority(final String airportCode,
+                                                  final String priorityId) {
+        final long start = System.nanoTime();
+        try {
+            return Optional.ofNullable(convertToAirportPriority(dynamoDb.getItem(
+                    GetItemRequest.builder()
+                            .tableName(tableName)
+                            .key(airportPriorityKey(AirportPriority.builder()
+                                    .airportCode(airportCode)
+                                    .priorityId(priorityId)
+                                    .build()))
+                            .consistentRead(true)
+                            .build()).item()));
+        } catch (ResourceNotFoundException e) {
+            throw new TableDoesNotExistException(
+                    "PrioritiesAircraft table " + tableName + " does not exist");
+        } finally {
+            metrics.recordSince("PriorityAircraftsDao.loadAirportPriority", start);
+        }
+    }
+
+    /**
+     * Reads one page of a partition of the table or of an index.
+     *
+     * @param metricName latency metric of the query, one per caller so the queries can be told
+     *     apart
+     */
+    private QueryResponse queryPartition(final String metricName, final String hashKey,
+                                         final String indexName, final boolean ascending,
+                                         final Integer limit,
+                                         final Map<String, AttributeValue> exclusiveStartKey) {
         final Map<String,String> expressionAttributesNames = new HashMap<>();
         expressionAttributesNames.put("#hashKey","hashKey");
 
         final Map<String,AttributeValue> expressionAttributeValues = new HashMap<>();
-        expressionAttributeValues.put(":value", AttributeValue.builder().s(priorityId).build());
+        expressionAttributeValues.put(":value", AttributeValue.builder().s(hashKey).build());
 
-        QueryRequest queryRequest = QueryRequest.builder()
+        final QueryRequest queryRequest = QueryRequest.builder()
                 .tableName(tableName)
-                .indexName(PRIORITY_DATE_INDEX)
+                .indexName(indexName)
                 .keyConditionExpression("#hashKey = :value")
                 .expressionAttributeNames(expressionAttributesNames)
                 .expressionAttributeValues(expressionAttributeValues)
-                .scanIndexForward(true)
-                .limit(1)
+                .scanIndexForward(ascending)
+                .limit(limit)
+                .exclusiveStartKey(exclusiveStartKey)
                 .build();
-
+        final long start = System.nanoTime();
         try {
-            return dynamoDb.query(queryRequest).items().get(0);
-        } catch (Exception e) {
-            logger.error("Failed to queryForOldestAircraftWithPriority:" + priorityId, e);
+            return dynamoDb.query(queryRequest);
+        } catch (ResourceNotFoundException e) {
+            throw new TableDoesNotExistException(
+                    "PrioritiesAircraft table " + tableName + " does not exist");
+        } finally {
+            metrics.recordSince(metricName, start);
         }
-        return null;
     }
 
     private AirportPriority convertToAirportPriority(Map<String, AttributeValue> item) {
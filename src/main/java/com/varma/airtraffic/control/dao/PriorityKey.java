@@ -0,0 +1,76 @@
+package com.varma.airtraffic.control.dao;
+
+/**
+ * Fixed width encodings of an aircraft's place in its airport queue.
+ *
+ * <p>The priorityId is "AIRPORT-SUM" with the sum zero padded, so buckets of an airport sort by
+ * priority as strings. The queueKey sorts ascending in dequeue order: highest priority first, then
+ * oldest arrival, then aircraftId to break ties.
+ */
+public final class PriorityKey {
+    static final int SUM_WIDTH = 7;
+    static final int MAX_PRIORITY_SUM = 9_999_999;
+
+    private static final char SEPARATOR = '#';
+
+    private PriorityKey() {
+    }
+
+    /**
+     * @param airportCode upper case airport code
+     * @param prioritySum sum of the type, size and special flag values of an aircraft
+     * @return the priorityId, e.g. IAD-0007030
+     */
+    public static String priorityId(final String airportCode, final int prioritySum) {
+        return airportCode + '-' + pad(prioritySum);
+    }
+
+    /**
+     * Reads the priority sum of a priorityId, in either the padded or the legacy unpadded form.
+     */
+    public static int prioritySum(final String priorityId) {
+        return Integer.parseInt(priorityId.substring(priorityId.lastIndexOf('-') + 1));
+    }
+
+    /**
+     * Tells whether a priorityId was written before the sum was padded, and so does not sort
+     * correctly.
+     */
+    public static boolean isLegacy(final String priorityId) {
+        final int separator = priorityId.lastIndexOf('-');
+        return separator >= 0 && priorityId.length() - separator - 1 != SUM_WIDTH;
+    }
+
+    /**
+     * Pads the sum of a legacy priorityId.
+     */
+    public static String migrate(final String priorityId) {
+        return priorityId(priorityId.substring(0, priorityId.lastIndexOf('-')),
+                prioritySum(priorityId));
+    }
+
+    /**
+     * @param prioritySum sum of the type, size and special flag values of an aircraft
+     * @param arrivalTime fixed width UTC arrival time of the aircraft
+     * @param aircraftId id of the aircraft
+     * @return the queueKey, e.g. 9992969#2019-08-29T02:10:05.123456Z#6c0e3fb4-...
+     */
+    public static String queueKey(final int prioritySum, final String arrivalTime,
+                                  final String aircraftId) {
+        return pad(MAX_PRIORITY_SUM - prioritySum) + SEPARATOR + arrivalTime + SEPARATOR
+                + aircraftId;
+    }
+
+    private static String pad(final int value) {
+        if (value < 0 || value > MAX_PRIORITY_SUM) {
+            throw new IllegalArgumentException(
+                    "Priority sum " + value + " does not fit " + SUM_WIDTH + " digits");
+        }
+        final String digits = Integer.toString(value);
+        final StringBuilder padded = new StringBuilder(SUM_WIDTH);
+        for (int i = digits.length(); i < SUM_WIDTH; i++) {
+            padded.append('0');
+        }
+        return padded.append(digits).toString();
+    }
+}
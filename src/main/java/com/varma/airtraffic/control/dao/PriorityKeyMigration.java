@@ -0,0 +1,246 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.config.AirTrafficControlComponent;
+import com.varma.airtraffic.control.config.DaggerAirTrafficControlComponent;
+import lombok.Getter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Moves queued aircraft written before priority keys were fixed width to the padded priorityId and
+ * gives them a queueKey. Every step is idempotent, so the migration can be stopped and run again.
+ *
+ * <p>Run it once every container serves the new code:
+ * <pre>
+ * java -cp target/classes:$(cat cp.txt) com.varma.airtraffic.control.dao.PriorityKeyMigration
+ * </pre>
+ */
+public class PriorityKeyMigration {
+    private static final Log logger = LogFactory.getLog(PriorityKeyMigration.class);
+
+    private static final String HASH_KEY = "hashKey";
+    private static final String RANGE_KEY = "rangeKey";
+    private static final String DATE = "date";
+
+    private final DynamoDbClient dynamoDb;
+    private final String aircraftTableName;
+    private final String priorityAircraftTableName;
+
+    /**
+     * Creates a migration of the priorityIds in the given tables.
+     */
+    public PriorityKeyMigration(final DynamoDbClient dynamoDb, final String aircraftTableName,
+                                final String priorityAircraftTableName) {
+        this.dynamoDb = dynamoDb;
+        this.aircraftTableName = aircraftTableName;
+        this.priorityAircraftTableName = priorityAircraftTableName;
+    }
+
+    /**
+     * Migrates the tables of the configured environment.
+     */
+    public static void main(final String[] args) {
+        final AirTrafficControlComponent component =
+                DaggerAirTrafficControlComponent.builder().build();
+        final PriorityKeyMigration migration = new PriorityKeyMigration(
+                component.provideDynamoDbClient(), component.provideAircraftTableName(),
+                component.providePriorityAircraftTableName());
+        final Result result = migration.run();
+        logger.info("Migrated " + result.getMigrated() + " aircraft, skipped " + result.getSkipped()
+                + ", removed " + result.getBucketsRemoved() + " legacy airport buckets");
+    }
+
+    @Getter
+    public static final class Result {
+        private int migrated;
+        private int skipped;
+        private int bucketsRemoved;
+    }
+
+    /**
+     * Pads every legacy priorityId, moving its queue entries along.
+     *
+     * @return how many aircraft and airport buckets were migrated
+     */
+    public Result run() {
+        final Result result = new Result();
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            final ScanResponse response = dynamoDb.scan(ScanRequest.builder()
+                    .tableName(aircraftTableName)
+                    .filterExpression("priorityId <> :dequeued")
+                    .expressionAttributeValues(Collections.singletonMap(":dequeued",
+                            string(AircraftDao.DEQUEUED_PRIORITY_ID)))
+                    .exclusiveStartKey(exclusiveStartKey)
+                    .build());
+            for (Map<String, AttributeValue> item : response.items()) {
+                if (migrateAircraft(item)) {
+                    result.migrated++;
+                } else {
+                    result.skipped++;
+                }
+            }
+            exclusiveStartKey = response.lastEvaluatedKey();
+        } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty());
+        result.bucketsRemoved = removeLegacyBuckets();
+        return result;
+    }
+
+    /**
+     * Writes the queue rows under the new priorityId, then moves the aircraft over, then drops the
+     * old queue row, so a dequeue running meanwhile finds the aircraft in one of the two buckets.
+     *
+     * @return false if the aircraft was already migrated or was dequeued while migrating
+     */
+    boolean migrateAircraft(final Map<String, AttributeValue> item) {
+        final String aircraftId = item.get(AircraftDao.AIRCRAFT_ID).s();
+        final String airportCode = item.get("airportCode").s();
+        final String arrivalTime = item.get("arrivalTime").s();
+        final String oldPriorityId = item.get("priorityId").s();
+        final boolean legacy = PriorityKey.isLegacy(oldPriorityId);
+        if (!legacy && item.containsKey(AircraftDao.QUEUE_KEY)) {
+            return false;
+        }
+        final String newPriorityId = legacy ? PriorityKey.migrate(oldPriorityId) : oldPriorityId;
+        if (legacy) {
+            putEntry(newPriorityId, aircraftId, arrivalTime);
+            putBucket(airportCode, newPriorityId, arrivalTime);
+        }
+
+        final Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":old", string(oldPriorityId));
+        values.put(":new", string(newPriorityId));
+        values.put(":queueKey", string(PriorityKey.queueKey(PriorityKey.prioritySum(oldPriorityId),
+                arrivalTime, aircraftId)));
+        try {
+            dynamoDb.updateItem(UpdateItemRequest.builder()
+                    .tableName(aircraftTableName)
+                    .key(Collections.singletonMap(AircraftDao.AIRCRAFT_ID, string(aircraftId)))
+                    .updateExpression("SET priorityId = :new, " + AircraftDao.QUEUE_KEY
+                            + " = :queueKey")
+                    .conditionExpression("priorityId = :old")
+                    .expressionAttributeValues(values)
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            logger.info("Aircraft " + aircraftId + " was dequeued while migrating");
+            if (legacy) {
+                delete(key(newPriorityId, aircraftId), null);
+                delete(key(airportCode, newPriorityId), arrivalTime);
+            }
+            return false;
+        }
+        if (legacy) {
+            delete(key(oldPriorityId, aircraftId), null);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the legacy airport buckets whose queue rows have all been moved.
+     */
+    int removeLegacyBuckets() {
+        int removed = 0;
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            final ScanResponse response = dynamoDb.scan(ScanRequest.builder()
+                    .tableName(priorityAircraftTableName)
+                    .exclusiveStartKey(exclusiveStartKey)
+                    .build());
+            for (Map<String, AttributeValue> item : response.items()) {
+                final String hashKey = item.get(HASH_KEY).s();
+                final String priorityId = item.get(RANGE_KEY).s();
+                // bucket rows are keyed by airport code, queue rows by priorityId
+                if (hashKey.indexOf('-') < 0 && PriorityKey.isLegacy(priorityId)
+                        && isEmptyBucket(priorityId)) {
+                    delete(key(hashKey, priorityId), item.get(DATE).s());
+                    removed++;
+                }
+            }
+            exclusiveStartKey = response.lastEvaluatedKey();
+        } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty());
+        return removed;
+    }
+
+    private boolean isEmptyBucket(final String priorityId) {
+        return dynamoDb.query(QueryRequest.builder()
+                .tableName(priorityAircraftTableName)
+                .keyConditionExpression("#hashKey = :value")
+                .expressionAttributeNames(Collections.singletonMap("#hashKey", HASH_KEY))
+                .expressionAttributeValues(Collections.singletonMap(":value", string(priorityId)))
+                .limit(1)
+                .build()).items().isEmpty();
+    }
+
+    private void putEntry(final String priorityId, final String aircraftId,
+                          final String arrivalTime) {
+        final Map<String, AttributeValue> item = key(priorityId, aircraftId);
+        item.put(DATE, string(arrivalTime));
+        dynamoDb.putItem(PutItemRequest.builder()
+                .tableName(priorityAircraftTableName)
+                .item(item)
+                .build());
+    }
+
+    /**
+     * The bucket carries the arrival time of the latest aircraft in it, so only move its date
+     * forward.
+     */
+    private void putBucket(final String airportCode, final String priorityId,
+                           final String arrivalTime) {
+        final Map<String, AttributeValue> item = key(airportCode, priorityId);
+        item.put(DATE, string(arrivalTime));
+        try {
+            dynamoDb.putItem(PutItemRequest.builder()
+                    .tableName(priorityAircraftTableName)
+                    .item(item)
+                    .conditionExpression("attribute_not_exists(" + RANGE_KEY + ") OR #date < :date")
+                    .expressionAttributeNames(Collections.singletonMap("#date", DATE))
+                    .expressionAttributeValues(
+                            Collections.singletonMap(":date", string(arrivalTime)))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // a later aircraft is already in the bucket
+        }
+    }
+
+    private void delete(final Map<String, AttributeValue> key, final String expectedDate) {
+        final DeleteItemRequest.Builder request = DeleteItemRequest.builder()
+                .tableName(priorityAircraftTableName)
+                .key(key);
+        if (expectedDate != null) {
+            request.conditionExpression("#date = :date")
+                    .expressionAttributeNames(Collections.singletonMap("#date", DATE))
+                    .expressionAttributeValues(
+                            Collections.singletonMap(":date", string(expectedDate)));
+        }
+        try {
+            dynamoDb.deleteItem(request.build());
+        } catch (ConditionalCheckFailedException e) {
+            // the row changed since, it is no longer ours to remove
+        }
+    }
+
+    private static Map<String, AttributeValue> key(final String hashKey, final String rangeKey) {
+        final Map<String, AttributeValue> key = new HashMap<>();
+        key.put(HASH_KEY, string(hashKey));
+        key.put(RANGE_KEY, string(rangeKey));
+        return key;
+    }
+
+    private static AttributeValue string(final String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.AirportWithEmptyAircraftsException;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftPriority;
+
+/**
+ * Keeps the per-airport queue of aircraft ordered by priority and arrival time.
+ */
+public interface PriorityQueueStore {
+
+    /**
+     * Adds an already persisted aircraft to the queue of its airport.
+     *
+     * @param aircraft aircraft with airportCode, priorityId and arrivalTime populated
+     */
+    void enqueue(Aircraft aircraft);
+
+    /**
+     * Removes the aircraft with the highest priority, oldest first, from the queue of an airport.
+     *
+     * @param airportCode airport to dequeue from
+     * @return the removed queue entry
+     * @throws AirportWithEmptyAircraftsException if the airport has no aircraft queued
+     */
+    AircraftPriority dequeue(String airportCode);
+}
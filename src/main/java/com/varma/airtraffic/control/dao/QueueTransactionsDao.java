@@ -0,0 +1,374 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.AircraftDoesNotExistException;
+import com.varma.airtraffic.control.exception.AirportWithEmptyAircraftsException;
+import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import com.varma.airtraffic.control.exception.UnableToDeleteException;
+import com.varma.airtraffic.control.exception.UnableToUpdateException;
+import com.varma.airtraffic.control.logging.StructuredLogger;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftPriority;
+import com.varma.airtraffic.control.model.AircraftSpecialFlag;
+import com.varma.airtraffic.control.model.AirportPriority;
+import com.varma.airtraffic.control.model.request.CreateAircraftPriorityRequest;
+import com.varma.airtraffic.control.model.request.UpdateAirportPriorityRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Queue operations that have to change the Aircraft and PriorityAircrafts tables atomically.
+ */
+public class QueueTransactionsDao {
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 10;
+
+    private static final StructuredLogger logger =
+            StructuredLogger.getLogger(QueueTransactionsDao.class);
+
+    private final DynamoDbClient dynamoDb;
+    private final AircraftDao aircraftDao;
+    private final PriorityAircraftsDao priorityAircraftsDao;
+    // queue counters moved along with reprioritized aircraft, null when not maintained
+    private final AirportStatsDao airportStatsDao;
+
+    public QueueTransactionsDao(final DynamoDbClient dynamoDb, final AircraftDao aircraftDao,
+                                final PriorityAircraftsDao priorityAircraftsDao) {
+        this(dynamoDb, aircraftDao, priorityAircraftsDao, null);
+    }
+
+    /**
+     * Creates a DAO that also moves the queue counters of reprioritized aircraft.
+     *
+     * @param dynamoDb             client the transactions are written with
+     * @param aircraftDao          DAO of the aircraft table
+     * @param priorityAircraftsDao DAO of the priority aircraft table
+     * @param airportStatsDao      queue counters, or null when they are not maintained
+     */
+    public QueueTransactionsDao(final DynamoDbClient dynamoDb, final AircraftDao aircraftDao,
+                                final PriorityAircraftsDao priorityAircraftsDao,
+                                final AirportStatsDao airportStatsDao) {
+        this.dynamoDb = dynamoDb;
+        this.aircraftDao = aircraftDao;
+        this.priorityAircraftsDao = priorityAircraftsDao;
+        this.airportStatsDao = airportStatsDao;
+    }
+
+    /**
+     * Claims the aircraft at the head of the airport queue and removes its queue entries in a
+     * single transaction. The claim is conditional on the aircraft still holding its priority,
+     * so concurrent callers never receive the same aircraft; losers retry with the new head. An
+     * entry left behind by an aircraft that was already dequeued or no longer exists is removed,
+     * along with its bucket when it was the latest entry, and the next entry is tried; so is a
+     * bucket row left without entries.
+     *
+     * @param airportCode airport to dequeue from
+     * @return the dequeued aircraft
+     * @throws UnableToDeleteException if the head could not be claimed after retrying
+     */
+    public Aircraft dequeueAircraft(final String airportCode) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            final AirportPriority apEntry = priorityAircraftsDao.getHighestPriorityIdForAirport(
+                    airportCode);
+            final AircraftPriority acEntry;
+            try {
+                acEntry = priorityAircraftsDao.getOldestAircraftIdWithPriorityId(
+                        apEntry.getPriorityId());
+            } catch (AirportWithEmptyAircraftsException e) {
+                // a bucket row left without entries by an interrupted dequeue, remove it, move on
+                priorityAircraftsDao.deleteStaleAirportPriority(apEntry);
+                logger.debug("dequeue.staleBucketRemoved", "airportCode", airportCode,
+                        "priorityId", apEntry.getPriorityId());
+                continue;
+            }
+            final Aircraft aircraft = aircraftDao.loadAircraft(acEntry.getAircraftId());
+            // an entry whose aircraft is gone or holds another priority is only removed
+            final boolean claimAircraft = aircraft != null
+                    && acEntry.getPriorityId().equals(aircraft.getPriorityId());
+            try {
+                dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(dequeueItems(apEntry, acEntry, claimAircraft))
+                        .build());
+            } catch (TransactionCanceledException e) {
+                priorityAircraftsDao.invalidateAirportPriorities(airportCode);
+                logger.debug("dequeue.lostRace", "aircraftId", acEntry.getAircraftId(), "attempt",
+                        attempt);
+                if (!Backoff.pause(attempt, BASE_BACKOFF_MILLIS)) {
+                    throw new UnableToDeleteException("Interrupted while dequeuing aircraft");
+                }
+                continue;
+            } catch (ResourceNotFoundException e) {
+                throw new TableDoesNotExistException(
+                        "Aircraft or PriorityAircrafts table does not exist");
+            }
+            if (acEntry.getArrivalTime().equals(apEntry.getDate())) {
+                priorityAircraftsDao.evictAirportPriority(apEntry);
+            }
+            if (claimAircraft) {
+                aircraftDao.invalidateCachedAircraft(aircraft.getAircraftId());
+                return aircraft;
+            }
+            // the queue entry was left behind by an earlier dequeue or a deleted aircraft, it has
+            // been cleaned up so move on to the next
+            logger.debug("dequeue.orphanRemoved", "aircraftId", acEntry.getAircraftId(), "attempt",
+                    attempt);
+        }
+        throw new UnableToDeleteException("Unable to dequeue an aircraft for airport " + airportCode
+                + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    private List<TransactWriteItem> dequeueItems(final AirportPriority apEntry,
+                                                 final AircraftPriority acEntry,
+                                                 final boolean claimAircraft) {
+        final List<TransactWriteItem> items = new ArrayList<>(3);
+        if (claimAircraft) {
+            final Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":priorityId", AttributeValue.builder().s(acEntry.getPriorityId()).build());
+            values.put(":dequeued",
+                    AttributeValue.builder().s(AircraftDao.DEQUEUED_PRIORITY_ID).build());
+            items.add(TransactWriteItem.builder()
+                    .update(Update.builder()
+                            .tableName(aircraftDao.getTableName())
+                            .key(aircraftDao.aircraftKey(acEntry.getAircraftId()))
+                            .updateExpression(
+                                    "SET priorityId = :dequeued REMOVE " + AircraftDao.QUEUE_KEY)
+                            .conditionExpression("priorityId = :priorityId")
+                            .expressionAttributeValues(values)
+                            .build())
+                    .build());
+        }
+        items.add(TransactWriteItem.builder()
+                .delete(Delete.builder()
+                        .tableName(priorityAircraftsDao.getTableName())
+                        .key(priorityAircraftsDao.aircraftPriorityKey(acEntry))
+                        .conditionExpression("attribute_exists(rangeKey)")
+                        .build())
+                .build());
+        // the airport entry carries the arrival time of the latest aircraft in the bucket
+        if (acEntry.getArrivalTime().equals(apEntry.getDate())) {
+            items.add(TransactWriteItem.builder()
+                    .delete(Delete.builder()
+                            .tableName(priorityAircraftsDao.getTableName())
+                            .key(priorityAircraftsDao.airportPriorityKey(apEntry))
+                            .conditionExpression("#date = :date")
+                            .expressionAttributeNames(Collections.singletonMap("#date", "date"))
+                            .expressionAttributeValues(Collections.singletonMap(":date",
+                                    AttributeValue.builder().s(apEntry.getDate()).build()))
+                            .build())
+                    .build());
+        }
+        return items;
+    }
+
+    /**
+     * Changes the special flag of a queued aircraft and moves it to the bucket of its new priority
+     * in a single transaction. The aircraft keeps its arrival time, so it is queued behind the
+     * aircraft that arrived earlier with the same priority. Every write is conditional on what was
+     * read, a concurrent enqueue, dequeue or reprioritization cancels the transaction and the move
+     * is retried.
+     *
+     * @param aircraftId  id of the aircraft to move
+     * @param specialFlag new special flag of the aircraft
+     * @return the aircraft with its new priority
+     * @throws AircraftDoesNotExistException if the aircraft does not exist
+     * @throws UnableToUpdateException       if the aircraft was dequeued or could not be moved
+     *     after retrying
+     */
+    public Aircraft reprioritizeAircraft(final String aircraftId,
+                                         final AircraftSpecialFlag specialFlag) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            final Aircraft aircraft = aircraftDao.loadAircraft(aircraftId);
+            if (aircraft == null) {
+                throw new AircraftDoesNotExistException(
+                        "Aircraft " + aircraftId + " does not exist");
+            }
+            if (AircraftDao.DEQUEUED_PRIORITY_ID.equals(aircraft.getPriorityId())) {
+                throw new UnableToUpdateException(
+                        "Aircraft " + aircraftId + " was already dequeued");
+            }
+            final int prioritySum = AircraftDao.calculatePriority(aircraft.getAircraftType(),
+                    aircraft.getAircraftSize(), Optional.of(specialFlag));
+            final String priorityId = PriorityKey.priorityId(
+                    aircraft.getAirportCode(), prioritySum);
+            try {
+                dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(reprioritizeItems(
+                                aircraft, specialFlag, prioritySum, priorityId))
+                        .build());
+            } catch (TransactionCanceledException e) {
+                logger.debug("reprioritize.lostRace", "aircraftId", aircraftId, "attempt", attempt);
+                if (!Backoff.pause(attempt, BASE_BACKOFF_MILLIS)) {
+                    throw new UnableToUpdateException(
+                            "Interrupted while reprioritizing aircraft " + aircraftId);
+                }
+                continue;
+            } catch (ResourceNotFoundException e) {
+                throw new TableDoesNotExistException(
+                        "Aircraft or PriorityAircrafts table does not exist");
+            } finally {
+                priorityAircraftsDao.invalidateAirportPriorities(aircraft.getAirportCode());
+            }
+            aircraftDao.invalidateCachedAircraft(aircraftId);
+            if (airportStatsDao != null && !priorityId.equals(aircraft.getPriorityId())) {
+                airportStatsDao.recordMoved(aircraft.getAirportCode(), aircraft.getPriorityId(),
+                        priorityId);
+            }
+            return aircraft.toBuilder().priorityId(priorityId).aircraftSpecialFlag(specialFlag)
+                    .build();
+        }
+        throw new UnableToUpdateException("Unable to reprioritize aircraft " + aircraftId
+                + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    private List<TransactWriteItem> reprioritizeItems(final Aircraft aircraft,
+                                                      final AircraftSpecialFlag specialFlag,
+                                                      final int prioritySum,
+                                                      final String priorityId) {
+        final String oldPriorityId = aircraft.getPriorityId();
+        final String arrivalTime = aircraft.getArrivalTime();
+        final List<TransactWriteItem> items = new ArrayList<>(6);
+
+        final Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":oldPriorityId", AttributeValue.builder().s(oldPriorityId).build());
+        values.put(":priorityId", AttributeValue.builder().s(priorityId).build());
+        values.put(":flag", AttributeValue.builder().s(specialFlag.name()).build());
+        values.put(":queueKey", AttributeValue.builder()
+                .s(PriorityKey.queueKey(prioritySum, arrivalTime, aircraft.getAircraftId()))
+                        .build());
+        items.add(TransactWriteItem.builder()
+                .update(Update.builder()
+                        .tableName(aircraftDao.getTableName())
+                        .key(aircraftDao.aircraftKey(aircraft.getAircraftId()))
+                        .updateExpression(
+                                "SET priorityId = :priorityId, aircraftSpecialFlags = :flag, "
+                                + AircraftDao.QUEUE_KEY + " = :queueKey")
+                        .conditionExpression("priorityId = :oldPriorityId")
+                        .expressionAttributeValues(values)
+                        .build())
+                .build());
+        if (priorityId.equals(oldPriorityId)) {
+            // same bucket, e.g. NORMAL replacing a missing flag, only the flag changes
+            return items;
+        }
+
+        final AircraftPriority oldEntry = AircraftPriority.builder()
+                .aircraftId(aircraft.getAircraftId())
+                .priorityId(oldPriorityId)
+                .arrivalTime(arrivalTime)
+                .build();
+        items.add(TransactWriteItem.builder()
+                .delete(Delete.builder()
+                        .tableName(priorityAircraftsDao.getTableName())
+                        .key(priorityAircraftsDao.aircraftPriorityKey(oldEntry))
+                        .conditionExpression("attribute_exists(rangeKey)")
+                        .build())
+                .build());
+        items.add(TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(priorityAircraftsDao.getTableName())
+                        .item(priorityAircraftsDao.createAircraftPriorityItem(
+                                CreateAircraftPriorityRequest.builder()
+                                        .aircraftId(aircraft.getAircraftId())
+                                        .priorityId(priorityId)
+                                        .arrivalTime(arrivalTime)
+                                        .build()))
+                        .conditionExpression("attribute_not_exists(rangeKey)")
+                        .build())
+                .build());
+        items.add(newBucketItem(aircraft.getAirportCode(), priorityId, arrivalTime));
+        // the old bucket carries the arrival time of this aircraft if it was the latest one in it
+        final Optional<AirportPriority> oldBucket = priorityAircraftsDao.loadAirportPriority(
+                aircraft.getAirportCode(), oldPriorityId);
+        if (oldBucket.isPresent() && arrivalTime.equals(oldBucket.get().getDate())) {
+            items.addAll(oldBucketItems(oldBucket.get(), aircraft.getAircraftId()));
+        }
+        return items;
+    }
+
+    private TransactWriteItem newBucketItem(final String airportCode, final String priorityId,
+                                            final String arrivalTime) {
+        final Optional<AirportPriority> bucket = priorityAircraftsDao.loadAirportPriority(
+                airportCode, priorityId);
+        final String date = bucket.map(AirportPriority::getDate)
+                .filter(seen -> seen.compareTo(arrivalTime) > 0)
+                .orElse(arrivalTime);
+        final Put.Builder put = Put.builder()
+                .tableName(priorityAircraftsDao.getTableName())
+                .item(priorityAircraftsDao.updateAirportPriorityItem(
+                        UpdateAirportPriorityRequest.builder()
+                                .airportCode(airportCode)
+                                .priorityId(priorityId)
+                                .date(date)
+                                .build()));
+        if (bucket.isPresent()) {
+            put.conditionExpression("#date = :seen")
+                    .expressionAttributeNames(Collections.singletonMap("#date", "date"))
+                    .expressionAttributeValues(Collections.singletonMap(":seen",
+                            AttributeValue.builder().s(bucket.get().getDate()).build()));
+        } else {
+            put.conditionExpression("attribute_not_exists(rangeKey)");
+        }
+        return TransactWriteItem.builder().put(put.build()).build();
+    }
+
+    private List<TransactWriteItem> oldBucketItems(
+            final AirportPriority oldBucket, final String aircraftId) {
+        final Optional<AircraftPriority> latestOther = priorityAircraftsDao
+                .getLatestAircraftsWithPriorityId(oldBucket.getPriorityId(), 2).stream()
+                .filter(entry -> !aircraftId.equals(entry.getAircraftId()))
+                .findFirst();
+        final Map<String, String> names = Collections.singletonMap("#date", "date");
+        final Map<String, AttributeValue> values = Collections.singletonMap(":date",
+                AttributeValue.builder().s(oldBucket.getDate()).build());
+        if (!latestOther.isPresent()) {
+            return Collections.singletonList(TransactWriteItem.builder()
+                    .delete(Delete.builder()
+                            .tableName(priorityAircraftsDao.getTableName())
+                            .key(priorityAircraftsDao.airportPriorityKey(oldBucket))
+                            .conditionExpression("#date = :date")
+                            .expressionAttributeNames(names)
+                            .expressionAttributeValues(values)
+                            .build())
+                    .build());
+        }
+        final List<TransactWriteItem> items = new ArrayList<>(2);
+        items.add(TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(priorityAircraftsDao.getTableName())
+                        .item(priorityAircraftsDao.updateAirportPriorityItem(
+                                UpdateAirportPriorityRequest.builder()
+                                        .airportCode(oldBucket.getAirportCode())
+                                        .priorityId(oldBucket.getPriorityId())
+                                        .date(latestOther.get().getArrivalTime())
+                                        .build()))
+                        .conditionExpression("#date = :date")
+                        .expressionAttributeNames(names)
+                        .expressionAttributeValues(values)
+                        .build())
+                .build());
+        // the index read is eventually consistent, the entry the bucket falls back to must still
+        // be queued
+        items.add(TransactWriteItem.builder()
+                .conditionCheck(ConditionCheck.builder()
+                        .tableName(priorityAircraftsDao.getTableName())
+                        .key(priorityAircraftsDao.aircraftPriorityKey(latestOther.get()))
+                        .conditionExpression("attribute_exists(rangeKey)")
+                        .build())
+                .build());
+        return items;
+    }
+}
@@ -0,0 +1,13 @@
+package com.varma.airtraffic.control.dao;
+
+import lombok.Value;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * A single put or delete of a BatchWriteItem call together with the table it targets.
+ */
+@Value
+class TableWrite {
+    private final String tableName;
+    private final WriteRequest writeRequest;
+}
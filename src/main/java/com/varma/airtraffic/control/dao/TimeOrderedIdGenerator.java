@@ -0,0 +1,56 @@
+package com.varma.airtraffic.control.dao;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version 7 UUIDs: 48 bits of epoch milliseconds, then a 12 bit counter, then 62 random bits. The
+ * counter makes ids strictly increase within a container without a lock, an overflowing counter
+ * borrows the next millisecond. The random bits come from ThreadLocalRandom, ids are unique but not
+ * unguessable.
+ */
+final class TimeOrderedIdGenerator implements AircraftIdGenerator {
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final long VERSION = 7L << COUNTER_BITS;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    private static final TimeOrderedIdGenerator SYSTEM =
+            new TimeOrderedIdGenerator(Clock.systemUTC());
+
+    private final Clock clock;
+    // epoch millis shifted left by COUNTER_BITS, plus the counter
+    private final AtomicLong lastTimestamp = new AtomicLong();
+
+    TimeOrderedIdGenerator(final Clock clock) {
+        this.clock = clock;
+    }
+
+    static TimeOrderedIdGenerator system() {
+        return SYSTEM;
+    }
+
+    @Override
+    public String nextId() {
+        final long timestamp = nextTimestamp();
+        final long mostSignificantBits =
+                (timestamp >>> COUNTER_BITS) << 16 | VERSION | (timestamp & COUNTER_MASK);
+        final long leastSignificantBits =
+                ThreadLocalRandom.current().nextLong() & RANDOM_MASK | VARIANT;
+        return new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+
+    private long nextTimestamp() {
+        final long now = clock.millis() << COUNTER_BITS;
+        while (true) {
+            final long last = lastTimestamp.get();
+            final long next = Math.max(now, last + 1);
+            if (lastTimestamp.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.varma.airtraffic.control.exception;
+
+public class ThrottledException extends IllegalStateException {
+    public ThrottledException(String message) {
+        super(message);
+    }
+}
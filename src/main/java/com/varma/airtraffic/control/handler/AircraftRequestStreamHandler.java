@@ -1,9 +1,8 @@
 package com.varma.airtraffic.control.handler;
 
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
 import com.varma.airtraffic.control.model.response.ErrorMessage;
-import com.varma.airtraffic.control.model.response.GatewayResponse;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -13,33 +12,61 @@ import java.util.Map;
 public interface AircraftRequestStreamHandler extends RequestStreamHandler {
     int SC_OK = 200;
     int SC_CREATED = 201;
+    int SC_ACCEPTED = 202;
     int SC_BAD_REQUEST = 400;
     int SC_NOT_FOUND = 404;
     int SC_CONFLICT = 409;
     int SC_INTERNAL_SERVER_ERROR = 500;
+    int SC_SERVICE_UNAVAILABLE = 503;
     Map<String, String> APPLICATION_JSON = Collections.singletonMap("Content-Type",
             "application/json");
+    ErrorMessage BODY_WAS_NULL
+            = new ErrorMessage("Body was null", SC_BAD_REQUEST);
     ErrorMessage REQUEST_WAS_NULL_ERROR
             = new ErrorMessage("Request was null", SC_BAD_REQUEST);
     ErrorMessage AIRCRAFT_ID_WAS_NOT_SET
             = new ErrorMessage("Aircraft with given aircraftId is NOT_FOUND", SC_NOT_FOUND);
     ErrorMessage AIRPORT_CODE_WAS_NOT_SET
             = new ErrorMessage("Airport with given code is NOT_FOUND", SC_NOT_FOUND);
+    ErrorMessage REQUIRE_AIRPORT_CODE
+            = new ErrorMessage("Require airportCode to create an airplane entry", SC_BAD_REQUEST);
+    ErrorMessage REQUIRE_AC_TYPE
+            = new ErrorMessage("Require aircraftType to create an airplane entry", SC_BAD_REQUEST);
+    ErrorMessage REQUIRE_AC_SIZE
+            = new ErrorMessage("Require aircraftSize to create an airplane entry", SC_BAD_REQUEST);
 
     /**
      * This method writes a body has invalid JSON response.
-     * @param objectMapper the mapper to use for converting the error response to JSON.
-     * @param output the output stream to write with the mapper.
+     * @param responseWriter the writer to use for converting the error response to JSON.
+     * @param output the output stream to write with the writer.
      * @param details a detailed message describing why the JSON was invalid.
      * @throws IOException if there was an issue converting the ErrorMessage object to JSON.
      */
-    default void writeInvalidJsonInStreamResponse(ObjectMapper objectMapper,
+    default void writeInvalidJsonInStreamResponse(ResponseWriter responseWriter,
                                                   OutputStream output,
                                                   String details) throws IOException {
-        objectMapper.writeValue(output, new GatewayResponse<>(
-                objectMapper.writeValueAsString(new ErrorMessage("Invalid JSON in body: "
-                        + details, SC_BAD_REQUEST)),
-                APPLICATION_JSON, SC_BAD_REQUEST));
+        responseWriter.writeError(output, "Invalid JSON in body: " + details, SC_BAD_REQUEST);
+    }
+
+    /**
+     * Validates the fields required to create an aircraft.
+     * @param request the request to validate.
+     * @return the error to respond with, or null if the request is valid.
+     */
+    default ErrorMessage validateCreateAircraftRequest(final CreateAircraftRequest request) {
+        if (request == null) {
+            return REQUEST_WAS_NULL_ERROR;
+        }
+        if (isNullOrEmpty(request.getAirportCode())) {
+            return REQUIRE_AIRPORT_CODE;
+        }
+        if (isNullOrEmpty(request.getAircraftSize())) {
+            return REQUIRE_AC_SIZE;
+        }
+        if (isNullOrEmpty(request.getAircraftType())) {
+            return REQUIRE_AC_TYPE;
+        }
+        return null;
     }
 
     default boolean isNullOrEmpty(final String string) {
@@ -0,0 +1,78 @@
+package com.varma.airtraffic.control.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.varma.airtraffic.control.config.AirTrafficControlComponent;
+import com.varma.airtraffic.control.config.AirTrafficControlComponents;
+import com.varma.airtraffic.control.dao.AirportStatsDao;
+import com.varma.airtraffic.control.logging.LogContext;
+import com.varma.airtraffic.control.metrics.HandlerMetrics;
+import com.varma.airtraffic.control.metrics.StageTimer;
+import com.varma.airtraffic.control.model.response.AirportStatsResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import javax.inject.Inject;
+
+/**
+ * Returns the queue depth of an airport, per priority and overall, and the arrival of its oldest
+ * aircraft.
+ */
+public class AirportStatsHandler implements AircraftRequestStreamHandler {
+    @Inject
+    ResponseWriter responseWriter;
+    @Inject
+    ApiGatewayEventReader eventReader;
+    @Inject
+    AirportStatsDao airportStatsDao;
+    @Inject
+    HandlerMetrics handlerMetrics;
+
+    private final AirTrafficControlComponent atcComponent;
+
+    public AirportStatsHandler() {
+        this(AirTrafficControlComponents.get());
+    }
+
+    AirportStatsHandler(final AirTrafficControlComponent component) {
+        atcComponent = component;
+        atcComponent.inject(this);
+    }
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output,
+                              Context context) throws IOException {
+        try (LogContext logContext = LogContext.open(context);
+             StageTimer stages = handlerMetrics.start("AirportStats")) {
+            handleRequest(input, output, context, stages);
+        }
+    }
+
+    private void handleRequest(InputStream input, OutputStream output, Context context,
+                               StageTimer stages) throws IOException {
+        final ApiGatewayEvent event;
+        try {
+            event = eventReader.read(input);
+        } catch (JsonProcessingException e) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, e.getMessage());
+            return;
+        }
+        if (event == null) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, "event was null");
+            return;
+        }
+        stages.next(StageTimer.VALIDATE);
+        final String airportCode = event.getPathParameter("airportCode");
+        if (isNullOrEmpty(airportCode)) {
+            responseWriter.writeError(output, AIRPORT_CODE_WAS_NOT_SET, SC_BAD_REQUEST);
+            return;
+        }
+        stages.next(StageTimer.PERSIST);
+        final AirportStatsResponse stats = airportStatsDao.getStats(
+                airportCode.toUpperCase(Locale.ENGLISH));
+        stages.next(StageTimer.SERIALIZE);
+        responseWriter.write(output, stats, SC_OK);
+    }
+}
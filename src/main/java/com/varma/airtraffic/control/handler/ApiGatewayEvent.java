@@ -0,0 +1,29 @@
+package com.varma.airtraffic.control.handler;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * The parts of an API Gateway proxy event the handlers read. Everything else in the event is
+ * skipped while it is parsed.
+ */
+@Getter
+@AllArgsConstructor
+public class ApiGatewayEvent {
+    private final Map<String, String> pathParameters;
+    private final Map<String, String> queryStringParameters;
+    /**
+     * The raw request body, null when the event had none.
+     */
+    private final String body;
+
+    public String getPathParameter(final String name) {
+        return pathParameters.get(name);
+    }
+
+    public String getQueryStringParameter(final String name) {
+        return queryStringParameters.get(name);
+    }
+}
@@ -0,0 +1,112 @@
+package com.varma.airtraffic.control.handler;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads API Gateway proxy events with a single pass of a streaming parser. Only the top level
+ * pathParameters, queryStringParameters and body fields are kept, headers, request context and the
+ * rest of the event are skipped without building a tree.
+ */
+public class ApiGatewayEventReader {
+    private static final String PATH_PARAMETERS = "pathParameters";
+    private static final String QUERY_STRING_PARAMETERS = "queryStringParameters";
+    private static final String BODY = "body";
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<Class<?>, ObjectReader> bodyReaders = new ConcurrentHashMap<>();
+
+    public ApiGatewayEventReader(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads an event.
+     *
+     * @return the event, null if the input was empty or the JSON null
+     * @throws com.fasterxml.jackson.core.JsonProcessingException if the input was not a JSON object
+     */
+    public ApiGatewayEvent read(final InputStream input) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            final JsonToken first = parser.nextToken();
+            if (first == null || first == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (first != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an event object but found " + first);
+            }
+            Map<String, String> pathParameters = Collections.emptyMap();
+            Map<String, String> queryStringParameters = Collections.emptyMap();
+            String body = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                final JsonToken value = parser.nextToken();
+                if (PATH_PARAMETERS.equals(field)) {
+                    pathParameters = readParameters(parser, value);
+                } else if (QUERY_STRING_PARAMETERS.equals(field)) {
+                    queryStringParameters = readParameters(parser, value);
+                } else if (BODY.equals(field)) {
+                    body = readBodyText(parser, value);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new ApiGatewayEvent(pathParameters, queryStringParameters, body);
+        }
+    }
+
+    /**
+     * Binds a request body straight to the given type.
+     *
+     * @return the request, null if the body was the JSON null
+     * @throws com.fasterxml.jackson.core.JsonProcessingException if the body does not map to the
+     *     type
+     */
+    public <T> T readBody(final String body, final Class<T> type) throws IOException {
+        return bodyReaders.computeIfAbsent(type, objectMapper::readerFor).readValue(body);
+    }
+
+    private static Map<String, String> readParameters(final JsonParser parser,
+                                                      final JsonToken value) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return Collections.emptyMap();
+        }
+        final Map<String, String> parameters = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            final JsonToken parameter = parser.nextToken();
+            if (parameter.isScalarValue() && parameter != JsonToken.VALUE_NULL) {
+                parameters.put(name, parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * API Gateway passes the body as a string. A body sent as an inline object, as direct
+     * invocations do, is kept as its JSON text.
+     */
+    private String readBodyText(final JsonParser parser, final JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value.isStructStart()) {
+            return objectMapper.writeValueAsString(parser.readValueAsTree());
+        }
+        return parser.getValueAsString();
+    }
+}
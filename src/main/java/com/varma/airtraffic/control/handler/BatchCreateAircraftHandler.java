@@ -0,0 +1,155 @@
+package com.varma.airtraffic.control.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.varma.airtraffic.control.config.AirTrafficControlComponent;
+import com.varma.airtraffic.control.config.AirTrafficControlComponents;
+import com.varma.airtraffic.control.dao.AirportStatsDao;
+import com.varma.airtraffic.control.dao.BatchEnqueueDao;
+import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import com.varma.airtraffic.control.logging.LogContext;
+import com.varma.airtraffic.control.metrics.HandlerMetrics;
+import com.varma.airtraffic.control.metrics.StageTimer;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.request.BatchCreateAircraftRequest;
+import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
+import com.varma.airtraffic.control.model.response.BatchCreateAircraftResponse;
+import com.varma.airtraffic.control.model.response.BatchCreateAircraftResult;
+import com.varma.airtraffic.control.model.response.ErrorMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.inject.Inject;
+
+public class BatchCreateAircraftHandler implements AircraftRequestStreamHandler {
+    static final int MAX_BATCH_SIZE = 100;
+
+    private static final ErrorMessage REQUIRE_AIRCRAFTS
+            = new ErrorMessage("Require a non empty list of aircrafts", SC_BAD_REQUEST);
+    private static final ErrorMessage BATCH_TOO_LARGE
+            = new ErrorMessage("A batch may contain at most " + MAX_BATCH_SIZE + " aircrafts",
+                    SC_BAD_REQUEST);
+    private static final String COULD_NOT_CREATE_AIRCRAFT =
+            "Unable to write aircraft, retry the item";
+
+    @Inject
+    ResponseWriter responseWriter;
+    @Inject
+    ApiGatewayEventReader eventReader;
+    @Inject
+    BatchEnqueueDao batchEnqueueDao;
+    @Inject
+    AirportStatsDao airportStatsDao;
+    @Inject
+    HandlerMetrics handlerMetrics;
+
+    private final AirTrafficControlComponent atcComponent;
+
+    public BatchCreateAircraftHandler() {
+        this(AirTrafficControlComponents.get());
+    }
+
+    BatchCreateAircraftHandler(final AirTrafficControlComponent component) {
+        atcComponent = component;
+        atcComponent.inject(this);
+    }
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output,
+                              Context context) throws IOException {
+        try (LogContext logContext = LogContext.open(context);
+             StageTimer stages = handlerMetrics.start("BatchCreateAircraft")) {
+            handleRequest(input, output, context, stages);
+        }
+    }
+
+    private void handleRequest(InputStream input, OutputStream output, Context context,
+                               StageTimer stages) throws IOException {
+        final ApiGatewayEvent event;
+        try {
+            event = eventReader.read(input);
+        } catch (JsonProcessingException e) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, e.getMessage());
+            return;
+        }
+        if (event == null) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, "event was null");
+            return;
+        }
+        if (event.getBody() == null) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, "Body was null");
+            return;
+        }
+        final BatchCreateAircraftRequest request;
+        try {
+            request = eventReader.readBody(event.getBody(), BatchCreateAircraftRequest.class);
+        } catch (JsonProcessingException e) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, e.getMessage());
+            return;
+        }
+        stages.next(StageTimer.VALIDATE);
+        if (request == null || request.getAircrafts() == null || request.getAircrafts().isEmpty()) {
+            responseWriter.writeError(output, REQUIRE_AIRCRAFTS, SC_BAD_REQUEST);
+            return;
+        }
+        if (request.getAircrafts().size() > MAX_BATCH_SIZE) {
+            responseWriter.writeError(output, BATCH_TOO_LARGE, SC_BAD_REQUEST);
+            return;
+        }
+
+        final List<BatchCreateAircraftResult> results = new ArrayList<>(
+                request.getAircrafts().size());
+        final List<CreateAircraftRequest> valid = new ArrayList<>();
+        final List<Integer> validIndexes = new ArrayList<>();
+        for (int index = 0; index < request.getAircrafts().size(); index++) {
+            final ErrorMessage validationError = validateCreateAircraftRequest(
+                    request.getAircrafts().get(index));
+            if (validationError != null) {
+                results.add(BatchCreateAircraftResult.builder()
+                        .index(index)
+                        .statusCode(validationError.getStatusCode())
+                        .message(validationError.getMessage())
+                        .build());
+                continue;
+            }
+            results.add(null);
+            valid.add(request.getAircrafts().get(index));
+            validIndexes.add(index);
+        }
+
+        stages.next(StageTimer.PERSIST);
+        if (!valid.isEmpty()) {
+            final List<Optional<Aircraft>> created;
+            try {
+                created = batchEnqueueDao.enqueueAircrafts(valid);
+            } catch (TableDoesNotExistException e) {
+                responseWriter.writeError(output, e.getMessage(), SC_INTERNAL_SERVER_ERROR);
+                return;
+            }
+            final List<Aircraft> enqueued = new ArrayList<>(created.size());
+            created.forEach(aircraft -> aircraft.ifPresent(enqueued::add));
+            airportStatsDao.recordEnqueued(enqueued);
+            for (int i = 0; i < created.size(); i++) {
+                final int index = validIndexes.get(i);
+                results.set(index, created.get(i)
+                        .map(aircraft -> BatchCreateAircraftResult.builder()
+                                .index(index)
+                                .statusCode(SC_CREATED)
+                                .aircraft(aircraft)
+                                .build())
+                        .orElseGet(() -> BatchCreateAircraftResult.builder()
+                                .index(index)
+                                .statusCode(SC_INTERNAL_SERVER_ERROR)
+                                .message(COULD_NOT_CREATE_AIRCRAFT)
+                                .build()));
+            }
+        }
+
+        stages.next(StageTimer.SERIALIZE);
+        responseWriter.write(output, new BatchCreateAircraftResponse(results), SC_OK);
+    }
+}
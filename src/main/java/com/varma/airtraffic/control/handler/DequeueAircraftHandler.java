@@ -1,91 +1,151 @@
 package com.varma.airtraffic.control.handler;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.varma.airtraffic.control.config.AirTrafficControlComponent;
-import com.varma.airtraffic.control.config.DaggerAirTrafficControlComponent;
+import com.varma.airtraffic.control.config.AirTrafficControlComponents;
+import com.varma.airtraffic.control.config.DequeueMode;
 import com.varma.airtraffic.control.dao.AircraftDao;
-import com.varma.airtraffic.control.dao.PriorityAircraftsDao;
+import com.varma.airtraffic.control.dao.AirportQueueIndexDao;
+import com.varma.airtraffic.control.dao.AirportStatsDao;
+import com.varma.airtraffic.control.dao.BatchDequeueDao;
+import com.varma.airtraffic.control.dao.PriorityQueueStore;
+import com.varma.airtraffic.control.dao.QueueTransactionsDao;
 import com.varma.airtraffic.control.exception.AircraftDoesNotExistException;
 import com.varma.airtraffic.control.exception.AirportWithEmptyAircraftsException;
+import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import com.varma.airtraffic.control.exception.ThrottledException;
 import com.varma.airtraffic.control.exception.UnableToDeleteException;
 import com.varma.airtraffic.control.exception.UnableToUpdateException;
+import com.varma.airtraffic.control.logging.LogContext;
+import com.varma.airtraffic.control.metrics.HandlerMetrics;
+import com.varma.airtraffic.control.metrics.StageTimer;
 import com.varma.airtraffic.control.model.Aircraft;
 import com.varma.airtraffic.control.model.AircraftPriority;
-import com.varma.airtraffic.control.model.AirportPriority;
 import com.varma.airtraffic.control.model.response.ErrorMessage;
-import com.varma.airtraffic.control.model.response.GatewayResponse;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
 
-import javax.inject.Inject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.inject.Inject;
 
 public class DequeueAircraftHandler implements AircraftRequestStreamHandler {
+    static final int MAX_DEQUEUE_COUNT = 100;
+
+    private static final ErrorMessage INVALID_COUNT
+            = new ErrorMessage("count must be a number between 1 and " + MAX_DEQUEUE_COUNT,
+                    SC_BAD_REQUEST);
+
     @Inject
-    ObjectMapper objectMapper;
+    ResponseWriter responseWriter;
+    @Inject
+    ApiGatewayEventReader eventReader;
     @Inject
     AircraftDao aircraftDao;
     @Inject
-    PriorityAircraftsDao priorityAircraftsDao;
+    PriorityQueueStore priorityQueueStore;
+    @Inject
+    QueueTransactionsDao queueTransactionsDao;
+    @Inject
+    BatchDequeueDao batchDequeueDao;
+    @Inject
+    AirportQueueIndexDao airportQueueIndexDao;
+    @Inject
+    DequeueMode dequeueMode;
+    @Inject
+    AirportStatsDao airportStatsDao;
+    @Inject
+    HandlerMetrics handlerMetrics;
 
     private final AirTrafficControlComponent atcComponent;
-    private final Log logger = LogFactory.getLog(DequeueAircraftHandler.class);
 
     public DequeueAircraftHandler() {
-        atcComponent = DaggerAirTrafficControlComponent.builder().build();
+        this(AirTrafficControlComponents.get());
+    }
+
+    DequeueAircraftHandler(final AirTrafficControlComponent component) {
+        atcComponent = component;
         atcComponent.inject(this);
     }
 
     @Override
     public void handleRequest(InputStream input, OutputStream output,
                               Context context) throws IOException {
-        final JsonNode event;
+        try (LogContext logContext = LogContext.open(context);
+             StageTimer stages = handlerMetrics.start("DequeueAircraft")) {
+            handleRequest(input, output, context, stages);
+        }
+    }
+
+    private void handleRequest(InputStream input, OutputStream output, Context context,
+                               StageTimer stages) throws IOException {
+        final ApiGatewayEvent event;
         try {
-            event = objectMapper.readTree(input);
-        } catch (JsonMappingException e) {
-            writeInvalidJsonInStreamResponse(objectMapper, output, e.getMessage());
+            event = eventReader.read(input);
+        } catch (JsonProcessingException e) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, e.getMessage());
             return;
         }
         if (event == null) {
-            writeInvalidJsonInStreamResponse(objectMapper, output, "event was null");
+            writeInvalidJsonInStreamResponse(responseWriter, output, "event was null");
             return;
         }
-        final JsonNode pathParameterMap = event.findValue("pathParameters");
-        final String airportCode = Optional.ofNullable(pathParameterMap)
-                .map(mapNode -> mapNode.get("airportCode"))
-                .map(JsonNode::asText)
-                .orElse(null);
+        stages.next(StageTimer.VALIDATE);
+        final String airportCode = event.getPathParameter("airportCode");
         if (isNullOrEmpty(airportCode)) {
-            objectMapper.writeValue(output,
-                    new GatewayResponse<>(
-                            objectMapper.writeValueAsString(AIRPORT_CODE_WAS_NOT_SET),
-                            APPLICATION_JSON, SC_BAD_REQUEST));
+            responseWriter.writeError(output, AIRPORT_CODE_WAS_NOT_SET, SC_BAD_REQUEST);
             return;
         }
+        final String count = event.getQueryStringParameter("count");
+        int dequeueCount = 0;
+        if (count != null) {
+            try {
+                dequeueCount = Integer.parseInt(count);
+            } catch (NumberFormatException e) {
+                // not a number, rejected with the out of range counts
+            }
+            if (dequeueCount < 1 || dequeueCount > MAX_DEQUEUE_COUNT) {
+                responseWriter.writeError(output, INVALID_COUNT, SC_BAD_REQUEST);
+                return;
+            }
+        }
+        stages.next(StageTimer.PERSIST);
         String errorMessage = null;
         try {
-            final AirportPriority apEntry = priorityAircraftsDao.getHighestPriorityIdForAirport(airportCode);
-            logger.debug("Airport" + airportCode + "has the highest priority" + apEntry.getPriorityId());
-            final AircraftPriority acEntry = priorityAircraftsDao.getOldestAircraftIdWithPriorityId(apEntry.getPriorityId());
-            logger.debug("Aircraft with highest priority to be dequeue is:" + acEntry.getAircraftId());
-
-            final Aircraft aircraft = aircraftDao.deleteAircraft(acEntry.getAircraftId());
-
-            priorityAircraftsDao.deletePriorityAircraft(acEntry);
-            if (aircraft.getArrivalTime().equals(apEntry.getDate())) {
-                priorityAircraftsDao.deleteAirportPriorityEntry(apEntry);
+            if (count == null) {
+                final Aircraft aircraft = dequeueAircraft(airportCode);
+                airportStatsDao.recordDequeued(Collections.singletonList(aircraft));
+                stages.next(StageTimer.SERIALIZE);
+                responseWriter.write(output, aircraft, SC_OK);
+                return;
             }
-
-            objectMapper.writeValue(output,
-                    new GatewayResponse<>(
-                            objectMapper.writeValueAsString(aircraft),
-                            APPLICATION_JSON, SC_OK));
+            final List<Aircraft> aircrafts;
+            if (dequeueCount > 1 && dequeueMode == DequeueMode.STANDARD) {
+                aircrafts = batchDequeueDao.dequeueAircrafts(airportCode, dequeueCount);
+            } else {
+                // the transactional and indexed modes keep their guarantees one aircraft at a time
+                aircrafts = new ArrayList<>(dequeueCount);
+                aircrafts.add(dequeueAircraft(airportCode));
+                try {
+                    while (aircrafts.size() < dequeueCount) {
+                        aircrafts.add(dequeueAircraft(airportCode));
+                    }
+                } catch (AirportWithEmptyAircraftsException e) {
+                    // fewer than count aircraft were queued
+                } catch (AircraftDoesNotExistException | UnableToDeleteException
+                        | UnableToUpdateException | ThrottledException
+                        | TableDoesNotExistException e) {
+                    // the aircraft dequeued so far are already gone from the queue, so they are
+                    // returned instead of the error. Otherwise they would be lost
+                }
+            }
+            airportStatsDao.recordDequeued(aircrafts);
+            stages.next(StageTimer.SERIALIZE);
+            responseWriter.write(output, aircrafts, SC_OK);
+            return;
         } catch (AircraftDoesNotExistException e) {
             errorMessage = e.getMessage();
         } catch (AirportWithEmptyAircraftsException e) {
@@ -94,11 +154,23 @@ public class DequeueAircraftHandler implements AircraftRequestStreamHandler {
             errorMessage = e.getMessage();
         } catch (UnableToUpdateException e) {
             errorMessage = e.getMessage();
+        } catch (ThrottledException e) {
+            responseWriter.writeError(output, e.getMessage(), SC_SERVICE_UNAVAILABLE);
+            return;
+        } catch (TableDoesNotExistException e) {
+            responseWriter.writeError(output, e.getMessage(), SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+        responseWriter.writeError(output, errorMessage, SC_NOT_FOUND);
+    }
+
+    private Aircraft dequeueAircraft(final String airportCode) {
+        if (dequeueMode == DequeueMode.INDEXED) {
+            return airportQueueIndexDao.dequeueAircraft(airportCode);
+        } else if (dequeueMode == DequeueMode.TRANSACTIONAL) {
+            return queueTransactionsDao.dequeueAircraft(airportCode);
         }
-        objectMapper.writeValue(output,
-                new GatewayResponse<>(
-                        objectMapper.writeValueAsString(
-                                new ErrorMessage(errorMessage, SC_NOT_FOUND)),
-                        APPLICATION_JSON, SC_NOT_FOUND));
+        final AircraftPriority acEntry = priorityQueueStore.dequeue(airportCode);
+        return aircraftDao.deleteAircraft(acEntry.getAircraftId());
     }
 }
\ No newline at end of file
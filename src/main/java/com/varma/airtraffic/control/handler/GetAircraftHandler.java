@@ -1,73 +1,76 @@
 package com.varma.airtraffic.control.handler;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.varma.airtraffic.control.config.AirTrafficControlComponent;
-import com.varma.airtraffic.control.config.DaggerAirTrafficControlComponent;
+import com.varma.airtraffic.control.config.AirTrafficControlComponents;
 import com.varma.airtraffic.control.dao.AircraftDao;
 import com.varma.airtraffic.control.exception.AircraftDoesNotExistException;
+import com.varma.airtraffic.control.logging.LogContext;
+import com.varma.airtraffic.control.metrics.HandlerMetrics;
+import com.varma.airtraffic.control.metrics.StageTimer;
 import com.varma.airtraffic.control.model.Aircraft;
-import com.varma.airtraffic.control.model.response.ErrorMessage;
-import com.varma.airtraffic.control.model.response.GatewayResponse;
 
 import javax.inject.Inject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Optional;
 
 public class GetAircraftHandler implements AircraftRequestStreamHandler {
     @Inject
-    ObjectMapper objectMapper;
+    ResponseWriter responseWriter;
+    @Inject
+    ApiGatewayEventReader eventReader;
     @Inject
     AircraftDao aircraftDao;
+    @Inject
+    HandlerMetrics handlerMetrics;
     private final AirTrafficControlComponent atcComponent;
 
     public GetAircraftHandler() {
-        atcComponent = DaggerAirTrafficControlComponent.builder().build();
+        this(AirTrafficControlComponents.get());
+    }
+
+    GetAircraftHandler(final AirTrafficControlComponent component) {
+        atcComponent = component;
         atcComponent.inject(this);
     }
 
     @Override
     public void handleRequest(InputStream input, OutputStream output,
                               Context context) throws IOException {
-        final JsonNode event;
+        try (LogContext logContext = LogContext.open(context);
+             StageTimer stages = handlerMetrics.start("GetAircraft")) {
+            handleRequest(input, output, context, stages);
+        }
+    }
+
+    private void handleRequest(InputStream input, OutputStream output, Context context,
+                               StageTimer stages) throws IOException {
+        final ApiGatewayEvent event;
         try {
-            event = objectMapper.readTree(input);
-        } catch (JsonMappingException e) {
-            writeInvalidJsonInStreamResponse(objectMapper, output, e.getMessage());
+            event = eventReader.read(input);
+        } catch (JsonProcessingException e) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, e.getMessage());
             return;
         }
         if (event == null) {
-            writeInvalidJsonInStreamResponse(objectMapper, output, "event was null");
+            writeInvalidJsonInStreamResponse(responseWriter, output, "event was null");
             return;
         }
-        final JsonNode pathParameterMap = event.findValue("pathParameters");
-        final String aircraftId = Optional.ofNullable(pathParameterMap)
-                .map(mapNode -> mapNode.get("aircraftId"))
-                .map(JsonNode::asText)
-                .orElse(null);
+        stages.next(StageTimer.VALIDATE);
+        final String aircraftId = event.getPathParameter("aircraftId");
         if (isNullOrEmpty(aircraftId)) {
-            objectMapper.writeValue(output,
-                    new GatewayResponse<>(
-                            objectMapper.writeValueAsString(AIRCRAFT_ID_WAS_NOT_SET),
-                            APPLICATION_JSON, SC_BAD_REQUEST));
+            responseWriter.writeError(output, AIRCRAFT_ID_WAS_NOT_SET, SC_BAD_REQUEST);
             return;
         }
+        stages.next(StageTimer.PERSIST);
         try {
             Aircraft aircraft = aircraftDao.getAircraft(aircraftId);
-            objectMapper.writeValue(output,
-                    new GatewayResponse<>(
-                            objectMapper.writeValueAsString(aircraft),
-                            APPLICATION_JSON, SC_OK));
+            stages.next(StageTimer.SERIALIZE);
+            responseWriter.write(output, aircraft, SC_OK);
         } catch (AircraftDoesNotExistException e) {
-            objectMapper.writeValue(output,
-                    new GatewayResponse<>(
-                            objectMapper.writeValueAsString(
-                                    new ErrorMessage(e.getMessage(), SC_NOT_FOUND)),
-                            APPLICATION_JSON, SC_NOT_FOUND));
+            responseWriter.writeError(output, e.getMessage(), SC_NOT_FOUND);
         }
     }
 }
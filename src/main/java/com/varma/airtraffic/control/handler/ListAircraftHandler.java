@@ -0,0 +1,142 @@
+package com.varma.airtraffic.control.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.varma.airtraffic.control.config.AirTrafficControlComponent;
+import com.varma.airtraffic.control.config.AirTrafficControlComponents;
+import com.varma.airtraffic.control.dao.AircraftSearchDao;
+import com.varma.airtraffic.control.logging.LogContext;
+import com.varma.airtraffic.control.metrics.HandlerMetrics;
+import com.varma.airtraffic.control.metrics.StageTimer;
+import com.varma.airtraffic.control.model.AircraftSize;
+import com.varma.airtraffic.control.model.AircraftSpecialFlag;
+import com.varma.airtraffic.control.model.AircraftType;
+import com.varma.airtraffic.control.model.request.ListAircraftRequest;
+import com.varma.airtraffic.control.model.response.ErrorMessage;
+import com.varma.airtraffic.control.model.response.ListAircraftResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import javax.inject.Inject;
+
+/**
+ * Lists the aircraft of an airport, or of all airports when no airportCode is given, one page per
+ * call.
+ */
+public class ListAircraftHandler implements AircraftRequestStreamHandler {
+    static final int MAX_LIMIT = 100;
+    static final int DEFAULT_LIMIT = 25;
+    static final int DEFAULT_SEGMENTS = 4;
+
+    private static final ErrorMessage INVALID_LIMIT
+            = new ErrorMessage("limit must be a number between 1 and " + MAX_LIMIT, SC_BAD_REQUEST);
+    private static final ErrorMessage INVALID_FILTER
+            = new ErrorMessage(
+                    "aircraftType, aircraftSize or aircraftSpecialFlag is not a known value",
+                    SC_BAD_REQUEST);
+
+    @Inject
+    ResponseWriter responseWriter;
+    @Inject
+    ApiGatewayEventReader eventReader;
+    @Inject
+    AircraftSearchDao aircraftSearchDao;
+    @Inject
+    HandlerMetrics handlerMetrics;
+
+    private final AirTrafficControlComponent atcComponent;
+
+    public ListAircraftHandler() {
+        this(AirTrafficControlComponents.get());
+    }
+
+    ListAircraftHandler(final AirTrafficControlComponent component) {
+        atcComponent = component;
+        atcComponent.inject(this);
+    }
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output,
+                              Context context) throws IOException {
+        try (LogContext logContext = LogContext.open(context);
+             StageTimer stages = handlerMetrics.start("ListAircraft")) {
+            handleRequest(input, output, context, stages);
+        }
+    }
+
+    private void handleRequest(InputStream input, OutputStream output, Context context,
+                               StageTimer stages) throws IOException {
+        final ApiGatewayEvent event;
+        try {
+            event = eventReader.read(input);
+        } catch (JsonProcessingException e) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, e.getMessage());
+            return;
+        }
+        if (event == null) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, "event was null");
+            return;
+        }
+        stages.next(StageTimer.VALIDATE);
+        final Integer limit = parseCount(event.getQueryStringParameter("limit"), DEFAULT_LIMIT);
+        final Integer segments = parseCount(event.getQueryStringParameter("segments"),
+                DEFAULT_SEGMENTS);
+        if (limit == null || segments == null) {
+            responseWriter.writeError(output, INVALID_LIMIT, SC_BAD_REQUEST);
+            return;
+        }
+        final ListAircraftRequest request;
+        try {
+            final String airportCode = event.getQueryStringParameter("airportCode");
+            request = ListAircraftRequest.builder()
+                    .airportCode(isNullOrEmpty(airportCode) ? null
+                            : airportCode.toUpperCase(Locale.ENGLISH))
+                    .aircraftType(parseEnum(AircraftType.class,
+                            event.getQueryStringParameter("aircraftType")))
+                    .aircraftSize(parseEnum(AircraftSize.class,
+                            event.getQueryStringParameter("aircraftSize")))
+                    .aircraftSpecialFlag(parseEnum(AircraftSpecialFlag.class,
+                            event.getQueryStringParameter("aircraftSpecialFlag")))
+                    .limit(limit)
+                    .segments(Math.min(segments, limit))
+                    .cursor(event.getQueryStringParameter("cursor"))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            responseWriter.writeError(output, INVALID_FILTER, SC_BAD_REQUEST);
+            return;
+        }
+        stages.next(StageTimer.PERSIST);
+        try {
+            final ListAircraftResponse page = aircraftSearchDao.listAircrafts(request);
+            stages.next(StageTimer.SERIALIZE);
+            responseWriter.write(output, page, SC_OK);
+        } catch (IllegalArgumentException e) {
+            responseWriter.writeError(output, "Invalid cursor or segments: " + e.getMessage(),
+                    SC_BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Parses a count parameter.
+     *
+     * @return the parameter, the default if it is absent, or null if it is not between 1 and
+     *     MAX_LIMIT
+     */
+    private static Integer parseCount(final String value, final int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.matches("\\d{1,3}")
+                && Integer.parseInt(value) >= 1 && Integer.parseInt(value) <= MAX_LIMIT) {
+            return Integer.parseInt(value);
+        }
+        return null;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(final Class<E> type, final String value) {
+        return value == null || value.isEmpty() ? null
+                : Enum.valueOf(type, value.toUpperCase(Locale.ENGLISH));
+    }
+}
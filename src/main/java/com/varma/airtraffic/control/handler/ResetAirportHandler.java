@@ -0,0 +1,96 @@
+package com.varma.airtraffic.control.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.varma.airtraffic.control.config.AirTrafficControlComponent;
+import com.varma.airtraffic.control.config.AirTrafficControlComponents;
+import com.varma.airtraffic.control.dao.AirportResetDao;
+import com.varma.airtraffic.control.dao.AirportStatsDao;
+import com.varma.airtraffic.control.logging.LogContext;
+import com.varma.airtraffic.control.metrics.HandlerMetrics;
+import com.varma.airtraffic.control.metrics.StageTimer;
+import com.varma.airtraffic.control.model.response.AirportResetResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import javax.inject.Inject;
+
+/**
+ * Reboots an airport by deleting all of its queued aircraft. Responds 202 when the Lambda ran out
+ * of time before the airport was empty, calling the endpoint again continues the reset.
+ */
+public class ResetAirportHandler implements AircraftRequestStreamHandler {
+    // time kept back from the Lambda timeout to finish the running batches and write the response
+    static final long TIMEOUT_MARGIN_MILLIS = 5_000;
+
+    @Inject
+    ResponseWriter responseWriter;
+    @Inject
+    ApiGatewayEventReader eventReader;
+    @Inject
+    AirportResetDao airportResetDao;
+    @Inject
+    AirportStatsDao airportStatsDao;
+    @Inject
+    HandlerMetrics handlerMetrics;
+
+    private final AirTrafficControlComponent atcComponent;
+
+    public ResetAirportHandler() {
+        this(AirTrafficControlComponents.get());
+    }
+
+    ResetAirportHandler(final AirTrafficControlComponent component) {
+        atcComponent = component;
+        atcComponent.inject(this);
+    }
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output,
+                              Context context) throws IOException {
+        try (LogContext logContext = LogContext.open(context);
+             StageTimer stages = handlerMetrics.start("ResetAirport")) {
+            handleRequest(input, output, context, stages);
+        }
+    }
+
+    private void handleRequest(InputStream input, OutputStream output, Context context,
+                               StageTimer stages) throws IOException {
+        final ApiGatewayEvent event;
+        try {
+            event = eventReader.read(input);
+        } catch (JsonProcessingException e) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, e.getMessage());
+            return;
+        }
+        if (event == null) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, "event was null");
+            return;
+        }
+        stages.next(StageTimer.VALIDATE);
+        final String airportCode = event.getPathParameter("airportCode");
+        if (isNullOrEmpty(airportCode)) {
+            responseWriter.writeError(output, AIRPORT_CODE_WAS_NOT_SET, SC_BAD_REQUEST);
+            return;
+        }
+        stages.next(StageTimer.PERSIST);
+        final AirportResetResponse response = airportResetDao.resetAirport(
+                airportCode.toUpperCase(Locale.ENGLISH), deadlineMillis(context));
+        if (response.isComplete()) {
+            airportStatsDao.clear(response.getAirportCode());
+        }
+        stages.next(StageTimer.SERIALIZE);
+        responseWriter.write(output, response, response.isComplete() ? SC_OK : SC_ACCEPTED);
+    }
+
+    private static long deadlineMillis(final Context context) {
+        // local invocations report no remaining time, they run until the airport is empty
+        if (context == null || context.getRemainingTimeInMillis() <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return System.currentTimeMillis()
+                + context.getRemainingTimeInMillis() - TIMEOUT_MARGIN_MILLIS;
+    }
+}
@@ -0,0 +1,100 @@
+package com.varma.airtraffic.control.handler;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.airtraffic.control.model.response.ErrorMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Writes API Gateway proxy responses. The envelope is generated straight onto the output stream
+ * instead of through a GatewayResponse, and responses of constant error messages are encoded once.
+ */
+public class ResponseWriter {
+    private static final SerializedString BODY = new SerializedString("body");
+    private static final SerializedString HEADERS = new SerializedString("headers");
+    private static final SerializedString STATUS_CODE = new SerializedString("statusCode");
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<ErrorMessage, EncodedResponse> encodedErrors =
+            new ConcurrentHashMap<>();
+
+    public ResponseWriter(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes a response with the JSON of the given value as its body.
+     */
+    public void write(final OutputStream output, final Object body,
+                      final int statusCode) throws IOException {
+        writeResponse(output, objectMapper.writeValueAsString(body), statusCode);
+    }
+
+    /**
+     * Writes the response of a constant error message. The response is encoded on first use and the
+     * same bytes are written on every later one, so only pass messages that are not built per
+     * request.
+     */
+    public void writeError(final OutputStream output, final ErrorMessage error,
+                           final int statusCode)
+            throws IOException {
+        EncodedResponse response = encodedErrors.get(error);
+        if (response == null || response.statusCode != statusCode) {
+            response = new EncodedResponse(statusCode, encode(error, statusCode));
+            encodedErrors.putIfAbsent(error, response);
+        }
+        try (OutputStream target = output) {
+            target.write(response.bytes);
+        }
+    }
+
+    /**
+     * Writes the response of an error message built for this request.
+     */
+    public void writeError(final OutputStream output, final String message, final int statusCode)
+            throws IOException {
+        write(output, new ErrorMessage(message, statusCode), statusCode);
+    }
+
+    private byte[] encode(final ErrorMessage error, final int statusCode) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        write(bytes, error, statusCode);
+        return bytes.toByteArray();
+    }
+
+    private void writeResponse(final OutputStream output, final String body, final int statusCode)
+            throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.writeStartObject();
+            generator.writeFieldName(BODY);
+            generator.writeString(body);
+            generator.writeFieldName(HEADERS);
+            generator.writeStartObject();
+            for (Map.Entry<String, String> header
+                    : AircraftRequestStreamHandler.APPLICATION_JSON.entrySet()) {
+                generator.writeStringField(header.getKey(), header.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeFieldName(STATUS_CODE);
+            generator.writeNumber(statusCode);
+            generator.writeEndObject();
+        }
+    }
+
+    private static final class EncodedResponse {
+        private final int statusCode;
+        private final byte[] bytes;
+
+        private EncodedResponse(final int statusCode, final byte[] bytes) {
+            this.statusCode = statusCode;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.varma.airtraffic.control.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.varma.airtraffic.control.config.AirTrafficControlComponent;
+import com.varma.airtraffic.control.config.AirTrafficControlComponents;
+import com.varma.airtraffic.control.config.DequeueMode;
+import com.varma.airtraffic.control.dao.AirportQueueIndexDao;
+import com.varma.airtraffic.control.dao.InMemoryPriorityQueueStore;
+import com.varma.airtraffic.control.dao.PriorityQueueStore;
+import com.varma.airtraffic.control.dao.QueueTransactionsDao;
+import com.varma.airtraffic.control.exception.AircraftDoesNotExistException;
+import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import com.varma.airtraffic.control.exception.UnableToUpdateException;
+import com.varma.airtraffic.control.logging.LogContext;
+import com.varma.airtraffic.control.metrics.HandlerMetrics;
+import com.varma.airtraffic.control.metrics.StageTimer;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.request.UpdateAircraftRequest;
+import com.varma.airtraffic.control.model.response.ErrorMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import javax.inject.Inject;
+
+/**
+ * Moves a queued aircraft to the priority of a new special flag, e.g. promotes it on an emergency.
+ */
+public class UpdateAircraftHandler implements AircraftRequestStreamHandler {
+    private static final ErrorMessage REQUIRE_AC_SPECIAL_FLAG
+            = new ErrorMessage("Require aircraftSpecialFlag to update an airplane entry",
+                    SC_BAD_REQUEST);
+    private static final ErrorMessage MEMORY_STORE_NOT_SUPPORTED
+            = new ErrorMessage(
+                    "The memory priority queue store does not support updating an airplane entry",
+                    SC_BAD_REQUEST);
+
+    @Inject
+    ResponseWriter responseWriter;
+    @Inject
+    ApiGatewayEventReader eventReader;
+    @Inject
+    QueueTransactionsDao queueTransactionsDao;
+    @Inject
+    AirportQueueIndexDao airportQueueIndexDao;
+    @Inject
+    PriorityQueueStore priorityQueueStore;
+    @Inject
+    DequeueMode dequeueMode;
+    @Inject
+    HandlerMetrics handlerMetrics;
+
+    private final AirTrafficControlComponent atcComponent;
+
+    public UpdateAircraftHandler() {
+        this(AirTrafficControlComponents.get());
+    }
+
+    UpdateAircraftHandler(final AirTrafficControlComponent component) {
+        atcComponent = component;
+        atcComponent.inject(this);
+    }
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output,
+                              Context context) throws IOException {
+        try (LogContext logContext = LogContext.open(context);
+             StageTimer stages = handlerMetrics.start("UpdateAircraft")) {
+            handleRequest(input, output, context, stages);
+        }
+    }
+
+    private void handleRequest(InputStream input, OutputStream output, Context context,
+                               StageTimer stages) throws IOException {
+        final ApiGatewayEvent event;
+        try {
+            event = eventReader.read(input);
+        } catch (JsonProcessingException e) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, e.getMessage());
+            return;
+        }
+        if (event == null) {
+            writeInvalidJsonInStreamResponse(responseWriter, output, "event was null");
+            return;
+        }
+        final String aircraftId = event.getPathParameter("aircraftId");
+        if (isNullOrEmpty(aircraftId)) {
+            responseWriter.writeError(output, AIRCRAFT_ID_WAS_NOT_SET, SC_BAD_REQUEST);
+            return;
+        }
+        if (event.getBody() == null) {
+            responseWriter.writeError(output, BODY_WAS_NULL, SC_BAD_REQUEST);
+            return;
+        }
+        final UpdateAircraftRequest request;
+        try {
+            request = eventReader.readBody(event.getBody(), UpdateAircraftRequest.class);
+        } catch (JsonProcessingException e) {
+            responseWriter.writeError(output, "Invalid JSON in body: " + e.getMessage(),
+                    SC_BAD_REQUEST);
+            return;
+        }
+        stages.next(StageTimer.VALIDATE);
+        if (request == null) {
+            responseWriter.writeError(output, REQUEST_WAS_NULL_ERROR, SC_BAD_REQUEST);
+            return;
+        }
+        if (isNullOrEmpty(request.getAircraftSpecialFlag())) {
+            responseWriter.writeError(output, REQUIRE_AC_SPECIAL_FLAG, SC_BAD_REQUEST);
+            return;
+        }
+        // the memory store keeps no PriorityAircrafts entries the transactional move could rewrite
+        if (priorityQueueStore instanceof InMemoryPriorityQueueStore) {
+            responseWriter.writeError(output, MEMORY_STORE_NOT_SUPPORTED, SC_BAD_REQUEST);
+            return;
+        }
+        stages.next(StageTimer.PERSIST);
+        try {
+            final Aircraft aircraft;
+            if (dequeueMode == DequeueMode.INDEXED) {
+                aircraft = airportQueueIndexDao.reprioritizeAircraft(
+                        aircraftId, request.getAircraftSpecialFlag());
+            } else {
+                aircraft = queueTransactionsDao.reprioritizeAircraft(
+                        aircraftId, request.getAircraftSpecialFlag());
+            }
+            stages.next(StageTimer.SERIALIZE);
+            responseWriter.write(output, aircraft, SC_OK);
+        } catch (AircraftDoesNotExistException e) {
+            responseWriter.writeError(output, e.getMessage(), SC_NOT_FOUND);
+        } catch (UnableToUpdateException e) {
+            responseWriter.writeError(output, e.getMessage(), SC_CONFLICT);
+        } catch (TableDoesNotExistException e) {
+            responseWriter.writeError(output, e.getMessage(), SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.varma.airtraffic.control.logging;
+
+import com.amazonaws.services.lambda.runtime.Context;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * What every log line of an invocation carries: the Lambda request id, and whether the invocation
+ * was sampled to log its debug events although debug logging is off. Bound to the thread that
+ * handles the invocation, so a callback completing on an SDK thread logs without it.
+ */
+public final class LogContext implements AutoCloseable {
+    // fraction of the invocations that log their debug events, 0 disables sampling
+    private static final double DEBUG_SAMPLE_RATE = Double.parseDouble(Optional.ofNullable(
+            System.getenv("LOG_DEBUG_SAMPLE_RATE")).orElse("0"));
+    private static final ThreadLocal<LogContext> CURRENT = new ThreadLocal<>();
+
+    private final String requestId;
+    private final boolean sampled;
+    private final LogContext previous;
+
+    private LogContext(final String requestId, final boolean sampled) {
+        this.requestId = requestId;
+        this.sampled = sampled;
+        this.previous = CURRENT.get();
+        CURRENT.set(this);
+    }
+
+    /**
+     * Binds an invocation to the current thread until the returned context is closed.
+     *
+     * @param context Lambda context of the invocation, null for local invocations
+     */
+    public static LogContext open(final Context context) {
+        return new LogContext(context == null ? null : context.getAwsRequestId(),
+                DEBUG_SAMPLE_RATE > 0
+                        && ThreadLocalRandom.current().nextDouble() < DEBUG_SAMPLE_RATE);
+    }
+
+    static LogContext open(final String requestId, final boolean sampled) {
+        return new LogContext(requestId, sampled);
+    }
+
+    static String requestId() {
+        final LogContext current = CURRENT.get();
+        return current == null ? null : current.requestId;
+    }
+
+    static boolean isSampled() {
+        if (DEBUG_SAMPLE_RATE <= 0) {
+            return false;
+        }
+        final LogContext current = CURRENT.get();
+        return current != null && current.sampled;
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
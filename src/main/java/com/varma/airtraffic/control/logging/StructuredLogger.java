@@ -0,0 +1,181 @@
+package com.varma.airtraffic.control.logging;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * Logs events as one JSON object per line: the level, the event name, the request id of the
+ * invocation and the key/value pairs of the event. Nothing is formatted unless the level is
+ * enabled, and a value given as a {@link Supplier} is only computed then, so a disabled debug event
+ * costs a level check.
+ *
+ * <p>Debug events of an invocation sampled by {@link LogContext} are logged at info level, with
+ * {@code "sampled":true}, when debug logging is off. A failure is logged as its class and message,
+ * and its stack trace is always passed on with the line.
+ */
+public final class StructuredLogger {
+    private static final String DEBUG = "DEBUG";
+    private static final String INFO = "INFO";
+    private static final String WARN = "WARN";
+    private static final String ERROR = "ERROR";
+
+    private final Log log;
+
+    StructuredLogger(final Log log) {
+        this.log = log;
+    }
+
+    public static StructuredLogger getLogger(final Class<?> type) {
+        return new StructuredLogger(LogFactory.getLog(type));
+    }
+
+    public boolean isDebugEnabled() {
+        return log.isDebugEnabled() || LogContext.isSampled();
+    }
+
+    /**
+     * Logs a debug event with one key and value, when debug logging or sampling is on.
+     */
+    public void debug(final String event, final String key, final Object value) {
+        if (isDebugEnabled()) {
+            logDebug(format(DEBUG, event, null, key, value));
+        }
+    }
+
+    /**
+     * Logs a debug event with two keys and values, when debug logging or sampling is on.
+     */
+    public void debug(final String event, final String key1, final Object value1,
+                      final String key2, final Object value2) {
+        if (isDebugEnabled()) {
+            logDebug(format(DEBUG, event, null, key1, value1, key2, value2));
+        }
+    }
+
+    /**
+     * Logs a debug event with three keys and values, when debug logging or sampling is on.
+     */
+    public void debug(final String event, final String key1, final Object value1,
+                      final String key2, final Object value2,
+                      final String key3, final Object value3) {
+        if (isDebugEnabled()) {
+            logDebug(format(DEBUG, event, null, key1, value1, key2, value2, key3, value3));
+        }
+    }
+
+    /**
+     * Logs an info event.
+     *
+     * @param keyValues alternating keys and values
+     */
+    public void info(final String event, final Object... keyValues) {
+        if (log.isInfoEnabled()) {
+            log.info(format(INFO, event, null, keyValues));
+        }
+    }
+
+    /**
+     * Logs a warning event with the error that caused it.
+     *
+     * @param keyValues alternating keys and values
+     */
+    public void warn(final String event, final Throwable error, final Object... keyValues) {
+        if (log.isWarnEnabled()) {
+            log.warn(format(WARN, event, error, keyValues), error);
+        }
+    }
+
+    /**
+     * Logs an error event with the error that caused it.
+     *
+     * @param keyValues alternating keys and values
+     */
+    public void error(final String event, final Throwable error, final Object... keyValues) {
+        if (log.isErrorEnabled()) {
+            log.error(format(ERROR, event, error, keyValues), error);
+        }
+    }
+
+    private void logDebug(final String line) {
+        if (log.isDebugEnabled()) {
+            log.debug(line);
+        } else {
+            log.info(line);
+        }
+    }
+
+    static String format(final String level, final String event, final Throwable error,
+                         final Object... keyValues) {
+        final StringBuilder json = new StringBuilder(128).append("{\"level\":\"").append(level)
+                .append("\",\"event\":");
+        appendString(json, event);
+        final String requestId = LogContext.requestId();
+        if (requestId != null) {
+            json.append(",\"requestId\":");
+            appendString(json, requestId);
+        }
+        if (DEBUG.equals(level) && LogContext.isSampled()) {
+            json.append(",\"sampled\":true");
+        }
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            json.append(',');
+            appendString(json, String.valueOf(keyValues[i]));
+            json.append(':');
+            appendValue(json, keyValues[i + 1]);
+        }
+        if (error != null) {
+            json.append(",\"error\":");
+            appendString(json, error.getClass().getName());
+            if (error.getMessage() != null) {
+                json.append(",\"errorMessage\":");
+                appendString(json, error.getMessage());
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendValue(final StringBuilder json, final Object value) {
+        final Object resolved = value instanceof Supplier ? ((Supplier<?>) value).get() : value;
+        if (resolved == null) {
+            json.append("null");
+        } else if (resolved instanceof Boolean || resolved instanceof Number
+                && Double.isFinite(((Number) resolved).doubleValue())) {
+            json.append(resolved);
+        } else {
+            appendString(json, resolved.toString());
+        }
+    }
+
+    private static void appendString(final StringBuilder json, final String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,186 @@
+package com.varma.airtraffic.control.metrics;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.Collection;
+
+/**
+ * Measures every call a DynamoDB client makes, per operation: the latency of the call including its
+ * retries as {@code DynamoDb.<operation>}, plus the counters {@code .retries}, {@code .throttles},
+ * {@code .errors} and {@code .consumedCapacity}. Requests that do not ask for their consumed
+ * capacity are sent with ReturnConsumedCapacity TOTAL.
+ *
+ * <p>DynamoDB answers throttling with HTTP 400 and the SDK retries no other 400, so an attempt that
+ * got a 400 and was retried counts as throttled, as does a call that finally failed on throttling.
+ */
+public class DynamoDbMetricsInterceptor implements ExecutionInterceptor {
+    private static final ExecutionAttribute<Long> STARTED =
+            new ExecutionAttribute<>("MetricsStarted");
+    private static final ExecutionAttribute<Integer> ATTEMPTS =
+            new ExecutionAttribute<>("MetricsAttempts");
+    private static final ExecutionAttribute<Integer> LAST_STATUS =
+            new ExecutionAttribute<>("MetricsLastStatus");
+    private static final int SC_BAD_REQUEST = 400;
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private final Metrics metrics;
+
+    public DynamoDbMetricsInterceptor(final Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void beforeExecution(final Context.BeforeExecution context,
+                                final ExecutionAttributes attributes) {
+        attributes.putAttribute(STARTED, System.nanoTime());
+        attributes.putAttribute(ATTEMPTS, 0);
+    }
+
+    @Override
+    public SdkRequest modifyRequest(final Context.ModifyRequest context,
+                                    final ExecutionAttributes attributes) {
+        return withConsumedCapacity(context.request());
+    }
+
+    @Override
+    public void beforeTransmission(final Context.BeforeTransmission context,
+                                   final ExecutionAttributes attributes) {
+        final int attempt = attributes.getAttribute(ATTEMPTS) + 1;
+        attributes.putAttribute(ATTEMPTS, attempt);
+        if (attempt > 1) {
+            final String operation = operation(attributes);
+            metrics.add(operation + ".retries", 1);
+            final Integer lastStatus = attributes.getAttribute(LAST_STATUS);
+            if (lastStatus != null && (lastStatus == SC_BAD_REQUEST
+                    || lastStatus == SC_TOO_MANY_REQUESTS)) {
+                metrics.add(operation + ".throttles", 1);
+            }
+        }
+    }
+
+    @Override
+    public void afterTransmission(final Context.AfterTransmission context,
+                                  final ExecutionAttributes attributes) {
+        attributes.putAttribute(LAST_STATUS, context.httpResponse().statusCode());
+    }
+
+    @Override
+    public void afterExecution(final Context.AfterExecution context,
+                               final ExecutionAttributes attributes) {
+        final String operation = operation(attributes);
+        metrics.recordSince(operation, attributes.getAttribute(STARTED));
+        context.response().getValueForField("ConsumedCapacity", Object.class)
+                .ifPresent(consumed -> addReportedCapacity(operation, consumed));
+    }
+
+    private void addReportedCapacity(final String operation, final Object consumed) {
+        if (consumed instanceof ConsumedCapacity) {
+            addCapacity(operation, (ConsumedCapacity) consumed);
+        } else if (consumed instanceof Collection) {
+            // batch and transaction calls report one entry per table
+            for (Object tableConsumed : (Collection<?>) consumed) {
+                addCapacity(operation, (ConsumedCapacity) tableConsumed);
+            }
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(final Context.FailedExecution context,
+                                   final ExecutionAttributes attributes) {
+        final Long started = attributes.getAttribute(STARTED);
+        if (started == null) {
+            return;
+        }
+        final String operation = operation(attributes);
+        metrics.recordSince(operation, started);
+        metrics.add(operation + ".errors", 1);
+        if (context.exception() instanceof AwsServiceException
+                && ((AwsServiceException) context.exception()).isThrottlingException()) {
+            metrics.add(operation + ".throttles", 1);
+        }
+    }
+
+    private void addCapacity(final String operation, final ConsumedCapacity consumed) {
+        if (consumed.capacityUnits() != null) {
+            metrics.add(operation + ".consumedCapacity", consumed.capacityUnits());
+        }
+    }
+
+    private static String operation(final ExecutionAttributes attributes) {
+        return "DynamoDb." + attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+    }
+
+    /**
+     * Makes a request ask for its total consumed capacity, unless it already asks for some.
+     */
+    static SdkRequest withConsumedCapacity(final SdkRequest request) {
+        final ReturnConsumedCapacity total = ReturnConsumedCapacity.TOTAL;
+        if (request instanceof GetItemRequest
+                && ((GetItemRequest) request).returnConsumedCapacity() == null) {
+            return ((GetItemRequest) request).toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof PutItemRequest
+                && ((PutItemRequest) request).returnConsumedCapacity() == null) {
+            return ((PutItemRequest) request).toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof UpdateItemRequest
+                && ((UpdateItemRequest) request).returnConsumedCapacity() == null) {
+            return ((UpdateItemRequest) request).toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof DeleteItemRequest
+                && ((DeleteItemRequest) request).returnConsumedCapacity() == null) {
+            return ((DeleteItemRequest) request).toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof QueryRequest
+                && ((QueryRequest) request).returnConsumedCapacity() == null) {
+            return ((QueryRequest) request).toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof ScanRequest
+                && ((ScanRequest) request).returnConsumedCapacity() == null) {
+            return ((ScanRequest) request).toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof BatchWriteItemRequest
+                && ((BatchWriteItemRequest) request).returnConsumedCapacity() == null) {
+            return ((BatchWriteItemRequest) request).toBuilder()
+                    .returnConsumedCapacity(total)
+                    .build();
+        }
+        if (request instanceof BatchGetItemRequest
+                && ((BatchGetItemRequest) request).returnConsumedCapacity() == null) {
+            return ((BatchGetItemRequest) request).toBuilder()
+                    .returnConsumedCapacity(total)
+                    .build();
+        }
+        if (request instanceof TransactWriteItemsRequest
+                && ((TransactWriteItemsRequest) request).returnConsumedCapacity() == null) {
+            return ((TransactWriteItemsRequest) request).toBuilder()
+                    .returnConsumedCapacity(total)
+                    .build();
+        }
+        if (request instanceof TransactGetItemsRequest
+                && ((TransactGetItemsRequest) request).returnConsumedCapacity() == null) {
+            return ((TransactGetItemsRequest) request).toBuilder()
+                    .returnConsumedCapacity(total)
+                    .build();
+        }
+        return request;
+    }
+}
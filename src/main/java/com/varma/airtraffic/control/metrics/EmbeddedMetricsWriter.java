@@ -0,0 +1,139 @@
+package com.varma.airtraffic.control.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Publishes a {@link MetricsRegistry} as CloudWatch Embedded Metric Format: one JSON log line that
+ * CloudWatch Logs turns into metrics, so publishing costs no API call.
+ *
+ * <p>A latency is written as an array of samples in milliseconds, which CloudWatch aggregates into
+ * percentiles. Up to 100 samples are written as recorded, at histogram precision; above that the
+ * distribution is written as its 100 evenly spaced percentiles.
+ */
+public class EmbeddedMetricsWriter {
+    static final int MAX_METRICS_PER_DIRECTIVE = 100;
+    static final int MAX_VALUES_PER_METRIC = 100;
+
+    private static final Log logger = LogFactory.getLog(EmbeddedMetricsWriter.class);
+
+    private final ObjectMapper objectMapper;
+    private final String namespace;
+    private final Map<String, String> dimensions;
+    private final Consumer<String> sink;
+    private final LongSupplier clock;
+
+    /**
+     * @param namespace  CloudWatch namespace of the metrics
+     * @param dimensions dimensions of every metric, e.g. the function name
+     * @param sink       receives the log lines, stdout in Lambda
+     */
+    public EmbeddedMetricsWriter(final ObjectMapper objectMapper, final String namespace,
+                                 final Map<String, String> dimensions,
+                                 final Consumer<String> sink) {
+        this(objectMapper, namespace, dimensions, sink, System::currentTimeMillis);
+    }
+
+    EmbeddedMetricsWriter(final ObjectMapper objectMapper, final String namespace,
+                          final Map<String, String> dimensions, final Consumer<String> sink,
+                          final LongSupplier clock) {
+        this.objectMapper = objectMapper;
+        this.namespace = namespace;
+        this.dimensions = dimensions;
+        this.sink = sink;
+        this.clock = clock;
+    }
+
+    /**
+     * Drains the registry into one log line, writes nothing if nothing was recorded since the last
+     * write.
+     */
+    public void write(final MetricsRegistry registry) {
+        final Map<String, LatencyHistogram> latencies = registry.drainLatencies();
+        final Map<String, Double> counters = registry.drainCounters();
+        if (latencies.isEmpty() && counters.isEmpty()) {
+            return;
+        }
+        try {
+            sink.accept(objectMapper.writeValueAsString(render(latencies, counters)));
+        } catch (JsonProcessingException e) {
+            logger.warn("Unable to write " + latencies.size() + " latencies and " + counters.size()
+                    + " counters as embedded metrics", e);
+        }
+    }
+
+    private ObjectNode render(final Map<String, LatencyHistogram> latencies,
+                              final Map<String, Double> counters) {
+        final ObjectNode root = objectMapper.createObjectNode();
+        final List<ObjectNode> definitions = new ArrayList<>(latencies.size() + counters.size());
+        latencies.forEach((name, histogram) -> {
+            definitions.add(definition(name, "Milliseconds"));
+            final ArrayNode values = root.putArray(name);
+            for (double value : values(histogram)) {
+                values.add(value);
+            }
+        });
+        counters.forEach((name, total) -> {
+            definitions.add(definition(name, "Count"));
+            root.put(name, total);
+        });
+        dimensions.forEach(root::put);
+
+        final ObjectNode aws = root.putObject("_aws");
+        aws.put("Timestamp", clock.getAsLong());
+        final ArrayNode directives = aws.putArray("CloudWatchMetrics");
+        for (int from = 0; from < definitions.size(); from += MAX_METRICS_PER_DIRECTIVE) {
+            final ObjectNode directive = directives.addObject();
+            directive.put("Namespace", namespace);
+            final ArrayNode dimensionSet = directive.putArray("Dimensions").addArray();
+            dimensions.keySet().forEach(dimensionSet::add);
+            directive.putArray("Metrics").addAll(definitions.subList(from,
+                    Math.min(from + MAX_METRICS_PER_DIRECTIVE, definitions.size())));
+        }
+        return root;
+    }
+
+    private ObjectNode definition(final String name, final String unit) {
+        final ObjectNode definition = objectMapper.createObjectNode();
+        definition.put("Name", name);
+        definition.put("Unit", unit);
+        return definition;
+    }
+
+    /**
+     * Samples the latencies of a histogram for a metric.
+     *
+     * @param histogram latencies in microseconds
+     * @return at most {@link #MAX_VALUES_PER_METRIC} samples in milliseconds
+     */
+    static double[] values(final LatencyHistogram histogram) {
+        final long count = histogram.getCount();
+        if (count > MAX_VALUES_PER_METRIC) {
+            final double[] values = new double[MAX_VALUES_PER_METRIC];
+            for (int i = 0; i < MAX_VALUES_PER_METRIC; i++) {
+                values[i] = histogram.getValueAtPercentile(
+                        100.0 * (i + 0.5) / MAX_VALUES_PER_METRIC) / 1000.0;
+            }
+            return values;
+        }
+        final double[] values = new double[(int) count];
+        int next = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS && next < values.length; i++) {
+            final double value = histogram.medianValue(i) / 1000.0;
+            for (long n = histogram.countAt(i); n > 0 && next < values.length; n--) {
+                values[next++] = value;
+            }
+        }
+        return values;
+    }
+}
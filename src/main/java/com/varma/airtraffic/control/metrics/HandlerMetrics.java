@@ -0,0 +1,43 @@
+package com.varma.airtraffic.control.metrics;
+
+/**
+ * Times the stages of a handler invocation and publishes the metrics of the container once the
+ * invocation is over, so every invocation leaves one embedded metrics log line.
+ */
+public class HandlerMetrics {
+    private final Metrics metrics;
+    // null when metrics are disabled
+    private final MetricsRegistry registry;
+    private final EmbeddedMetricsWriter writer;
+
+    public HandlerMetrics(final MetricsRegistry registry, final EmbeddedMetricsWriter writer) {
+        this(registry, registry, writer);
+    }
+
+    private HandlerMetrics(final Metrics metrics, final MetricsRegistry registry,
+                           final EmbeddedMetricsWriter writer) {
+        this.metrics = metrics;
+        this.registry = registry;
+        this.writer = writer;
+    }
+
+    public static HandlerMetrics disabled() {
+        return new HandlerMetrics(Metrics.NONE, null, null);
+    }
+
+    /**
+     * Starts timing an invocation, in its {@link StageTimer#PARSE} stage. Closing the timer
+     * publishes.
+     *
+     * @param operation name of the handler the stages are recorded under, e.g. DequeueAircraft
+     */
+    public StageTimer start(final String operation) {
+        return new StageTimer(metrics, operation, this);
+    }
+
+    void publish() {
+        if (registry != null) {
+            writer.write(registry);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.varma.airtraffic.control.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of non-negative values, laid out like an HdrHistogram: every power of two is
+ * split into 32 linear sub-buckets, so a percentile is off by at most about 3% anywhere in the long
+ * range while the whole histogram is under two thousand counters. Recording is a few atomic
+ * operations on preallocated arrays and never allocates, so it can sit on the request path of every
+ * DynamoDB call.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a sample.
+     *
+     * @param value sample to record, negative samples are recorded as zero
+     */
+    public void record(final long value) {
+        final long sample = Math.max(0, value);
+        counts.incrementAndGet(index(sample));
+        count.incrementAndGet();
+        long current = max.get();
+        while (sample > current && !max.compareAndSet(current, sample)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Estimates a percentile of the recorded samples.
+     *
+     * @param percentile between 0 and 100
+     * @return the highest value of the bucket holding the percentile, capped by the largest
+     *     sample, zero when nothing was recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Moves everything recorded so far into a new histogram, leaving this one empty. Samples
+     * recorded while draining land in either one, none is lost.
+     */
+    public LatencyHistogram drain() {
+        final LatencyHistogram drained = new LatencyHistogram();
+        long drainedCount = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            final long bucketCount = counts.getAndSet(i, 0);
+            if (bucketCount > 0) {
+                drained.counts.set(i, bucketCount);
+                drainedCount += bucketCount;
+            }
+        }
+        count.addAndGet(-drainedCount);
+        drained.count.set(drainedCount);
+        drained.max.set(max.getAndSet(0));
+        return drained;
+    }
+
+    long countAt(final int index) {
+        return counts.get(index);
+    }
+
+    /**
+     * Returns the middle of a bucket, what a sample of the bucket is reported as.
+     */
+    long medianValue(final int index) {
+        return Math.min((lowestValue(index) + highestValue(index)) / 2, max.get());
+    }
+
+    static int index(final long value) {
+        final int magnitude = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return magnitude * HALF_SUB_BUCKETS + (int) (value >>> magnitude);
+    }
+
+    static long lowestValue(final int index) {
+        final int magnitude = magnitude(index);
+        return (long) (index - magnitude * HALF_SUB_BUCKETS) << magnitude;
+    }
+
+    static long highestValue(final int index) {
+        return lowestValue(index) + (1L << magnitude(index)) - 1;
+    }
+
+    private static int magnitude(final int index) {
+        return index < 2 * HALF_SUB_BUCKETS ? 0 : index / HALF_SUB_BUCKETS - 1;
+    }
+}
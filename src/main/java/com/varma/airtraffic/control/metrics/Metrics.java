@@ -0,0 +1,38 @@
+package com.varma.airtraffic.control.metrics;
+
+/**
+ * Where the DAOs, the handlers and the DynamoDB clients report what they measure. {@link
+ * MetricsRegistry} keeps the measurements in process until they are published; {@link #NONE} drops
+ * them.
+ */
+public interface Metrics {
+    Metrics NONE = new Metrics() {
+        @Override
+        public void recordLatency(final String name, final long nanos) {
+        }
+
+        @Override
+        public void add(final String name, final double amount) {
+        }
+    };
+
+    /**
+     * Records one latency sample.
+     *
+     * @param name  metric name, a constant so recording does not allocate
+     * @param nanos elapsed time in nanoseconds
+     */
+    void recordLatency(String name, long nanos);
+
+    /**
+     * Adds to a counter, e.g. retries or consumed capacity units.
+     */
+    void add(String name, double amount);
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} reading.
+     */
+    default void recordSince(final String name, final long startNanos) {
+        recordLatency(name, System.nanoTime() - startNanos);
+    }
+}
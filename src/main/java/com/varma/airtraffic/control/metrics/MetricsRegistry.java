@@ -0,0 +1,87 @@
+package com.varma.airtraffic.control.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * In-process metrics of a container: one latency histogram, in microseconds, and one counter per
+ * name. Shared by every thread of the container; recording into an existing metric does not
+ * allocate or lock.
+ */
+public class MetricsRegistry implements Metrics {
+    private final ConcurrentMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DoubleAdder> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordLatency(final String name, final long nanos) {
+        LatencyHistogram histogram = latencies.get(name);
+        if (histogram == null) {
+            latencies.putIfAbsent(name, new LatencyHistogram());
+            histogram = latencies.get(name);
+        }
+        histogram.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    @Override
+    public void add(final String name, final double amount) {
+        DoubleAdder counter = counters.get(name);
+        if (counter == null) {
+            counters.putIfAbsent(name, new DoubleAdder());
+            counter = counters.get(name);
+        }
+        counter.add(amount);
+    }
+
+    /**
+     * Looks up the latencies recorded under a name.
+     *
+     * @return the latencies recorded under a name in microseconds, null if none was recorded yet
+     */
+    public LatencyHistogram latency(final String name) {
+        return latencies.get(name);
+    }
+
+    /**
+     * Reads a counter.
+     *
+     * @return the total added to a counter, zero if nothing was added yet
+     */
+    public double counter(final String name) {
+        final DoubleAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Takes the latencies recorded since the last drain, sorted by name. Empty histograms are left
+     * out.
+     */
+    public Map<String, LatencyHistogram> drainLatencies() {
+        final Map<String, LatencyHistogram> drained = new TreeMap<>();
+        latencies.forEach((name, histogram) -> {
+            if (histogram.getCount() > 0) {
+                drained.put(name, histogram.drain());
+            }
+        });
+        return Collections.unmodifiableMap(drained);
+    }
+
+    /**
+     * Takes the counter totals added since the last drain, sorted by name. Untouched counters are
+     * left out.
+     */
+    public Map<String, Double> drainCounters() {
+        final Map<String, Double> drained = new TreeMap<>();
+        counters.forEach((name, counter) -> {
+            final double total = counter.sumThenReset();
+            if (total != 0) {
+                drained.put(name, total);
+            }
+        });
+        return Collections.unmodifiableMap(drained);
+    }
+}
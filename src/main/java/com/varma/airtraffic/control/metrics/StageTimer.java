@@ -0,0 +1,49 @@
+package com.varma.airtraffic.control.metrics;
+
+/**
+ * Splits one handler invocation into consecutive stages. Each stage runs until the next one starts,
+ * the last one until the timer is closed, and is recorded as {@code <operation>.<stage>} next to
+ * {@code <operation>.total}.
+ */
+public final class StageTimer implements AutoCloseable {
+    public static final String PARSE = "parse";
+    public static final String VALIDATE = "validate";
+    public static final String PERSIST = "persist";
+    public static final String SERIALIZE = "serialize";
+
+    private final Metrics metrics;
+    private final String operation;
+    private final HandlerMetrics handlerMetrics;
+    private final long started;
+    private String stage = PARSE;
+    private long stageStarted;
+
+    StageTimer(final Metrics metrics, final String operation, final HandlerMetrics handlerMetrics) {
+        this.metrics = metrics;
+        this.operation = operation;
+        this.handlerMetrics = handlerMetrics;
+        this.started = System.nanoTime();
+        this.stageStarted = started;
+    }
+
+    /**
+     * Ends the current stage and starts the next one.
+     */
+    public void next(final String nextStage) {
+        final long now = System.nanoTime();
+        metrics.recordLatency(operation + "." + stage, now - stageStarted);
+        stage = nextStage;
+        stageStarted = now;
+    }
+
+    /**
+     * Ends the current stage and the invocation, then publishes the metrics of the container.
+     */
+    @Override
+    public void close() {
+        final long now = System.nanoTime();
+        metrics.recordLatency(operation + "." + stage, now - stageStarted);
+        metrics.recordLatency(operation + ".total", now - started);
+        handlerMetrics.publish();
+    }
+}
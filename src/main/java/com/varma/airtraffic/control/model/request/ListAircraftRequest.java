@@ -0,0 +1,28 @@
+package com.varma.airtraffic.control.model.request;
+
+import com.varma.airtraffic.control.model.AircraftSize;
+import com.varma.airtraffic.control.model.AircraftSpecialFlag;
+import com.varma.airtraffic.control.model.AircraftType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ListAircraftRequest {
+    // lists one airport through the airport index, scans the whole table when null
+    private String airportCode;
+    private AircraftType aircraftType;
+    private AircraftSize aircraftSize;
+    private AircraftSpecialFlag aircraftSpecialFlag;
+    private int limit;
+    // parallel scan segments, only used when scanning
+    private int segments;
+    // nextCursor of the previous page, null for the first page
+    private String cursor;
+}
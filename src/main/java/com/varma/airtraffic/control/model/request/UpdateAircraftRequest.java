@@ -1,7 +1,19 @@
 package com.varma.airtraffic.control.model.request;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.varma.airtraffic.control.model.AircraftSpecialFlag;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
 
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonAutoDetect
 public class UpdateAircraftRequest {
-//    private String aircraftId;
-//    private AircraftSpecialFlags specialFlags;
+    private AircraftSpecialFlag aircraftSpecialFlag;
 }
@@ -0,0 +1,17 @@
+package com.varma.airtraffic.control.model.response;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@JsonAutoDetect
+public class AirportResetResponse {
+    private final String airportCode;
+    private final int aircraftsDeleted;
+    private final int bucketsDeleted;
+    // buckets left for the next reset call, an incomplete reset is continued by calling it again
+    private final int bucketsRemaining;
+    private final boolean complete;
+}
@@ -0,0 +1,20 @@
+package com.varma.airtraffic.control.model.response;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+@JsonAutoDetect
+public class AirportStatsResponse {
+    private final String airportCode;
+    // aircraft waiting at the airport
+    private final long depth;
+    // aircraft waiting per priorityId, highest priority first
+    private final Map<String, Long> priorityDepths;
+    // arrival time of the aircraft waiting longest, null if none is waiting
+    private final String oldestArrivalTime;
+}
@@ -0,0 +1,14 @@
+package com.varma.airtraffic.control.model.response;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@JsonAutoDetect
+public class BatchCreateAircraftResponse {
+    private final List<BatchCreateAircraftResult> results;
+}
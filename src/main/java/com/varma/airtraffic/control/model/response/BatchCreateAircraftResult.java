@@ -0,0 +1,20 @@
+package com.varma.airtraffic.control.model.response;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.varma.airtraffic.control.model.Aircraft;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@AllArgsConstructor
+@JsonAutoDetect
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchCreateAircraftResult {
+    private final int index;
+    private final int statusCode;
+    private final Aircraft aircraft;
+    private final String message;
+}
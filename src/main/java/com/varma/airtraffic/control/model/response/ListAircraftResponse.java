@@ -0,0 +1,17 @@
+package com.varma.airtraffic.control.model.response;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.varma.airtraffic.control.model.Aircraft;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@JsonAutoDetect
+public class ListAircraftResponse {
+    private final List<Aircraft> aircrafts;
+    // pass as cursor to get the next page, null on the last page
+    private final String nextCursor;
+}
@@ -0,0 +1,61 @@
+package com.varma.airtraffic.control.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ExpiringLruCacheTest {
+    private AtomicLong now = new AtomicLong();
+    private ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(2, 100, now::get);
+
+    @Test
+    public void get_whenEntryExpired_returnsNull() {
+        cache.put("IAD", "IAD-7030");
+        now.set(99);
+        assertEquals("IAD-7030", cache.get("IAD"));
+        now.set(100);
+        assertNull(cache.get("IAD"));
+    }
+
+    @Test
+    public void put_whenFull_evictsLeastRecentlyUsed() {
+        cache.put("IAD", "IAD-7030");
+        cache.put("SFO", "SFO-5030");
+        cache.get("IAD");
+        cache.put("JFK", "JFK-3070");
+
+        assertEquals("IAD-7030", cache.get("IAD"));
+        assertNull(cache.get("SFO"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void update_whenEntryPresent_keepsOriginalExpiry() {
+        cache.put("IAD", "IAD-7030");
+        now.set(50);
+        cache.update("IAD", value -> value + ",IAD-5030");
+        assertEquals("IAD-7030,IAD-5030", cache.get("IAD"));
+        now.set(100);
+        assertNull(cache.get("IAD"));
+    }
+
+    @Test
+    public void update_whenEntryAbsent_doesNothing() {
+        cache.update("IAD", value -> "IAD-7030");
+        assertNull(cache.get("IAD"));
+    }
+
+    @Test
+    public void get_countsHitsAndMisses() {
+        cache.get("IAD");
+        cache.put("IAD", "IAD-7030");
+        cache.get("IAD");
+        cache.get("IAD");
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+}
@@ -8,7 +8,8 @@ import dagger.Component;
 import javax.inject.Singleton;
 
 @Singleton
-@Component(modules = { DataConverterModule.class, DynamoModule.class, PriorityAircraftsModule.class, AircraftModule.class})
+@Component(modules = { DataConverterModule.class, DynamoModule.class, PriorityAircraftsModule.class,
+        AircraftModule.class, MetricsModule.class})
 public interface AirTrafficControlTestComponent {
     AircraftDao provideAircraftDao();
     PriorityAircraftsDao providePriorityAircraftsDao();
@@ -0,0 +1,47 @@
+package com.varma.airtraffic.control.config;
+
+import org.junit.Test;
+import software.amazon.awssdk.core.retry.RetryMode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DynamoClientSettingsTest {
+
+    @Test
+    public void fromEnvironment_whenUnset_keepsSdkDefaults() {
+        DynamoClientSettings settings = DynamoClientSettings.fromEnvironment(name -> null);
+
+        assertNull(settings.getMaxConnections());
+        assertNull(settings.getSocketTimeoutMillis());
+        assertNull(settings.getRetryMode());
+    }
+
+    @Test
+    public void fromEnvironment_whenSet_parsesEverySetting() {
+        Map<String, String> environment = new HashMap<>();
+        environment.put("DYNAMO_MAX_CONNECTIONS", "64");
+        environment.put("DYNAMO_CONNECTION_TTL_MILLIS", "60000");
+        environment.put("DYNAMO_SOCKET_TIMEOUT_MILLIS", " 2000 ");
+        environment.put("DYNAMO_API_CALL_TIMEOUT_MILLIS", "5000");
+        environment.put("DYNAMO_RETRY_MODE", "standard");
+        environment.put("DYNAMO_MAX_RETRIES", "3");
+
+        DynamoClientSettings settings = DynamoClientSettings.fromEnvironment(environment::get);
+
+        assertEquals(Integer.valueOf(64), settings.getMaxConnections());
+        assertEquals(Long.valueOf(60000), settings.getConnectionTimeToLiveMillis());
+        assertEquals(Long.valueOf(2000), settings.getSocketTimeoutMillis());
+        assertEquals(Long.valueOf(5000), settings.getApiCallTimeoutMillis());
+        assertEquals(RetryMode.STANDARD, settings.getRetryMode());
+        assertEquals(Integer.valueOf(3), settings.getMaxRetries());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromEnvironment_whenRetryModeUnknownToTheSdk_failsAtStartup() {
+        DynamoClientSettings.fromEnvironment(name -> "DYNAMO_RETRY_MODE".equals(name) ? "adaptive" : null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.varma.airtraffic.control.config;
+
+import com.varma.airtraffic.control.metrics.DynamoDbMetricsInterceptor;
+import com.varma.airtraffic.control.metrics.Metrics;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DynamoModule for the load generator: both clients talk to DynamoDB Local and count the calls that
+ * failed on a condition, a cancelled transaction or throttling.
+ */
+public class LoadTestDynamoModule extends DynamoModule {
+    private final String endpoint = Optional.ofNullable(System.getenv("ENDPOINT_OVERRIDE"))
+            .orElse("http://localhost:8000");
+    private final StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+            AwsBasicCredentials.create("load", "load"));
+
+    private final AtomicLong conditionalCheckFailures = new AtomicLong();
+    private final AtomicLong transactionConflicts = new AtomicLong();
+    private final AtomicLong throttles = new AtomicLong();
+
+    private final ExecutionInterceptor failureCounter = new ExecutionInterceptor() {
+        @Override
+        public void onExecutionFailure(final Context.FailedExecution context,
+                                       final ExecutionAttributes executionAttributes) {
+            if (context.exception() instanceof ConditionalCheckFailedException) {
+                conditionalCheckFailures.incrementAndGet();
+            } else if (context.exception() instanceof TransactionCanceledException) {
+                transactionConflicts.incrementAndGet();
+            } else if (context.exception() instanceof ProvisionedThroughputExceededException) {
+                throttles.incrementAndGet();
+            }
+        }
+    };
+
+    @Override
+    DynamoDbClient dynamoDb(StartupMode startupMode, DynamoClientSettings settings, Metrics metrics) {
+        return DynamoDbClient.builder()
+                .httpClient(ApacheHttpClient.builder().maxConnections(256).build())
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .overrideConfiguration(c -> c.addExecutionInterceptor(failureCounter)
+                        .addExecutionInterceptor(new DynamoDbMetricsInterceptor(metrics)))
+                .build();
+    }
+
+    @Override
+    DynamoDbAsyncClient dynamoDbAsync(StartupMode startupMode, DynamoClientSettings settings, Metrics metrics) {
+        return DynamoDbAsyncClient.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .overrideConfiguration(c -> c.addExecutionInterceptor(failureCounter)
+                        .addExecutionInterceptor(new DynamoDbMetricsInterceptor(metrics)))
+                .build();
+    }
+
+    public long getConditionalCheckFailures() {
+        return conditionalCheckFailures.get();
+    }
+
+    public long getTransactionConflicts() {
+        return transactionConflicts.get();
+    }
+
+    public long getThrottles() {
+        return throttles.get();
+    }
+}
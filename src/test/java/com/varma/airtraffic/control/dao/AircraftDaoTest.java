@@ -1,17 +1,22 @@
 package com.varma.airtraffic.control.dao;
 
+import com.varma.airtraffic.control.cache.ExpiringLruCache;
+import com.varma.airtraffic.control.exception.AircraftDoesNotExistException;
 import com.varma.airtraffic.control.exception.CouldNotCreateAircraftException;
 import com.varma.airtraffic.control.exception.TableDoesNotExistException;
+import com.varma.airtraffic.control.metrics.MetricsRegistry;
 import com.varma.airtraffic.control.model.Aircraft;
 import com.varma.airtraffic.control.model.AircraftSize;
 import com.varma.airtraffic.control.model.AircraftSpecialFlag;
 import com.varma.airtraffic.control.model.AircraftType;
 import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
 import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
@@ -19,13 +24,18 @@ import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class AircraftDaoTest {
     private static final String AIRCRAFT_ID = "some ac id";
@@ -57,6 +67,66 @@ public class AircraftDaoTest {
         aircraftDao.getAircraft(AIRCRAFT_ID);
     }
 
+    @Test
+    public void getAircraft_whenCached_readsTableOnce() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        AircraftDao cachedDao = new AircraftDao(dynamoDb, null, "table_name", new ExpiringLruCache<>(10, 60000),
+                1000, AircraftIdGenerator.random(), metrics);
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("aircraftId", AttributeValue.builder().s(AIRCRAFT_ID).build());
+        item.put("aircraftType", AttributeValue.builder().s(AircraftType.CARGO.name()).build());
+        item.put("aircraftSize", AttributeValue.builder().s(AircraftSize.LARGE.name()).build());
+        item.put("airportCode", AttributeValue.builder().s("IAD").build());
+        item.put("priorityId", AttributeValue.builder().s("IAD-3050").build());
+        item.put("arrivalTime", AttributeValue.builder().s("2019-08-29T02:10Z").build());
+        doReturn(GetItemResponse.builder().item(item).build()).when(dynamoDb).getItem(any(GetItemRequest.class));
+
+        cachedDao.getAircraft(AIRCRAFT_ID).setPriorityId("IAD-0");
+        Aircraft ac = cachedDao.getAircraft(AIRCRAFT_ID);
+
+        assertEquals(AIRCRAFT_ID, ac.getAircraftId());
+        // callers get a copy, changing it leaves the cached aircraft as it was
+        assertEquals("IAD-3050", ac.getPriorityId());
+        assertEquals(1, cachedDao.getCacheHitCount());
+        assertEquals(1, metrics.counter("AircraftDao.cache.hits"), 0);
+        assertEquals(1, metrics.counter("AircraftDao.cache.misses"), 0);
+        verify(dynamoDb, times(1)).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    public void getAircraft_whenMissingAndCached_remembersNotFound() {
+        AircraftDao cachedDao = new AircraftDao(dynamoDb, "table_name", new ExpiringLruCache<>(10, 60000), 60000);
+        doReturn(GetItemResponse.builder().build()).when(dynamoDb).getItem(any(GetItemRequest.class));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                cachedDao.getAircraft(AIRCRAFT_ID);
+            } catch (AircraftDoesNotExistException e) {
+                // expected
+            }
+        }
+
+        verify(dynamoDb, times(1)).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    public void getAircraftAsync_whenTableDoesNotExist_failsWithTableDoesNotExistException()
+            throws InterruptedException {
+        DynamoDbAsyncClient asyncDynamoDb = mock(DynamoDbAsyncClient.class);
+        CompletableFuture<GetItemResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(ResourceNotFoundException.builder().build());
+        doReturn(failed).when(asyncDynamoDb).getItem(any(GetItemRequest.class));
+        AircraftDao asyncDao = new AircraftDao(dynamoDb, () -> asyncDynamoDb, "table_name", null, 0);
+
+        try {
+            asyncDao.getAircraftAsync(AIRCRAFT_ID).get();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TableDoesNotExistException);
+            return;
+        }
+        throw new AssertionError("getAircraftAsync should have failed");
+    }
+
     //conditional failure tests
     @Test(expected = CouldNotCreateAircraftException.class)
     public void createAircraft_whenAlreadyExists_throwsCouldNotCreateAircraftException() {
@@ -73,13 +143,13 @@ public class AircraftDaoTest {
         createdItem.put("aircraftSize", AttributeValue.builder().s(AircraftSize.LARGE.name()).build());
         createdItem.put("aircraftSize", AttributeValue.builder().s(AircraftSpecialFlag.EMERGENCY.name()).build());
         createdItem.put("airportCode", AttributeValue.builder().s("IAD").build());
-        createdItem.put("priorityId", AttributeValue.builder().s("IAD-503070").build());
+        createdItem.put("priorityId", AttributeValue.builder().s("IAD-0503070").build());
         doReturn(PutItemResponse.builder().attributes(createdItem).build()).when(dynamoDb).putItem(any(PutItemRequest.class));
 
         Aircraft ac = aircraftDao.createAircraft(createAircraftRequest);
 
         assertNotNull(ac.getAircraftId());
-        assertEquals("IAD-503070", ac.getPriorityId());
+        assertEquals("IAD-0503070", ac.getPriorityId());
         assertNotNull(UUID.fromString(ac.getAircraftId()));
     }
 }
@@ -0,0 +1,115 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.model.AircraftSpecialFlag;
+import com.varma.airtraffic.control.model.AircraftType;
+import com.varma.airtraffic.control.model.request.ListAircraftRequest;
+import com.varma.airtraffic.control.model.response.ListAircraftResponse;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class AircraftSearchDaoTest {
+    private DynamoDbClient dynamoDb = mock(DynamoDbClient.class);
+    private AircraftSearchDao aircraftSearchDao = new AircraftSearchDao(dynamoDb,
+            new AircraftDao(dynamoDb, "aircraft_table"), "airportIndex");
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static Map<String, AttributeValue> aircraft(String aircraftId) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("aircraftId", s(aircraftId));
+        item.put("priorityId", s("IAD-0003030"));
+        item.put("airportCode", s("IAD"));
+        item.put("arrivalTime", s("2019-08-29T02:10:05.123456Z"));
+        item.put("aircraftType", s("CARGO"));
+        item.put("aircraftSize", s("SMALL"));
+        return item;
+    }
+
+    private static Map<String, AttributeValue> key(String aircraftId) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("aircraftId", s(aircraftId));
+        key.put("airportCode", s("IAD"));
+        key.put("arrivalTime", s("2019-08-29T02:10:05.123456Z"));
+        return key;
+    }
+
+    @Test
+    public void listAircrafts_forAirport_filtersOnTheIndexAndResumesFromTheCursor() {
+        doReturn(QueryResponse.builder()
+                .items(Collections.singletonList(aircraft("cargo-1")))
+                .lastEvaluatedKey(key("cargo-1"))
+                .build()).when(dynamoDb).query(any(QueryRequest.class));
+        ListAircraftRequest request = ListAircraftRequest.builder()
+                .airportCode("IAD")
+                .aircraftType(AircraftType.CARGO)
+                .aircraftSpecialFlag(AircraftSpecialFlag.NORMAL)
+                .limit(1)
+                .build();
+
+        ListAircraftResponse page = aircraftSearchDao.listAircrafts(request);
+        assertEquals("cargo-1", page.getAircrafts().get(0).getAircraftId());
+        assertNotNull(page.getNextCursor());
+
+        request.setCursor(page.getNextCursor());
+        aircraftSearchDao.listAircrafts(request);
+
+        ArgumentCaptor<QueryRequest> queries = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDb, times(2)).query(queries.capture());
+        QueryRequest first = queries.getAllValues().get(0);
+        assertEquals("airportIndex", first.indexName());
+        assertTrue(first.filterExpression().contains("attribute_not_exists(aircraftSpecialFlags)"));
+        assertTrue(first.projectionExpression().contains("aircraftType"));
+        assertEquals(key("cargo-1"), queries.getAllValues().get(1).exclusiveStartKey());
+    }
+
+    @Test
+    public void listAircrafts_withoutAirport_scansOnlyTheSegmentsThatAreNotExhausted() {
+        doAnswer(invocation -> {
+            ScanRequest scan = (ScanRequest) invocation.getArguments()[0];
+            boolean resumed = scan.exclusiveStartKey() != null && !scan.exclusiveStartKey().isEmpty();
+            return scan.segment() == 0 || resumed
+                    ? ScanResponse.builder().items(Collections.singletonList(aircraft("first"))).build()
+                    : ScanResponse.builder().items(Collections.singletonList(aircraft("second")))
+                    .lastEvaluatedKey(Collections.singletonMap("aircraftId", s("second"))).build();
+        }).when(dynamoDb).scan(any(ScanRequest.class));
+        ListAircraftRequest request = ListAircraftRequest.builder().limit(10).segments(2).build();
+
+        ListAircraftResponse page = aircraftSearchDao.listAircrafts(request);
+        assertEquals(2, page.getAircrafts().size());
+
+        request.setCursor(page.getNextCursor());
+        ListAircraftResponse last = aircraftSearchDao.listAircrafts(request);
+        assertNull(last.getNextCursor());
+
+        ArgumentCaptor<ScanRequest> scans = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(dynamoDb, times(3)).scan(scans.capture());
+        List<ScanRequest> requests = scans.getAllValues();
+        ScanRequest resumed = requests.get(2);
+        assertEquals(Integer.valueOf(1), resumed.segment());
+        assertEquals(Collections.singletonMap("aircraftId", s("second")), resumed.exclusiveStartKey());
+    }
+}
@@ -0,0 +1,76 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.AirportWithEmptyAircraftsException;
+import com.varma.airtraffic.control.model.Aircraft;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class AirportQueueIndexDaoTest {
+    private DynamoDbClient dynamoDb = mock(DynamoDbClient.class);
+    private AirportQueueIndexDao airportQueueIndexDao = new AirportQueueIndexDao(dynamoDb,
+            new AircraftDao(dynamoDb, "aircraft_table"), "airportQueueIndex");
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static Map<String, AttributeValue> indexEntry(String aircraftId, String queueKey) {
+        Map<String, AttributeValue> entry = new HashMap<>();
+        entry.put("aircraftId", s(aircraftId));
+        entry.put("airportCode", s("IAD"));
+        entry.put("queueKey", s(queueKey));
+        return entry;
+    }
+
+    @Test
+    public void dequeueAircraft_whenHeadWasTaken_claimsTheNextAircraft() {
+        Map<String, AttributeValue> taken = indexEntry("taken",
+                PriorityKey.queueKey(7070, "2019-08-29T02:10Z", "taken"));
+        Map<String, AttributeValue> next = indexEntry("next",
+                PriorityKey.queueKey(7070, "2019-08-29T02:11Z", "next"));
+        doAnswer(invocation -> ((QueryRequest) invocation.getArguments()[0]).exclusiveStartKey().isEmpty()
+                ? QueryResponse.builder().items(Collections.singletonList(taken)).lastEvaluatedKey(taken).build()
+                : QueryResponse.builder().items(Collections.singletonList(next)).build())
+                .when(dynamoDb).query(any(QueryRequest.class));
+
+        Map<String, AttributeValue> nextAircraft = new HashMap<>(next);
+        nextAircraft.put("priorityId", s("IAD-0007070"));
+        nextAircraft.put("arrivalTime", s("2019-08-29T02:11Z"));
+        nextAircraft.put("aircraftType", s("VIP"));
+        nextAircraft.put("aircraftSize", s("LARGE"));
+        doAnswer(invocation -> {
+            UpdateItemRequest request = (UpdateItemRequest) invocation.getArguments()[0];
+            if ("taken".equals(request.key().get("aircraftId").s())) {
+                throw ConditionalCheckFailedException.builder().build();
+            }
+            return UpdateItemResponse.builder().attributes(nextAircraft).build();
+        }).when(dynamoDb).updateItem(any(UpdateItemRequest.class));
+
+        Aircraft aircraft = airportQueueIndexDao.dequeueAircraft("IAD");
+
+        assertEquals("next", aircraft.getAircraftId());
+    }
+
+    @Test(expected = AirportWithEmptyAircraftsException.class)
+    public void dequeueAircraft_whenIndexIsEmpty_throwsAirportWithEmptyAircraftsException() {
+        doReturn(QueryResponse.builder().build()).when(dynamoDb).query(any(QueryRequest.class));
+
+        airportQueueIndexDao.dequeueAircraft("IAD");
+    }
+}
@@ -0,0 +1,102 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.model.response.AirportResetResponse;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class AirportResetDaoTest {
+    private DynamoDbClient dynamoDb = mock(DynamoDbClient.class);
+    private AirportResetDao airportResetDao = new AirportResetDao(dynamoDb,
+            new AircraftDao(dynamoDb, "aircraft_table"),
+            new PriorityAircraftsDao(dynamoDb, "priority_table"), 4, null);
+    private List<BatchWriteItemRequest> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static Map<String, AttributeValue> row(String hashKey, String rangeKey) {
+        Map<String, AttributeValue> row = new HashMap<>();
+        row.put("hashKey", s(hashKey));
+        row.put("rangeKey", s(rangeKey));
+        row.put("date", s("2019-08-29T02:10:05.123456Z"));
+        return row;
+    }
+
+    @Before
+    public void setup() {
+        doAnswer(invocation -> {
+            QueryRequest request = (QueryRequest) invocation.getArguments()[0];
+            if (request.expressionAttributeValues().containsKey(":value")) {
+                return QueryResponse.builder().items(Arrays.asList(
+                        row("IAD", "IAD-0007030"), row("IAD", "IAD-0003030"))).build();
+            }
+            String priorityId = request.expressionAttributeValues().get(":priorityId").s();
+            List<Map<String, AttributeValue>> entries = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                entries.add(row(priorityId, priorityId + "-ac-" + i));
+            }
+            return QueryResponse.builder().items(entries).build();
+        }).when(dynamoDb).query(any(QueryRequest.class));
+        doAnswer(invocation -> {
+            batches.add((BatchWriteItemRequest) invocation.getArguments()[0]);
+            return BatchWriteItemResponse.builder().build();
+        }).when(dynamoDb).batchWriteItem(any(BatchWriteItemRequest.class));
+        doReturn(DeleteItemResponse.builder().build()).when(dynamoDb).deleteItem(any(DeleteItemRequest.class));
+    }
+
+    @Test
+    public void resetAirport_deletesEveryQueuedAircraftAndBucket() {
+        AirportResetResponse response = airportResetDao.resetAirport("IAD", Long.MAX_VALUE);
+
+        assertTrue(response.isComplete());
+        assertEquals(60, response.getAircraftsDeleted());
+        assertEquals(2, response.getBucketsDeleted());
+        assertEquals(0, response.getBucketsRemaining());
+        int deletes = 0;
+        for (BatchWriteItemRequest batch : batches) {
+            int size = batch.requestItems().values().stream().mapToInt(List::size).sum();
+            assertTrue(size <= BatchWriter.MAX_ITEMS_PER_BATCH);
+            deletes += size;
+        }
+        // every aircraft is deleted from the Aircraft and the PriorityAircrafts table
+        assertEquals(120, deletes);
+        verify(dynamoDb, times(2)).deleteItem(any(DeleteItemRequest.class));
+    }
+
+    @Test
+    public void resetAirport_whenDeadlinePassed_keepsBucketsForTheNextReset() {
+        AirportResetResponse response = airportResetDao.resetAirport("IAD", 0);
+
+        assertFalse(response.isComplete());
+        assertEquals(0, response.getAircraftsDeleted());
+        assertEquals(2, response.getBucketsRemaining());
+        verify(dynamoDb, never()).deleteItem(any(DeleteItemRequest.class));
+    }
+}
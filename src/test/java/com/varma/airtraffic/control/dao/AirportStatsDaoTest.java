@@ -0,0 +1,130 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.response.AirportStatsResponse;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AirportStatsDaoTest {
+    private DynamoDbClient dynamoDb = mock(DynamoDbClient.class);
+    private AirportStatsDao airportStatsDao = new AirportStatsDao(dynamoDb,
+            new PriorityAircraftsDao(dynamoDb, "priority_table"));
+
+    private static AttributeValue n(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static Aircraft aircraft(String priorityId) {
+        return Aircraft.builder().airportCode("IAD").priorityId(priorityId).build();
+    }
+
+    @Test
+    public void recordEnqueued_addsToTheDepthAndEveryBucketInOneUpdate() {
+        airportStatsDao.recordEnqueued(Arrays.asList(aircraft("IAD-0007030"), aircraft("IAD-0007030"),
+                aircraft("IAD-0003030")));
+
+        ArgumentCaptor<UpdateItemRequest> update = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDb).updateItem(update.capture());
+        assertEquals(s("IAD#stats"), update.getValue().key().get("hashKey"));
+        assertEquals(n(3), update.getValue().expressionAttributeValues().get(":depth"));
+        Map<String, AttributeValue> bucketDeltas = new HashMap<>();
+        final Map<String, AttributeValue> values = update.getValue().expressionAttributeValues();
+        update.getValue().expressionAttributeNames().forEach((name, attribute) -> {
+            if (name.startsWith("#p")) {
+                bucketDeltas.put(attribute, values.get(":p" + name.substring(2)));
+            }
+        });
+        assertEquals(n(2), bucketDeltas.get("IAD-0007030"));
+        assertEquals(n(1), bucketDeltas.get("IAD-0003030"));
+    }
+
+    @Test
+    public void getStats_returnsCountersAndTheOldestArrivalOfTheBuckets() {
+        Map<String, AttributeValue> counters = new HashMap<>();
+        counters.put("hashKey", s("IAD#stats"));
+        counters.put("rangeKey", s("counters"));
+        counters.put("depth", n(3));
+        counters.put("IAD-0007030", n(2));
+        counters.put("IAD-0003030", n(1));
+        counters.put("IAD-0005030", n(0));
+        doReturn(GetItemResponse.builder().item(counters).build()).when(dynamoDb).getItem(any(GetItemRequest.class));
+        doAnswer(invocation -> {
+            String priorityId = ((QueryRequest) invocation.getArguments()[0]).expressionAttributeValues()
+                    .get(":value").s();
+            Map<String, AttributeValue> entry = new HashMap<>();
+            entry.put("hashKey", s(priorityId));
+            entry.put("rangeKey", s("ac-" + priorityId));
+            entry.put("date", s(priorityId.endsWith("3030") ? "2019-08-29T02:10:00.000000Z"
+                    : "2019-08-29T02:11:00.000000Z"));
+            return QueryResponse.builder().items(Collections.singletonList(entry)).build();
+        }).when(dynamoDb).query(any(QueryRequest.class));
+
+        AirportStatsResponse stats = airportStatsDao.getStats("IAD");
+
+        assertEquals(3, stats.getDepth());
+        assertEquals(Arrays.asList("IAD-0007030", "IAD-0003030"), Arrays.asList(
+                stats.getPriorityDepths().keySet().toArray()));
+        assertEquals("2019-08-29T02:10:00.000000Z", stats.getOldestArrivalTime());
+    }
+
+    @Test
+    public void getStats_withoutQueueEntries_readsTheOldestArrivalFromTheAirportIndex() {
+        AirportStatsDao indexedStatsDao = new AirportStatsDao(dynamoDb,
+                new PriorityAircraftsDao(dynamoDb, "priority_table"),
+                new AircraftSearchDao(dynamoDb, new AircraftDao(dynamoDb, "aircraft_table"), "airportIndex"));
+        Map<String, AttributeValue> counters = new HashMap<>();
+        counters.put("depth", n(1));
+        counters.put("IAD-0007030", n(1));
+        doReturn(GetItemResponse.builder().item(counters).build()).when(dynamoDb).getItem(any(GetItemRequest.class));
+        // a page of departed aircraft only, then the queued one
+        Map<String, AttributeValue> lastKey = Collections.singletonMap("aircraftId", s("departed"));
+        when(dynamoDb.query(any(QueryRequest.class))).thenReturn(
+                QueryResponse.builder().lastEvaluatedKey(lastKey).build(),
+                QueryResponse.builder().items(Collections.singletonList(
+                        Collections.singletonMap("arrivalTime", s("2019-08-29T02:12:00.000000Z")))).build());
+
+        AirportStatsResponse stats = indexedStatsDao.getStats("IAD");
+
+        assertEquals("2019-08-29T02:12:00.000000Z", stats.getOldestArrivalTime());
+        ArgumentCaptor<QueryRequest> query = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDb, times(2)).query(query.capture());
+        assertEquals("airportIndex", query.getValue().indexName());
+        assertEquals(lastKey, query.getValue().exclusiveStartKey());
+    }
+
+    @Test
+    public void getStats_forUnknownAirport_returnsAnEmptyQueue() {
+        doReturn(GetItemResponse.builder().build()).when(dynamoDb).getItem(any(GetItemRequest.class));
+
+        AirportStatsResponse stats = airportStatsDao.getStats("IAD");
+
+        assertEquals(0, stats.getDepth());
+        assertNull(stats.getOldestArrivalTime());
+    }
+}
@@ -0,0 +1,32 @@
+package com.varma.airtraffic.control.dao;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArrivalClockTest {
+
+    @Test
+    public void next_whenClockDoesNotAdvance_stillIncreases() {
+        ArrivalClock arrivalClock = new ArrivalClock(
+                Clock.fixed(Instant.parse("2019-08-29T02:10:05.123Z"), ZoneOffset.UTC));
+
+        String first = arrivalClock.next();
+        String second = arrivalClock.next();
+
+        assertEquals("2019-08-29T02:10:05.123000Z", first);
+        assertEquals("2019-08-29T02:10:05.123001Z", second);
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    public void format_isFixedWidth() {
+        assertEquals("1970-01-01T00:00:00.000001Z", ArrivalClock.format(1));
+        assertEquals(ArrivalClock.format(1).length(), ArrivalClock.format(1_567_044_605_123_456L).length());
+    }
+}
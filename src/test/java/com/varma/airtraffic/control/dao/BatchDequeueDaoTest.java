@@ -0,0 +1,167 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.AirportWithEmptyAircraftsException;
+import com.varma.airtraffic.control.model.Aircraft;
+import org.junit.Test;
+import org.mockito.InOrder;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class BatchDequeueDaoTest {
+    private DynamoDbClient dynamoDb = mock(DynamoDbClient.class);
+    private InMemoryPriorityQueueStore store = new InMemoryPriorityQueueStore();
+    private BatchDequeueDao batchDequeueDao = new BatchDequeueDao(dynamoDb,
+            new AircraftDao(dynamoDb, "aircraft_table"),
+            new PriorityAircraftsDao(dynamoDb, "priority_table"), store);
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private void enqueue(String aircraftId, String priorityId) {
+        store.enqueue(Aircraft.builder()
+                .aircraftId(aircraftId)
+                .airportCode("IAD")
+                .priorityId(priorityId)
+                .arrivalTime("2019-08-29T02:10Z")
+                .build());
+    }
+
+    @Test(expected = AirportWithEmptyAircraftsException.class)
+    public void dequeueAircrafts_whenAirportEmpty_throwsAirportWithEmptyAircraftsException() {
+        batchDequeueDao.dequeueAircrafts("IAD", 3);
+    }
+
+    private void claimAllBut(String lostAircraftId) {
+        claimAllBut(lostAircraftId, ConditionalCheckFailedException.builder().build());
+    }
+
+    private void claimAllBut(String failedAircraftId, RuntimeException failure) {
+        doAnswer(invocation -> {
+            UpdateItemRequest request = (UpdateItemRequest) invocation.getArguments()[0];
+            Map<String, AttributeValue> item = new HashMap<>(request.key());
+            if (item.get("aircraftId").s().equals(failedAircraftId)) {
+                throw failure;
+            }
+            item.put("priorityId", request.expressionAttributeValues().get(":priorityId"));
+            item.put("airportCode", s("IAD"));
+            item.put("arrivalTime", s("2019-08-29T02:10Z"));
+            item.put("aircraftType", s("CARGO"));
+            item.put("aircraftSize", s("SMALL"));
+            return UpdateItemResponse.builder().attributes(item).build();
+        }).when(dynamoDb).updateItem(any(UpdateItemRequest.class));
+    }
+
+    @Test
+    public void dequeueAircrafts_whenFewerQueuedThanCount_returnsAllInDequeueOrder() {
+        enqueue("cargo", "IAD-3030");
+        enqueue("vip", "IAD-7070");
+        claimAllBut(null);
+
+        List<Aircraft> aircrafts = batchDequeueDao.dequeueAircrafts("IAD", 5);
+
+        assertEquals(2, aircrafts.size());
+        assertEquals("vip", aircrafts.get(0).getAircraftId());
+        assertEquals("IAD-7070", aircrafts.get(0).getPriorityId());
+        assertEquals("cargo", aircrafts.get(1).getAircraftId());
+        assertEquals(0, store.size("IAD"));
+    }
+
+    @Test
+    public void dequeueAircrafts_whenAnAircraftWasMovedMeanwhile_skipsIt() {
+        enqueue("cargo", "IAD-3030");
+        enqueue("vip", "IAD-7070");
+        claimAllBut("vip");
+
+        List<Aircraft> aircrafts = batchDequeueDao.dequeueAircrafts("IAD", 5);
+
+        assertEquals(1, aircrafts.size());
+        assertEquals("cargo", aircrafts.get(0).getAircraftId());
+        verify(dynamoDb, times(2)).updateItem(any(UpdateItemRequest.class));
+    }
+
+    @Test
+    public void dequeueAircrafts_whenAClaimFails_returnsTheClaimedAndRequeuesTheRest() {
+        enqueue("cargo", "IAD-3030");
+        enqueue("vip", "IAD-7070");
+        claimAllBut("cargo", ProvisionedThroughputExceededException.builder().build());
+
+        List<Aircraft> aircrafts = batchDequeueDao.dequeueAircrafts("IAD", 5);
+
+        assertEquals(1, aircrafts.size());
+        assertEquals("vip", aircrafts.get(0).getAircraftId());
+        assertEquals(1, store.size("IAD"));
+    }
+
+    @Test
+    public void dequeueAircrafts_fromTheTable_claimsBeforeDeletingTheQueueRows() {
+        final PriorityAircraftsDao priorityAircraftsDao = new PriorityAircraftsDao(dynamoDb, "priority_table");
+        final BatchDequeueDao tableDequeueDao = new BatchDequeueDao(dynamoDb,
+                new AircraftDao(dynamoDb, "aircraft_table"), priorityAircraftsDao, priorityAircraftsDao);
+        doAnswer(invocation -> {
+            QueryRequest request = (QueryRequest) invocation.getArguments()[0];
+            if (request.indexName() == null) {
+                Map<String, AttributeValue> bucket = new HashMap<>();
+                bucket.put("hashKey", s("IAD"));
+                bucket.put("rangeKey", s("IAD-3030"));
+                bucket.put("date", s("2019-08-29T02:20Z"));
+                return QueryResponse.builder().items(Collections.singletonList(bucket)).build();
+            }
+            return QueryResponse.builder().items(Arrays.asList(
+                    entry("first", "2019-08-29T02:10Z"), entry("second", "2019-08-29T02:20Z"))).build();
+        }).when(dynamoDb).query(any(QueryRequest.class));
+        claimAllBut("second", ProvisionedThroughputExceededException.builder().build());
+        final List<BatchWriteItemRequest> batches = new ArrayList<>();
+        doAnswer(invocation -> {
+            batches.add((BatchWriteItemRequest) invocation.getArguments()[0]);
+            return BatchWriteItemResponse.builder().build();
+        }).when(dynamoDb).batchWriteItem(any(BatchWriteItemRequest.class));
+
+        List<Aircraft> aircrafts = tableDequeueDao.dequeueAircrafts("IAD", 5);
+
+        assertEquals(1, aircrafts.size());
+        assertEquals("first", aircrafts.get(0).getAircraftId());
+        InOrder inOrder = inOrder(dynamoDb);
+        inOrder.verify(dynamoDb, times(2)).updateItem(any(UpdateItemRequest.class));
+        inOrder.verify(dynamoDb).batchWriteItem(any(BatchWriteItemRequest.class));
+        // the row of the aircraft that could not be claimed stays, and with it the bucket
+        final List<WriteRequest> deletes = batches.get(0).requestItems().get("priority_table");
+        assertEquals(1, deletes.size());
+        assertEquals("first", deletes.get(0).deleteRequest().key().get("rangeKey").s());
+        verify(dynamoDb, never()).deleteItem(any(DeleteItemRequest.class));
+    }
+
+    private static Map<String, AttributeValue> entry(String aircraftId, String arrivalTime) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("hashKey", s("IAD-3030"));
+        item.put("rangeKey", s(aircraftId));
+        item.put("date", s(arrivalTime));
+        return item;
+    }
+}
@@ -0,0 +1,106 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftSize;
+import com.varma.airtraffic.control.model.AircraftType;
+import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class BatchEnqueueDaoTest {
+    private DynamoDbClient dynamoDb = mock(DynamoDbClient.class);
+    private PriorityAircraftsDao priorityAircraftsDao = new PriorityAircraftsDao(dynamoDb, "priority_table");
+    private BatchEnqueueDao batchEnqueueDao = new BatchEnqueueDao(dynamoDb,
+            new AircraftDao(dynamoDb, "aircraft_table"), priorityAircraftsDao, priorityAircraftsDao);
+
+    private static List<CreateAircraftRequest> requests(int count) {
+        List<CreateAircraftRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(CreateAircraftRequest.builder()
+                    .airportCode("IAD")
+                    .aircraftType(AircraftType.PASSENGER)
+                    .aircraftSize(i % 2 == 0 ? AircraftSize.LARGE : AircraftSize.SMALL)
+                    .build());
+        }
+        return requests;
+    }
+
+    @Test
+    public void enqueueAircrafts_whenAllWritesProcessed_returnsEveryAircraftInChunksOf25() {
+        doReturn(BatchWriteItemResponse.builder().build())
+                .when(dynamoDb).batchWriteItem(any(BatchWriteItemRequest.class));
+
+        // 20 aircraft rows + 20 priority rows in two chunks, then the 2 bucket rows
+        List<Optional<Aircraft>> results = batchEnqueueDao.enqueueAircrafts(requests(20));
+
+        assertEquals(20, results.size());
+        results.forEach(result -> assertTrue(result.isPresent()));
+        verify(dynamoDb, times(3)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    public void enqueueAircrafts_whenWriteStaysUnprocessed_reportsOnlyThatAircraftAsFailedAndRollsItBack() {
+        final List<WriteRequest> priorityWrites = new ArrayList<>();
+        doAnswer(invocation -> {
+            BatchWriteItemRequest request = (BatchWriteItemRequest) invocation.getArguments()[0];
+            priorityWrites.addAll(request.requestItems().getOrDefault("priority_table", Collections.emptyList()));
+            List<WriteRequest> aircraftWrites = request.requestItems().get("aircraft_table");
+            if (aircraftWrites == null || aircraftWrites.get(0).putRequest() == null) {
+                return BatchWriteItemResponse.builder().build();
+            }
+            return BatchWriteItemResponse.builder()
+                    .unprocessedItems(Collections.singletonMap("aircraft_table",
+                            Collections.singletonList(aircraftWrites.get(0))))
+                    .build();
+        }).when(dynamoDb).batchWriteItem(any(BatchWriteItemRequest.class));
+
+        List<Optional<Aircraft>> results = batchEnqueueDao.enqueueAircrafts(requests(2));
+
+        assertFalse(results.get(0).isPresent());
+        assertTrue(results.get(1).isPresent());
+        // the queue entry of the failed aircraft is deleted again and its bucket is never written
+        final long entryDeletes = priorityWrites.stream().filter(write -> write.deleteRequest() != null).count();
+        final long bucketPuts = priorityWrites.stream().filter(write -> write.putRequest() != null
+                && "IAD".equals(write.putRequest().item().get("hashKey").s())).count();
+        assertEquals(1, entryDeletes);
+        assertEquals(1, bucketPuts);
+    }
+
+    @Test
+    public void enqueueAircrafts_whenBucketRowStaysUnprocessed_putsItAgainInsteadOfFailingItsAircraft() {
+        doAnswer(invocation -> {
+            BatchWriteItemRequest request = (BatchWriteItemRequest) invocation.getArguments()[0];
+            if (request.requestItems().containsKey("aircraft_table")) {
+                return BatchWriteItemResponse.builder().build();
+            }
+            return BatchWriteItemResponse.builder().unprocessedItems(request.requestItems()).build();
+        }).when(dynamoDb).batchWriteItem(any(BatchWriteItemRequest.class));
+        doReturn(PutItemResponse.builder().build()).when(dynamoDb).putItem(any(PutItemRequest.class));
+
+        List<Optional<Aircraft>> results = batchEnqueueDao.enqueueAircrafts(requests(2));
+
+        results.forEach(result -> assertTrue(result.isPresent()));
+        // one bucket per aircraft size
+        verify(dynamoDb, times(2)).putItem(any(PutItemRequest.class));
+    }
+}
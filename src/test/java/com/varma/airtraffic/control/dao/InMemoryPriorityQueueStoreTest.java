@@ -0,0 +1,57 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.AirportWithEmptyAircraftsException;
+import com.varma.airtraffic.control.model.Aircraft;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class InMemoryPriorityQueueStoreTest {
+    private InMemoryPriorityQueueStore store = new InMemoryPriorityQueueStore();
+
+    private static Aircraft aircraft(String aircraftId, String airportCode, int prioritySum, String arrivalTime) {
+        return Aircraft.builder()
+                .aircraftId(aircraftId)
+                .airportCode(airportCode)
+                .priorityId(airportCode + "-" + prioritySum)
+                .arrivalTime(arrivalTime)
+                .build();
+    }
+
+    @Test(expected = AirportWithEmptyAircraftsException.class)
+    public void dequeue_whenAirportHasNoAircrafts_throwsAirportWithEmptyAircraftsException() {
+        store.dequeue("IAD");
+    }
+
+    @Test
+    public void dequeue_whenPrioritiesDiffer_returnsHighestPriorityFirst() {
+        store.enqueue(aircraft("passenger", "IAD", 5030, "2019-08-29T02:10Z"));
+        store.enqueue(aircraft("emergency", "IAD", 503070, "2019-08-29T02:12Z"));
+        store.enqueue(aircraft("vip", "IAD", 7030, "2019-08-29T02:11Z"));
+
+        assertEquals("emergency", store.dequeue("IAD").getAircraftId());
+        assertEquals("vip", store.dequeue("IAD").getAircraftId());
+        assertEquals("passenger", store.dequeue("IAD").getAircraftId());
+    }
+
+    @Test
+    public void dequeue_whenPrioritiesEqual_returnsEarliestArrivalFirst() {
+        store.enqueue(aircraft("later", "IAD", 5070, "2019-08-29T02:11Z"));
+        store.enqueue(aircraft("earlier", "IAD", 5070, "2019-08-29T02:10Z"));
+        store.enqueue(aircraft("sameMinute", "IAD", 5070, "2019-08-29T02:10Z"));
+
+        assertEquals("earlier", store.dequeue("IAD").getAircraftId());
+        assertEquals("sameMinute", store.dequeue("IAD").getAircraftId());
+        assertEquals("later", store.dequeue("IAD").getAircraftId());
+    }
+
+    @Test
+    public void dequeue_whenMultipleAirports_onlyTouchesRequestedAirport() {
+        store.enqueue(aircraft("iad", "IAD", 5030, "2019-08-29T02:10Z"));
+        store.enqueue(aircraft("sfo", "SFO", 7070, "2019-08-29T02:10Z"));
+
+        assertEquals("iad", store.dequeue("IAD").getAircraftId());
+        assertEquals(0, store.size("IAD"));
+        assertEquals(1, store.size("SFO"));
+    }
+}
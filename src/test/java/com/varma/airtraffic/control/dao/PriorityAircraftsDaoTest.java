@@ -0,0 +1,223 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.cache.ExpiringLruCache;
+import com.varma.airtraffic.control.exception.AirportWithEmptyAircraftsException;
+import com.varma.airtraffic.control.exception.CouldNotCreateAircraftException;
+import com.varma.airtraffic.control.exception.ThrottledException;
+import com.varma.airtraffic.control.metrics.MetricsRegistry;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftPriority;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PriorityAircraftsDaoTest {
+    private DynamoDbClient dynamoDb = mock(DynamoDbClient.class);
+    private PriorityAircraftsDao priorityAircraftsDao = new PriorityAircraftsDao(dynamoDb, "priority_table");
+
+    private Aircraft aircraft = Aircraft.builder()
+            .aircraftId("some ac id")
+            .airportCode("IAD")
+            .priorityId("IAD-0007030")
+            .arrivalTime("2019-08-29T02:10Z")
+            .build();
+
+    private void queueOneAircraft() {
+        doAnswer(invocation -> {
+            final QueryRequest request = (QueryRequest) invocation.getArguments()[0];
+            // the airport bucket from the table, the oldest entry of the bucket from the LSI
+            final boolean bucketQuery = request.indexName() == null;
+            final Map<String, AttributeValue> item = new HashMap<>();
+            item.put("hashKey", AttributeValue.builder().s(bucketQuery ? "IAD" : "IAD-0007030").build());
+            item.put("rangeKey", AttributeValue.builder().s(bucketQuery ? "IAD-0007030" : "some ac id").build());
+            item.put("date", AttributeValue.builder().s("2019-08-29T02:10Z").build());
+            return QueryResponse.builder().items(Collections.singletonList(item)).build();
+        }).when(dynamoDb).query(any(QueryRequest.class));
+    }
+
+    @Test
+    public void enqueue_whenAirportBucketWriteFails_rollsBackQueueEntry() {
+        doAnswer(invocation -> {
+            PutItemRequest request = (PutItemRequest) invocation.getArguments()[0];
+            if ("IAD".equals(request.item().get("hashKey").s())) {
+                throw ProvisionedThroughputExceededException.builder().build();
+            }
+            return PutItemResponse.builder().build();
+        }).when(dynamoDb).putItem(any(PutItemRequest.class));
+        doReturn(DeleteItemResponse.builder().build()).when(dynamoDb).deleteItem(any(DeleteItemRequest.class));
+
+        try {
+            priorityAircraftsDao.enqueue(aircraft);
+        } catch (CouldNotCreateAircraftException e) {
+            verify(dynamoDb, times(1)).deleteItem(any(DeleteItemRequest.class));
+            return;
+        }
+        throw new AssertionError("enqueue should have failed");
+    }
+
+    @Test
+    public void enqueue_withoutAsyncClient_writesEntryAndBucketAtTheSameTime() {
+        final CountDownLatch bothInFlight = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            bothInFlight.countDown();
+            if (!bothInFlight.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("the writes ran one after the other");
+            }
+            return PutItemResponse.builder().build();
+        }).when(dynamoDb).putItem(any(PutItemRequest.class));
+
+        priorityAircraftsDao.enqueue(aircraft);
+
+        verify(dynamoDb, times(2)).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    public void dequeue_withoutAsyncClient_deletesEntryAndBucketAtTheSameTime() {
+        queueOneAircraft();
+        final CountDownLatch bothInFlight = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            bothInFlight.countDown();
+            if (!bothInFlight.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("the deletes ran one after the other");
+            }
+            return DeleteItemResponse.builder().build();
+        }).when(dynamoDb).deleteItem(any(DeleteItemRequest.class));
+
+        priorityAircraftsDao.dequeue("IAD");
+
+        verify(dynamoDb, times(2)).deleteItem(any(DeleteItemRequest.class));
+    }
+
+    @Test
+    public void dequeue_recordsTheLatencyOfEachCall() {
+        final MetricsRegistry metrics = new MetricsRegistry();
+        final PriorityAircraftsDao instrumentedDao = new PriorityAircraftsDao(dynamoDb, null, "priority_table",
+                null, metrics);
+        queueOneAircraft();
+        doReturn(DeleteItemResponse.builder().build()).when(dynamoDb).deleteItem(any(DeleteItemRequest.class));
+
+        instrumentedDao.dequeue("IAD");
+
+        assertEquals(1, metrics.latency("PriorityAircraftsDao.queryForHighestPriorityForAirport").getCount());
+        assertEquals(1, metrics.latency("PriorityAircraftsDao.queryForOldestAircraftWithPriority").getCount());
+        assertEquals(1, metrics.latency("PriorityAircraftsDao.deletePriorityAircraft").getCount());
+        assertEquals(1, metrics.latency("PriorityAircraftsDao.deleteAirportPriorityEntry").getCount());
+        assertEquals(1, metrics.latency("PriorityAircraftsDao.dequeue").getCount());
+    }
+
+    @Test
+    public void dequeue_whenCachedBucketWasMovedOn_keepsItAndReloadsTheAirport() {
+        final PriorityAircraftsDao cachedDao = new PriorityAircraftsDao(dynamoDb, "priority_table",
+                new ExpiringLruCache<>(10, 60000));
+        final AtomicInteger bucketQueries = new AtomicInteger();
+        doAnswer(invocation -> {
+            final QueryRequest request = (QueryRequest) invocation.getArguments()[0];
+            final boolean bucketQuery = request.indexName() == null;
+            if (bucketQuery) {
+                bucketQueries.incrementAndGet();
+            }
+            final Map<String, AttributeValue> item = new HashMap<>();
+            item.put("hashKey", AttributeValue.builder().s(bucketQuery ? "IAD" : "IAD-0007030").build());
+            item.put("rangeKey", AttributeValue.builder().s(bucketQuery ? "IAD-0007030" : "some ac id").build());
+            item.put("date", AttributeValue.builder().s("2019-08-29T02:10Z").build());
+            return QueryResponse.builder().items(Collections.singletonList(item)).build();
+        }).when(dynamoDb).query(any(QueryRequest.class));
+        final List<DeleteItemRequest> deletes = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            final DeleteItemRequest request = (DeleteItemRequest) invocation.getArguments()[0];
+            deletes.add(request);
+            if (request.conditionExpression() != null) {
+                // another container enqueued into the bucket after it was cached
+                throw ConditionalCheckFailedException.builder().build();
+            }
+            return DeleteItemResponse.builder().build();
+        }).when(dynamoDb).deleteItem(any(DeleteItemRequest.class));
+
+        final AircraftPriority dequeued = cachedDao.dequeue("IAD");
+        cachedDao.getHighestPriorityIdForAirport("IAD");
+
+        assertEquals("some ac id", dequeued.getAircraftId());
+        assertEquals(2, deletes.size());
+        final DeleteItemRequest bucketDelete = deletes.stream()
+                .filter(request -> "IAD".equals(request.key().get("hashKey").s()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("the bucket was not deleted"));
+        assertEquals("#date = :date", bucketDelete.conditionExpression());
+        assertEquals("2019-08-29T02:10Z", bucketDelete.expressionAttributeValues().get(":date").s());
+        assertEquals(2, bucketQueries.get());
+    }
+
+    @Test
+    public void getHighestPriorityIdForAirport_whenAirportIsEmpty_throwsWithoutRetrying() {
+        doReturn(QueryResponse.builder().items(Collections.emptyList()).build())
+                .when(dynamoDb).query(any(QueryRequest.class));
+
+        try {
+            priorityAircraftsDao.getHighestPriorityIdForAirport("IAD");
+        } catch (AirportWithEmptyAircraftsException e) {
+            verify(dynamoDb, times(1)).query(any(QueryRequest.class));
+            return;
+        }
+        throw new AssertionError("an empty airport has no highest priority");
+    }
+
+    @Test
+    public void getOldestAircraftIdWithPriorityId_retriesThrottledReads() {
+        final AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() < 3) {
+                throw ProvisionedThroughputExceededException.builder().build();
+            }
+            final Map<String, AttributeValue> item = new HashMap<>();
+            item.put("hashKey", AttributeValue.builder().s("IAD-0007030").build());
+            item.put("rangeKey", AttributeValue.builder().s("some ac id").build());
+            item.put("date", AttributeValue.builder().s("2019-08-29T02:10Z").build());
+            return QueryResponse.builder().items(Collections.singletonList(item)).build();
+        }).when(dynamoDb).query(any(QueryRequest.class));
+
+        final AircraftPriority entry = priorityAircraftsDao.getOldestAircraftIdWithPriorityId("IAD-0007030");
+
+        assertEquals("some ac id", entry.getAircraftId());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void getHighestPriorityIdForAirport_whenReadsStayThrottled_throwsThrottled() {
+        doAnswer(invocation -> {
+            throw ProvisionedThroughputExceededException.builder().build();
+        }).when(dynamoDb).query(any(QueryRequest.class));
+
+        try {
+            priorityAircraftsDao.getHighestPriorityIdForAirport("IAD");
+        } catch (ThrottledException e) {
+            verify(dynamoDb, times(3)).query(any(QueryRequest.class));
+            return;
+        }
+        throw new AssertionError("a throttled airport should not look empty");
+    }
+}
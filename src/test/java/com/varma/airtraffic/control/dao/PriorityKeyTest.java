@@ -0,0 +1,38 @@
+package com.varma.airtraffic.control.dao;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PriorityKeyTest {
+
+    @Test
+    public void priorityId_sortsEmergencyAboveVip() {
+        String emergencySmallCargo = PriorityKey.priorityId("IAD", 503030);
+        String largeVip = PriorityKey.priorityId("IAD", 7070);
+
+        assertEquals("IAD-0503030", emergencySmallCargo);
+        assertTrue(emergencySmallCargo.compareTo(largeVip) > 0);
+    }
+
+    @Test
+    public void queueKey_sortsByPriorityThenArrivalThenId() {
+        String vipLate = PriorityKey.queueKey(7070, "2019-08-29T02:11Z", "a");
+        String vipEarly = PriorityKey.queueKey(7070, "2019-08-29T02:10Z", "b");
+        String cargoEarliest = PriorityKey.queueKey(3030, "2019-08-29T02:00Z", "c");
+
+        assertTrue(vipEarly.compareTo(vipLate) < 0);
+        assertTrue(vipLate.compareTo(cargoEarliest) < 0);
+    }
+
+    @Test
+    public void migrate_padsLegacyPriorityId() {
+        assertTrue(PriorityKey.isLegacy("IAD-7030"));
+        assertEquals("IAD-0007030", PriorityKey.migrate("IAD-7030"));
+        assertFalse(PriorityKey.isLegacy("IAD-0007030"));
+        assertFalse(PriorityKey.isLegacy(AircraftDao.DEQUEUED_PRIORITY_ID));
+        assertEquals(7030, PriorityKey.prioritySum("IAD-0007030"));
+    }
+}
@@ -0,0 +1,196 @@
+package com.varma.airtraffic.control.dao;
+
+import com.varma.airtraffic.control.exception.UnableToDeleteException;
+import com.varma.airtraffic.control.exception.UnableToUpdateException;
+import com.varma.airtraffic.control.model.Aircraft;
+import com.varma.airtraffic.control.model.AircraftSpecialFlag;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QueueTransactionsDaoTest {
+    private static final String AIRCRAFT_ID = "some ac id";
+    private DynamoDbClient dynamoDb = mock(DynamoDbClient.class);
+    private QueueTransactionsDao queueTransactionsDao = new QueueTransactionsDao(dynamoDb,
+            new AircraftDao(dynamoDb, "aircraft_table"),
+            new PriorityAircraftsDao(dynamoDb, "priority_table"));
+
+    private Map<String, AttributeValue> airportEntry;
+    private Map<String, AttributeValue> aircraft;
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    @Before
+    public void setup() {
+        airportEntry = new HashMap<>();
+        airportEntry.put("hashKey", s("IAD"));
+        airportEntry.put("rangeKey", s("IAD-7030"));
+        airportEntry.put("date", s("2019-08-29T02:10Z"));
+        Map<String, AttributeValue> aircraftEntry = new HashMap<>();
+        aircraftEntry.put("hashKey", s("IAD-7030"));
+        aircraftEntry.put("rangeKey", s(AIRCRAFT_ID));
+        aircraftEntry.put("date", s("2019-08-29T02:10Z"));
+        doAnswer(invocation -> ((QueryRequest) invocation.getArguments()[0]).indexName() == null
+                ? QueryResponse.builder().items(Collections.singletonList(airportEntry)).build()
+                : QueryResponse.builder().items(Collections.singletonList(aircraftEntry)).build())
+                .when(dynamoDb).query(any(QueryRequest.class));
+
+        aircraft = new HashMap<>();
+        aircraft.put("aircraftId", s(AIRCRAFT_ID));
+        aircraft.put("priorityId", s("IAD-7030"));
+        aircraft.put("airportCode", s("IAD"));
+        aircraft.put("arrivalTime", s("2019-08-29T02:10Z"));
+        aircraft.put("aircraftType", s("VIP"));
+        aircraft.put("aircraftSize", s("SMALL"));
+        doReturn(GetItemResponse.builder().item(aircraft).build()).when(dynamoDb).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    public void dequeueAircraft_whenTransactionSucceeds_returnsClaimedAircraft() {
+        doReturn(TransactWriteItemsResponse.builder().build())
+                .when(dynamoDb).transactWriteItems(any(TransactWriteItemsRequest.class));
+
+        Aircraft aircraft = queueTransactionsDao.dequeueAircraft("IAD");
+
+        assertEquals(AIRCRAFT_ID, aircraft.getAircraftId());
+        verify(dynamoDb, times(1)).transactWriteItems(any(TransactWriteItemsRequest.class));
+    }
+
+    @Test
+    public void dequeueAircraft_whenAircraftIsGone_removesItsEntryAndDequeuesTheNext() {
+        when(dynamoDb.getItem(any(GetItemRequest.class)))
+                .thenReturn(GetItemResponse.builder().build(), GetItemResponse.builder().item(aircraft).build());
+        doReturn(TransactWriteItemsResponse.builder().build())
+                .when(dynamoDb).transactWriteItems(any(TransactWriteItemsRequest.class));
+
+        Aircraft aircraft = queueTransactionsDao.dequeueAircraft("IAD");
+
+        assertEquals(AIRCRAFT_ID, aircraft.getAircraftId());
+        ArgumentCaptor<TransactWriteItemsRequest> request = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(dynamoDb, times(2)).transactWriteItems(request.capture());
+        // only the orphan entry and the bucket it was the latest entry of
+        assertEquals(2, request.getAllValues().get(0).transactItems().size());
+        assertNull(request.getAllValues().get(0).transactItems().get(0).update());
+        assertEquals(3, request.getAllValues().get(1).transactItems().size());
+    }
+
+    @Test
+    public void dequeueAircraft_whenBucketHasNoEntries_removesItAndDequeuesTheNext() {
+        Map<String, AttributeValue> aircraftEntry = new HashMap<>();
+        aircraftEntry.put("hashKey", s("IAD-7030"));
+        aircraftEntry.put("rangeKey", s(AIRCRAFT_ID));
+        aircraftEntry.put("date", s("2019-08-29T02:10Z"));
+        AtomicInteger entryReads = new AtomicInteger();
+        doAnswer(invocation -> {
+            QueryRequest query = (QueryRequest) invocation.getArguments()[0];
+            if (query.indexName() == null) {
+                // the airport buckets, or the consistent check of the entries of the stale bucket
+                return "IAD".equals(query.expressionAttributeValues().get(":value").s())
+                        ? QueryResponse.builder().items(Collections.singletonList(airportEntry)).build()
+                        : QueryResponse.builder().build();
+            }
+            return entryReads.incrementAndGet() == 1 ? QueryResponse.builder().build()
+                    : QueryResponse.builder().items(Collections.singletonList(aircraftEntry)).build();
+        }).when(dynamoDb).query(any(QueryRequest.class));
+        doReturn(TransactWriteItemsResponse.builder().build())
+                .when(dynamoDb).transactWriteItems(any(TransactWriteItemsRequest.class));
+
+        Aircraft aircraft = queueTransactionsDao.dequeueAircraft("IAD");
+
+        assertEquals(AIRCRAFT_ID, aircraft.getAircraftId());
+        ArgumentCaptor<DeleteItemRequest> delete = ArgumentCaptor.forClass(DeleteItemRequest.class);
+        verify(dynamoDb).deleteItem(delete.capture());
+        assertEquals("#date = :date", delete.getValue().conditionExpression());
+        assertEquals(s("IAD-7030"), delete.getValue().key().get("rangeKey"));
+    }
+
+    @Test(expected = UnableToDeleteException.class)
+    public void dequeueAircraft_whenAlwaysContended_throwsUnableToDeleteException() {
+        doThrow(TransactionCanceledException.builder().build())
+                .when(dynamoDb).transactWriteItems(any(TransactWriteItemsRequest.class));
+        queueTransactionsDao.dequeueAircraft("IAD");
+    }
+
+    @Test
+    public void reprioritizeAircraft_toEmergency_movesEntryAndBucketsInOneTransaction() {
+        doAnswer(invocation -> "aircraft_table".equals(((GetItemRequest) invocation.getArguments()[0]).tableName())
+                ? GetItemResponse.builder().item(aircraft).build()
+                : GetItemResponse.builder().item(airportEntry).build())
+                .when(dynamoDb).getItem(any(GetItemRequest.class));
+        doReturn(TransactWriteItemsResponse.builder().build())
+                .when(dynamoDb).transactWriteItems(any(TransactWriteItemsRequest.class));
+
+        Aircraft updated = queueTransactionsDao.reprioritizeAircraft(AIRCRAFT_ID, AircraftSpecialFlag.EMERGENCY);
+
+        assertEquals("IAD-0507030", updated.getPriorityId());
+        assertEquals("2019-08-29T02:10Z", updated.getArrivalTime());
+        ArgumentCaptor<TransactWriteItemsRequest> request = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(dynamoDb, times(1)).transactWriteItems(request.capture());
+        // aircraft, old entry, new entry, new bucket and the old bucket it was the latest aircraft of
+        assertEquals(5, request.getValue().transactItems().size());
+        assertNotNull(request.getValue().transactItems().get(4).delete());
+    }
+
+    @Test
+    public void reprioritizeAircraft_whenOthersRemainInOldBucket_checksTheEntryTheBucketFallsBackTo() {
+        Map<String, AttributeValue> otherEntry = new HashMap<>();
+        otherEntry.put("hashKey", s("IAD-7030"));
+        otherEntry.put("rangeKey", s("other ac id"));
+        otherEntry.put("date", s("2019-08-29T02:05Z"));
+        doReturn(QueryResponse.builder().items(Collections.singletonList(otherEntry)).build())
+                .when(dynamoDb).query(any(QueryRequest.class));
+        doAnswer(invocation -> "aircraft_table".equals(((GetItemRequest) invocation.getArguments()[0]).tableName())
+                ? GetItemResponse.builder().item(aircraft).build()
+                : GetItemResponse.builder().item(airportEntry).build())
+                .when(dynamoDb).getItem(any(GetItemRequest.class));
+        doReturn(TransactWriteItemsResponse.builder().build())
+                .when(dynamoDb).transactWriteItems(any(TransactWriteItemsRequest.class));
+
+        queueTransactionsDao.reprioritizeAircraft(AIRCRAFT_ID, AircraftSpecialFlag.EMERGENCY);
+
+        ArgumentCaptor<TransactWriteItemsRequest> request = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(dynamoDb, times(1)).transactWriteItems(request.capture());
+        // aircraft, old entry, new entry, new bucket, old bucket moved back and the check of its latest entry
+        assertEquals(6, request.getValue().transactItems().size());
+        assertEquals("2019-08-29T02:05Z",
+                request.getValue().transactItems().get(4).put().item().get("date").s());
+        assertEquals("other ac id",
+                request.getValue().transactItems().get(5).conditionCheck().key().get("rangeKey").s());
+    }
+
+    @Test(expected = UnableToUpdateException.class)
+    public void reprioritizeAircraft_whenDequeued_throwsUnableToUpdateException() {
+        aircraft.put("priorityId", s("0"));
+        doReturn(GetItemResponse.builder().item(aircraft).build()).when(dynamoDb).getItem(any(GetItemRequest.class));
+        queueTransactionsDao.reprioritizeAircraft(AIRCRAFT_ID, AircraftSpecialFlag.EMERGENCY);
+    }
+}
@@ -0,0 +1,39 @@
+package com.varma.airtraffic.control.dao;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimeOrderedIdGeneratorTest {
+
+    @Test
+    public void nextId_isVersion7WithTheClockMillis() {
+        Instant now = Instant.parse("2019-08-29T02:10:05.123Z");
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(Clock.fixed(now, ZoneOffset.UTC));
+
+        UUID id = UUID.fromString(generator.nextId());
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(now.toEpochMilli(), id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    public void nextId_whenClockDoesNotAdvance_stillSortsInCreationOrder() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(
+                Clock.fixed(Instant.parse("2019-08-29T02:10:05.123Z"), ZoneOffset.UTC));
+
+        String previous = generator.nextId();
+        for (int i = 0; i < 5000; i++) {
+            String next = generator.nextId();
+            assertTrue(previous.compareTo(next) < 0);
+            previous = next;
+        }
+    }
+}
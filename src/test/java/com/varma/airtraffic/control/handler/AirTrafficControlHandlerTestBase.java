@@ -5,13 +5,6 @@ import com.varma.airtraffic.control.config.DaggerAirTrafficControlTestComponent;
 import org.junit.After;
 import org.junit.Before;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
-import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
-import software.amazon.awssdk.services.dynamodb.model.DeleteTableRequest;
-import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
-import software.amazon.awssdk.services.dynamodb.model.KeyType;
-import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
-import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
 
 import javax.inject.Inject;
 
@@ -20,8 +13,6 @@ import javax.inject.Inject;
  * the class name so that it does not get picked up by failsafe.
  */
 public abstract class AirTrafficControlHandlerTestBase {
-    private static final String TABLE_NAME = "AircraftTable";
-
     private final AirTrafficControlTestComponent atcComponent;
 
     @Inject
@@ -34,28 +25,11 @@ public abstract class AirTrafficControlHandlerTestBase {
 
     @Before
     public void setup() {
-        dynamoDb.createTable(CreateTableRequest.builder()
-                .tableName(TABLE_NAME)
-                .keySchema(KeySchemaElement.builder()
-                        .keyType(KeyType.HASH)
-                        .attributeName("aircraftId")
-                        .build())
-                .attributeDefinitions(
-                        AttributeDefinition.builder()
-                                .attributeName("aircraftId")
-                                .attributeType(ScalarAttributeType.S)
-                                .build())
-                .provisionedThroughput(
-                        ProvisionedThroughput.builder()
-                                .readCapacityUnits(1L)
-                                .writeCapacityUnits(1L)
-                                .build())
-                .build());
-
+        AirTrafficControlTables.create(dynamoDb, 1L);
     }
 
     @After
     public void teardown() {
-        dynamoDb.deleteTable(DeleteTableRequest.builder().tableName(TABLE_NAME).build());
+        AirTrafficControlTables.delete(dynamoDb);
     }
 }
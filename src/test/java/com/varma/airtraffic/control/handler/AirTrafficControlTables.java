@@ -0,0 +1,78 @@
+package com.varma.airtraffic.control.handler;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.LocalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+/**
+ * Creates and deletes the tables of template.yaml in DynamoDB Local.
+ */
+public final class AirTrafficControlTables {
+    public static final String AIRCRAFT_TABLE_NAME = "AircraftTable";
+    public static final String PRIORITY_AIRCRAFT_TABLE_NAME = "PriorityAircraftsTable";
+
+    private AirTrafficControlTables() {
+    }
+
+    public static void create(final DynamoDbClient dynamoDb, final long capacityUnits) {
+        final ProvisionedThroughput throughput = ProvisionedThroughput.builder()
+                .readCapacityUnits(capacityUnits)
+                .writeCapacityUnits(capacityUnits)
+                .build();
+        dynamoDb.createTable(CreateTableRequest.builder()
+                .tableName(AIRCRAFT_TABLE_NAME)
+                .keySchema(key("aircraftId", KeyType.HASH))
+                .attributeDefinitions(attribute("aircraftId"), attribute("airportCode"), attribute("queueKey"),
+                        attribute("arrivalTime"))
+                .globalSecondaryIndexes(GlobalSecondaryIndex.builder()
+                        .indexName("airportQueueIndex")
+                        .keySchema(key("airportCode", KeyType.HASH), key("queueKey", KeyType.RANGE))
+                        .projection(Projection.builder().projectionType(ProjectionType.KEYS_ONLY).build())
+                        .provisionedThroughput(throughput)
+                        .build(), GlobalSecondaryIndex.builder()
+                        .indexName("airportIndex")
+                        .keySchema(key("airportCode", KeyType.HASH), key("arrivalTime", KeyType.RANGE))
+                        .projection(Projection.builder()
+                                .projectionType(ProjectionType.INCLUDE)
+                                .nonKeyAttributes("priorityId", "aircraftType", "aircraftSize",
+                                        "aircraftSpecialFlags", "departureTime")
+                                .build())
+                        .provisionedThroughput(throughput)
+                        .build())
+                .provisionedThroughput(throughput)
+                .build());
+        dynamoDb.createTable(CreateTableRequest.builder()
+                .tableName(PRIORITY_AIRCRAFT_TABLE_NAME)
+                .keySchema(key("hashKey", KeyType.HASH), key("rangeKey", KeyType.RANGE))
+                .attributeDefinitions(attribute("hashKey"), attribute("rangeKey"), attribute("date"))
+                .localSecondaryIndexes(LocalSecondaryIndex.builder()
+                        .indexName("pDateIndex")
+                        .keySchema(key("hashKey", KeyType.HASH), key("date", KeyType.RANGE))
+                        .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                        .build())
+                .provisionedThroughput(throughput)
+                .build());
+    }
+
+    public static void delete(final DynamoDbClient dynamoDb) {
+        dynamoDb.deleteTable(DeleteTableRequest.builder().tableName(AIRCRAFT_TABLE_NAME).build());
+        dynamoDb.deleteTable(DeleteTableRequest.builder().tableName(PRIORITY_AIRCRAFT_TABLE_NAME).build());
+    }
+
+    private static KeySchemaElement key(final String name, final KeyType keyType) {
+        return KeySchemaElement.builder().attributeName(name).keyType(keyType).build();
+    }
+
+    private static AttributeDefinition attribute(final String name) {
+        return AttributeDefinition.builder().attributeName(name).attributeType(ScalarAttributeType.S).build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.varma.airtraffic.control.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.airtraffic.control.model.AircraftSize;
+import com.varma.airtraffic.control.model.request.CreateAircraftRequest;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ApiGatewayEventReaderTest {
+    private final ApiGatewayEventReader reader = new ApiGatewayEventReader(new ObjectMapper());
+
+    @Test
+    public void read_keepsParametersAndBody_skipsTheRest() throws IOException {
+        ApiGatewayEvent event = read("{\"resource\": \"/aircraft/{airportCode}\", "
+                + "\"headers\": {\"Accept\": \"application/json\"}, "
+                + "\"requestContext\": {\"identity\": {\"sourceIp\": \"127.0.0.1\"}, \"pathParameters\": {}}, "
+                + "\"pathParameters\": {\"airportCode\": \"IAD\", \"nested\": {\"a\": 1}}, "
+                + "\"queryStringParameters\": {\"count\": 5}, "
+                + "\"body\": \"{\\\"airportCode\\\": \\\"IAD\\\"}\"}");
+
+        assertEquals("IAD", event.getPathParameter("airportCode"));
+        assertNull(event.getPathParameter("nested"));
+        assertEquals("5", event.getQueryStringParameter("count"));
+        assertEquals("{\"airportCode\": \"IAD\"}", event.getBody());
+    }
+
+    @Test
+    public void read_whenParametersAreNull_returnsEmptyParameters() throws IOException {
+        ApiGatewayEvent event = read("{\"pathParameters\": null, \"queryStringParameters\": null, \"body\": null}");
+
+        assertTrue(event.getPathParameters().isEmpty());
+        assertTrue(event.getQueryStringParameters().isEmpty());
+        assertNull(event.getBody());
+    }
+
+    @Test
+    public void read_whenInputIsEmpty_returnsNull() throws IOException {
+        assertNull(read(""));
+    }
+
+    @Test(expected = JsonProcessingException.class)
+    public void read_whenInputIsNotAnObject_throws() throws IOException {
+        read("[1]");
+    }
+
+    @Test
+    public void readBody_bindsToRequest() throws IOException {
+        CreateAircraftRequest request = reader.readBody(
+                "{\"airportCode\": \"IAD\", \"aircraftSize\": \"LARGE\"}", CreateAircraftRequest.class);
+
+        assertEquals("IAD", request.getAirportCode());
+        assertEquals(AircraftSize.LARGE, request.getAircraftSize());
+    }
+
+    private ApiGatewayEvent read(final String event) throws IOException {
+        return reader.read(new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,305 @@
+package com.varma.airtraffic.control.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.airtraffic.control.config.AirTrafficControlComponent;
+import com.varma.airtraffic.control.config.DaggerAirTrafficControlComponent;
+import com.varma.airtraffic.control.config.LoadTestDynamoModule;
+import com.varma.airtraffic.control.model.AircraftSize;
+import com.varma.airtraffic.control.model.AircraftType;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Drives a mix of create, get and dequeue requests through the handlers against DynamoDB Local and
+ * writes throughput, latency percentiles, conditional failures and duplicate dequeues to a JSON file.
+ * The tables are recreated at the start of every run.
+ *
+ * <pre>
+ * ENDPOINT_OVERRIDE=http://localhost:8000 java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *     -Dairports=5 -Dworkers=16 -DdurationSeconds=60 -Dmix=create:50,get:30,dequeue:20 \
+ *     -Dresults=target/load-results.json com.varma.airtraffic.control.handler.LoadGenerator
+ * </pre>
+ * Handler settings such as DEQUEUE_MODE are read from the environment as in Lambda.
+ */
+public final class LoadGenerator {
+    private static final int RECENT_AIRCRAFT_IDS = 1 << 14;
+    private static final AircraftType[] TYPES = AircraftType.values();
+    private static final AircraftSize[] SIZES = AircraftSize.values();
+
+    enum Operation { CREATE, GET, DEQUEUE }
+
+    private final int airports;
+    private final int workers;
+    private final long durationMillis;
+    private final Map<Operation, Integer> mix;
+    private final File results;
+
+    private final LoadTestDynamoModule dynamoModule = new LoadTestDynamoModule();
+    private final AirTrafficControlComponent component = DaggerAirTrafficControlComponent.builder()
+            .dynamoModule(dynamoModule)
+            .build();
+    private final ObjectMapper objectMapper = component.provideObjectMapper();
+    private final CreateAircraftHandler createAircraftHandler = new CreateAircraftHandler(component);
+    private final GetAircraftHandler getAircraftHandler = new GetAircraftHandler(component);
+    private final DequeueAircraftHandler dequeueAircraftHandler = new DequeueAircraftHandler(component);
+
+    // ring of recently created aircraft for the gets to read
+    private final AtomicReferenceArray<String> recentAircraftIds = new AtomicReferenceArray<>(RECENT_AIRCRAFT_IDS);
+    private final AtomicLong created = new AtomicLong();
+    private final Map<String, Boolean> dequeuedAircraftIds = new ConcurrentHashMap<>();
+    private final AtomicLong duplicateDequeues = new AtomicLong();
+    private final AtomicLong emptyDequeues = new AtomicLong();
+
+    LoadGenerator(final int airports, final int workers, final long durationMillis,
+                  final Map<Operation, Integer> mix, final File results) {
+        this.airports = airports;
+        this.workers = workers;
+        this.durationMillis = durationMillis;
+        this.mix = mix;
+        this.results = results;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        new LoadGenerator(
+                Integer.getInteger("airports", 5),
+                Integer.getInteger("workers", 16),
+                TimeUnit.SECONDS.toMillis(Integer.getInteger("durationSeconds", 60)),
+                parseMix(System.getProperty("mix", "create:50,get:30,dequeue:20")),
+                new File(System.getProperty("results", "target/load-results.json")))
+                .run();
+        System.exit(0);
+    }
+
+    static Map<Operation, Integer> parseMix(final String mix) {
+        final Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            final String[] weight = entry.trim().split(":");
+            weights.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+
+    void run() throws Exception {
+        resetTables(component.provideDynamoDbClient());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(workers);
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        final List<Future<Map<Operation, Recorder>>> futures = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            futures.add(executor.submit(() -> work(deadline)));
+        }
+        final Map<Operation, Recorder> total = new LinkedHashMap<>();
+        for (Future<Map<Operation, Recorder>> future : futures) {
+            future.get().forEach((operation, recorder) ->
+                    total.computeIfAbsent(operation, o -> new Recorder()).addAll(recorder));
+        }
+        final long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        final Map<String, Object> report = report(total, elapsedNanos);
+        if (results.getParentFile() != null) {
+            results.getParentFile().mkdirs();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(results, report);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+    }
+
+    private static void resetTables(final DynamoDbClient dynamoDb) {
+        try {
+            AirTrafficControlTables.delete(dynamoDb);
+        } catch (ResourceNotFoundException e) {
+            // first run against this DynamoDB Local
+        }
+        AirTrafficControlTables.create(dynamoDb, 10000L);
+    }
+
+    private Map<Operation, Recorder> work(final long deadline) {
+        final Map<Operation, Recorder> recorders = new LinkedHashMap<>();
+        final int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        while (System.nanoTime() < deadline) {
+            final Operation operation = pick(totalWeight);
+            final Recorder recorder = recorders.computeIfAbsent(operation, o -> new Recorder());
+            final long start = System.nanoTime();
+            boolean failed;
+            try {
+                failed = !execute(operation);
+            } catch (Exception e) {
+                failed = true;
+            }
+            recorder.record(System.nanoTime() - start, failed);
+        }
+        return recorders;
+    }
+
+    private Operation pick(final int totalWeight) {
+        int choice = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+            choice -= weight.getValue();
+            if (choice < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("mix has no weight left");
+    }
+
+    /**
+     * @return false if the request failed
+     */
+    private boolean execute(final Operation operation) throws IOException {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final String airportCode = String.format("L%02d", random.nextInt(airports));
+        switch (operation) {
+            case CREATE: {
+                final String body = "{\"airportCode\": \"" + airportCode + "\", \"aircraftType\": \""
+                        + TYPES[random.nextInt(TYPES.length)] + "\", \"aircraftSize\": \""
+                        + SIZES[random.nextInt(SIZES.length)] + "\"}";
+                final JsonNode response = handle(createAircraftHandler,
+                        "{\"body\": " + objectMapper.writeValueAsString(body) + "}");
+                if (response.get("statusCode").asInt() != AircraftRequestStreamHandler.SC_CREATED) {
+                    return false;
+                }
+                final String aircraftId = objectMapper.readTree(response.get("body").asText())
+                        .get("aircraftId").asText();
+                recentAircraftIds.set((int) (created.getAndIncrement() % RECENT_AIRCRAFT_IDS), aircraftId);
+                return true;
+            }
+            case GET: {
+                final long count = created.get();
+                if (count == 0) {
+                    return true;
+                }
+                final String aircraftId = recentAircraftIds.get(
+                        (int) (random.nextLong(Math.min(count, RECENT_AIRCRAFT_IDS))));
+                if (aircraftId == null) {
+                    return true;
+                }
+                final JsonNode response = handle(getAircraftHandler,
+                        "{\"pathParameters\": {\"aircraftId\": \"" + aircraftId + "\"}}");
+                return response.get("statusCode").asInt() == AircraftRequestStreamHandler.SC_OK;
+            }
+            case DEQUEUE: {
+                final JsonNode response = handle(dequeueAircraftHandler,
+                        "{\"pathParameters\": {\"airportCode\": \"" + airportCode + "\"}}");
+                final int statusCode = response.get("statusCode").asInt();
+                if (statusCode == AircraftRequestStreamHandler.SC_NOT_FOUND) {
+                    emptyDequeues.incrementAndGet();
+                    return true;
+                }
+                if (statusCode != AircraftRequestStreamHandler.SC_OK) {
+                    return false;
+                }
+                final String aircraftId = objectMapper.readTree(response.get("body").asText())
+                        .get("aircraftId").asText();
+                if (dequeuedAircraftIds.putIfAbsent(aircraftId, Boolean.TRUE) != null) {
+                    duplicateDequeues.incrementAndGet();
+                }
+                return true;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private JsonNode handle(final AircraftRequestStreamHandler handler, final String event) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(512);
+        handler.handleRequest(new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)), output, null);
+        return objectMapper.readTree(output.toByteArray());
+    }
+
+    private Map<String, Object> report(final Map<Operation, Recorder> total, final long elapsedNanos) {
+        final double elapsedSeconds = elapsedNanos / 1e9;
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("airports", airports);
+        report.put("workers", workers);
+        report.put("mix", mix);
+        report.put("dequeueMode", System.getenv().getOrDefault("DEQUEUE_MODE", "standard"));
+        report.put("elapsedSeconds", elapsedSeconds);
+
+        final Map<String, Object> operations = new LinkedHashMap<>();
+        long requests = 0;
+        for (Map.Entry<Operation, Recorder> entry : total.entrySet()) {
+            final Recorder recorder = entry.getValue();
+            requests += recorder.size();
+            final Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", recorder.size());
+            stats.put("errors", recorder.errors);
+            stats.put("throughputPerSecond", recorder.size() / elapsedSeconds);
+            stats.put("p50Micros", recorder.percentileMicros(0.50));
+            stats.put("p99Micros", recorder.percentileMicros(0.99));
+            stats.put("p999Micros", recorder.percentileMicros(0.999));
+            stats.put("maxMicros", recorder.percentileMicros(1.0));
+            operations.put(entry.getKey().name().toLowerCase(), stats);
+        }
+        report.put("throughputPerSecond", requests / elapsedSeconds);
+        report.put("operations", operations);
+        report.put("emptyDequeues", emptyDequeues.get());
+        report.put("duplicateDequeues", duplicateDequeues.get());
+        report.put("conditionalCheckFailures", dynamoModule.getConditionalCheckFailures());
+        report.put("transactionConflicts", dynamoModule.getTransactionConflicts());
+        report.put("throttles", dynamoModule.getThrottles());
+        return report;
+    }
+
+    /**
+     * Latencies of one operation, kept per worker so recording never contends.
+     */
+    static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        void record(final long latencyNanos, final boolean failed) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            if (failed) {
+                errors++;
+            }
+        }
+
+        void addAll(final Recorder other) {
+            for (int i = 0; i < other.size; i++) {
+                record(other.latencies[i], false);
+            }
+            errors += other.errors;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long percentileMicros(final double percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            final long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            final int index = (int) Math.min(size - 1, Math.ceil(percentile * size) - 1);
+            return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.varma.airtraffic.control.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.airtraffic.control.model.response.ErrorMessage;
+import com.varma.airtraffic.control.model.response.GatewayResponse;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ResponseWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ResponseWriter responseWriter = new ResponseWriter(objectMapper);
+
+    @Test
+    public void write_matchesGatewayResponse() throws IOException {
+        ErrorMessage body = new ErrorMessage("Airport with given code is NOT_FOUND", 404);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        responseWriter.write(output, body, AircraftRequestStreamHandler.SC_OK);
+
+        JsonNode expected = objectMapper.valueToTree(new GatewayResponse<>(objectMapper.writeValueAsString(body),
+                AircraftRequestStreamHandler.APPLICATION_JSON, AircraftRequestStreamHandler.SC_OK));
+        assertEquals(expected, objectMapper.readTree(output.toByteArray()));
+    }
+
+    @Test
+    public void writeError_whenWrittenTwice_writesTheSameBytes() throws IOException {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        responseWriter.writeError(first, AircraftRequestStreamHandler.REQUIRE_AC_SIZE,
+                AircraftRequestStreamHandler.SC_BAD_REQUEST);
+        responseWriter.writeError(second, AircraftRequestStreamHandler.REQUIRE_AC_SIZE,
+                AircraftRequestStreamHandler.SC_BAD_REQUEST);
+
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+        JsonNode response = objectMapper.readTree(second.toByteArray());
+        assertEquals(400, response.get("statusCode").asInt());
+        assertEquals("Require aircraftSize to create an airplane entry",
+                objectMapper.readTree(response.get("body").asText()).get("message").asText());
+    }
+
+    @Test
+    public void writeError_whenStatusCodeDiffers_usesTheGivenStatusCode() throws IOException {
+        ErrorMessage error = new ErrorMessage("Aircraft with given aircraftId is NOT_FOUND", 404);
+        responseWriter.writeError(new ByteArrayOutputStream(), error, AircraftRequestStreamHandler.SC_NOT_FOUND);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        responseWriter.writeError(output, error, AircraftRequestStreamHandler.SC_BAD_REQUEST);
+
+        assertEquals(400, objectMapper.readTree(output.toByteArray()).get("statusCode").asInt());
+    }
+}
@@ -0,0 +1,91 @@
+package com.varma.airtraffic.control.logging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.logging.Log;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class StructuredLoggerTest {
+    private ObjectMapper objectMapper = new ObjectMapper();
+    private Log log = mock(Log.class);
+    private StructuredLogger logger = new StructuredLogger(log);
+
+    @Test
+    public void debug_whenDisabled_neitherFormatsNorComputesValues() {
+        final AtomicInteger computed = new AtomicInteger();
+
+        logger.debug("dequeue.bucketSelected", "priorityId", (Supplier<String>) () -> {
+            computed.incrementAndGet();
+            return "IAD#1";
+        });
+
+        assertEquals(0, computed.get());
+        verify(log, never()).debug(any());
+        verify(log, never()).info(any());
+    }
+
+    @Test
+    public void debug_whenEnabled_logsOneJsonLineWithTheRequestId() throws Exception {
+        doReturn(true).when(log).isDebugEnabled();
+        final ArgumentCaptor<Object> line = ArgumentCaptor.forClass(Object.class);
+
+        try (LogContext ignored = LogContext.open("request-1", false)) {
+            logger.debug("dequeue.lostRace", "aircraftId", "AC1", "attempt", 2,
+                    "priorityId", (Supplier<String>) () -> "IAD#1");
+        }
+
+        verify(log).debug(line.capture());
+        final JsonNode json = objectMapper.readTree((String) line.getValue());
+        assertEquals("DEBUG", json.get("level").asText());
+        assertEquals("dequeue.lostRace", json.get("event").asText());
+        assertEquals("request-1", json.get("requestId").asText());
+        assertEquals("AC1", json.get("aircraftId").asText());
+        assertEquals(2, json.get("attempt").asInt());
+        assertEquals("IAD#1", json.get("priorityId").asText());
+        assertFalse(json.has("sampled"));
+    }
+
+    @Test
+    public void error_logsTheFailureWithItsStackTrace() throws Exception {
+        doReturn(true).when(log).isErrorEnabled();
+        final ArgumentCaptor<Object> line = ArgumentCaptor.forClass(Object.class);
+        final IllegalStateException failure = new IllegalStateException("throttled");
+
+        logger.error("aircraft.deleteFailed", failure, "aircraftId", "AC1");
+
+        verify(log).error(line.capture(), eq(failure));
+        final JsonNode json = objectMapper.readTree((String) line.getValue());
+        assertEquals("ERROR", json.get("level").asText());
+        assertEquals(IllegalStateException.class.getName(), json.get("error").asText());
+        assertEquals("throttled", json.get("errorMessage").asText());
+        assertFalse(json.has("requestId"));
+    }
+
+    @Test
+    public void format_escapesStringsAndKeepsNumbersAndBooleansBare() throws Exception {
+        final JsonNode json = objectMapper.readTree(StructuredLogger.format("INFO", "reset\"done\"", null,
+                "airportCode", "I\\A\nD", "rollingBack", true, "capacity", 0.5, "nan", Double.NaN,
+                "missing", null));
+
+        assertEquals("reset\"done\"", json.get("event").asText());
+        assertEquals("I\\A\nD", json.get("airportCode").asText());
+        assertTrue(json.get("rollingBack").isBoolean());
+        assertEquals(0.5, json.get("capacity").asDouble(), 0);
+        assertEquals("NaN", json.get("nan").asText());
+        assertTrue(json.get("missing").isNull());
+    }
+}
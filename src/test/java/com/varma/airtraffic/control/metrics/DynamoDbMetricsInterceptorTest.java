@@ -0,0 +1,32 @@
+package com.varma.airtraffic.control.metrics;
+
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+
+import static org.junit.Assert.assertEquals;
+
+public class DynamoDbMetricsInterceptorTest {
+    @Test
+    public void withConsumedCapacity_asksForTheTotal() {
+        final QueryRequest query = (QueryRequest) DynamoDbMetricsInterceptor.withConsumedCapacity(
+                QueryRequest.builder().tableName("priority_table").limit(1).build());
+        final TransactWriteItemsRequest transaction = (TransactWriteItemsRequest)
+                DynamoDbMetricsInterceptor.withConsumedCapacity(TransactWriteItemsRequest.builder().build());
+
+        assertEquals(ReturnConsumedCapacity.TOTAL, query.returnConsumedCapacity());
+        assertEquals(Integer.valueOf(1), query.limit());
+        assertEquals(ReturnConsumedCapacity.TOTAL, transaction.returnConsumedCapacity());
+    }
+
+    @Test
+    public void withConsumedCapacity_keepsWhatTheCallerAskedFor() {
+        final QueryRequest query = QueryRequest.builder()
+                .returnConsumedCapacity(ReturnConsumedCapacity.INDEXES)
+                .build();
+
+        assertEquals(ReturnConsumedCapacity.INDEXES,
+                ((QueryRequest) DynamoDbMetricsInterceptor.withConsumedCapacity(query)).returnConsumedCapacity());
+    }
+}
@@ -0,0 +1,80 @@
+package com.varma.airtraffic.control.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EmbeddedMetricsWriterTest {
+    private ObjectMapper objectMapper = new ObjectMapper();
+    private List<String> lines = new ArrayList<>();
+    private MetricsRegistry registry = new MetricsRegistry();
+    private EmbeddedMetricsWriter writer = new EmbeddedMetricsWriter(objectMapper, "AirTrafficControl",
+            Collections.singletonMap("FunctionName", "DequeueAircraft"), lines::add, () -> 1567044600000L);
+
+    @Test
+    public void write_emitsOneParsableLineAndDrainsTheRegistry() throws Exception {
+        registry.recordLatency("DynamoDb.Query", TimeUnit.MILLISECONDS.toNanos(12));
+        registry.recordLatency("DynamoDb.Query", TimeUnit.MILLISECONDS.toNanos(3));
+        registry.add("DynamoDb.Query.consumedCapacity", 0.5);
+        registry.add("DynamoDb.Query.consumedCapacity", 0.5);
+
+        writer.write(registry);
+        writer.write(registry);
+
+        assertEquals(1, lines.size());
+        final JsonNode line = objectMapper.readTree(lines.get(0));
+        assertEquals(1567044600000L, line.get("_aws").get("Timestamp").asLong());
+        final JsonNode directive = line.get("_aws").get("CloudWatchMetrics").get(0);
+        assertEquals("AirTrafficControl", directive.get("Namespace").asText());
+        assertEquals("FunctionName", directive.get("Dimensions").get(0).get(0).asText());
+        assertEquals("DequeueAircraft", line.get("FunctionName").asText());
+        assertEquals("DynamoDb.Query", directive.get("Metrics").get(0).get("Name").asText());
+        assertEquals("Milliseconds", directive.get("Metrics").get(0).get("Unit").asText());
+        assertEquals("Count", directive.get("Metrics").get(1).get("Unit").asText());
+
+        final JsonNode latencies = line.get("DynamoDb.Query");
+        assertEquals(2, latencies.size());
+        assertEquals(3, latencies.get(0).asDouble(), 3 * 0.03);
+        assertEquals(12, latencies.get(1).asDouble(), 12 * 0.03);
+        assertEquals(1.0, line.get("DynamoDb.Query.consumedCapacity").asDouble(), 0);
+    }
+
+    @Test
+    public void values_aboveTheLimit_writesPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 10000; micros++) {
+            histogram.record(micros);
+        }
+
+        final double[] values = EmbeddedMetricsWriter.values(histogram);
+
+        assertEquals(EmbeddedMetricsWriter.MAX_VALUES_PER_METRIC, values.length);
+        assertEquals(0.05, values[0], 0.05 * 0.03);
+        assertEquals(9.95, values[values.length - 1], 9.95 * 0.03);
+        for (int i = 1; i < values.length; i++) {
+            assertTrue(values[i - 1] <= values[i]);
+        }
+    }
+
+    @Test
+    public void write_splitsDirectivesAtOneHundredMetrics() throws Exception {
+        for (int i = 0; i < 150; i++) {
+            registry.add("counter" + i, 1);
+        }
+
+        writer.write(registry);
+
+        final JsonNode directives = objectMapper.readTree(lines.get(0)).get("_aws").get("CloudWatchMetrics");
+        assertEquals(2, directives.size());
+        assertEquals(100, directives.get(0).get("Metrics").size());
+        assertEquals(50, directives.get(1).get("Metrics").size());
+    }
+}
@@ -0,0 +1,47 @@
+package com.varma.airtraffic.control.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+    private LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void index_coversEveryValueWithAdjacentBuckets() {
+        for (long value : new long[] {0, 1, 63, 64, 65, 127, 128, 1000, 123456789, Long.MAX_VALUE}) {
+            final int index = LatencyHistogram.index(value);
+            assertTrue(value + " below its bucket", LatencyHistogram.lowestValue(index) <= value);
+            assertTrue(value + " above its bucket", LatencyHistogram.highestValue(index) >= value);
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+        assertEquals(LatencyHistogram.highestValue(63) + 1, LatencyHistogram.lowestValue(64));
+    }
+
+    @Test
+    public void getValueAtPercentile_isWithinThreePercent() {
+        for (long micros = 1; micros <= 100000; micros++) {
+            histogram.record(micros);
+        }
+
+        assertEquals(100000, histogram.getCount());
+        assertEquals(100000, histogram.getMax());
+        assertEquals(50000, histogram.getValueAtPercentile(50), 50000 * 0.03);
+        assertEquals(99000, histogram.getValueAtPercentile(99), 99000 * 0.03);
+        assertEquals(100000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void drain_movesTheSamplesOut() {
+        histogram.record(10);
+        histogram.record(20);
+
+        final LatencyHistogram drained = histogram.drain();
+
+        assertEquals(2, drained.getCount());
+        assertEquals(20, drained.getMax());
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+}
@@ -0,0 +1,117 @@
+package com.varma.airtraffic.control.perf;
+
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.varma.airtraffic.control.handler.GetAircraftHandler;
+import com.varma.airtraffic.control.services.lambda.runtime.TestContext;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures container init the way Lambda pays for it: every sample is a fresh JVM that loads a handler
+ * class, constructs it and serves one request. Runs the samples once per STARTUP_MODE and prints the
+ * median and worst init and first request times.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *     com.varma.airtraffic.control.perf.ColdStartHarness [samples] [handler class]
+ * </pre>
+ * Point ENDPOINT_OVERRIDE at DynamoDB Local to include real round trips in the first request.
+ */
+public final class ColdStartHarness {
+    private static final String RESULT_PREFIX = "COLD_START ";
+    private static final String GET_EVENT = "{\"pathParameters\": {\"aircraftId\": \"cold-start\"}}";
+
+    private ColdStartHarness() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final int samples = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        final String handlerClass = args.length > 1 ? args[1] : GetAircraftHandler.class.getName();
+        for (String mode : new String[] {"standard", "optimized"}) {
+            final List<Long> initMillis = new ArrayList<>();
+            final List<Long> firstRequestMillis = new ArrayList<>();
+            for (int i = 0; i < samples; i++) {
+                final long[] sample = runChild(mode, handlerClass);
+                initMillis.add(sample[0]);
+                firstRequestMillis.add(sample[1]);
+            }
+            System.out.println(String.format("%-9s init p50 %5d ms max %5d ms | first request p50 %5d ms max %5d ms",
+                    mode, median(initMillis), Collections.max(initMillis),
+                    median(firstRequestMillis), Collections.max(firstRequestMillis)));
+        }
+    }
+
+    private static long[] runChild(final String mode, final String handlerClass)
+            throws IOException, InterruptedException {
+        final ProcessBuilder builder = new ProcessBuilder(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp", System.getProperty("java.class.path"),
+                Child.class.getName(), handlerClass);
+        final Map<String, String> environment = builder.environment();
+        environment.put("STARTUP_MODE", mode);
+        environment.putIfAbsent("AWS_REGION", "us-east-1");
+        environment.putIfAbsent("AWS_ACCESS_KEY_ID", "cold-start");
+        environment.putIfAbsent("AWS_SECRET_ACCESS_KEY", "cold-start");
+        builder.redirectErrorStream(true);
+
+        final Process process = builder.start();
+        long[] sample = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    final String[] values = line.substring(RESULT_PREFIX.length()).split(" ");
+                    sample = new long[] {Long.parseLong(values[0]), Long.parseLong(values[1])};
+                }
+            }
+        }
+        if (process.waitFor() != 0 || sample == null) {
+            throw new IllegalStateException("Cold start sample in " + mode + " mode failed");
+        }
+        return sample;
+    }
+
+    private static long median(final List<Long> values) {
+        final List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    /**
+     * One sample, init is measured from JVM start so class loading of the handler is included.
+     */
+    public static final class Child {
+        private Child() {
+        }
+
+        public static void main(final String[] args) throws Exception {
+            final RequestStreamHandler handler = (RequestStreamHandler) Class.forName(args[0]).newInstance();
+            final long initMillis = System.currentTimeMillis()
+                    - ManagementFactory.getRuntimeMXBean().getStartTime();
+
+            final long start = System.nanoTime();
+            try {
+                handler.handleRequest(
+                        new ByteArrayInputStream(GET_EVENT.getBytes(StandardCharsets.UTF_8)),
+                        new ByteArrayOutputStream(), TestContext.builder().build());
+            } catch (RuntimeException e) {
+                // no table to talk to, the time spent getting there still counts
+            }
+            final long firstRequestMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println(RESULT_PREFIX + initMillis + " " + firstRequestMillis);
+            System.exit(0);
+        }
+    }
+}